@@ -0,0 +1,11 @@
+package com.evoauth.cluster;
+
+/**
+ * Reaches other cluster members' shards, typically over RPC.
+ */
+public interface ClusterTransport {
+    /**
+     * Returns a handle to the shard of {@code nodeId}.
+     */
+    SessionShard connect(String nodeId);
+}
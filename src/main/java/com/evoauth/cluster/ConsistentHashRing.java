@@ -0,0 +1,110 @@
+package com.evoauth.cluster;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+/**
+ * Immutable consistent-hash ring assigning each session ID to one node.
+ * <p>
+ * Every node is placed on a 64-bit ring at {@code virtualNodes} pseudo-random points,
+ * and a key belongs to the node owning the first point at or after the key's hash.
+ * With enough virtual nodes the load evens out across members, and adding or removing
+ * one of N nodes only reassigns the roughly 1/N of keys whose nearest point changed.
+ * Lookups are a binary search over a sorted primitive array.
+ */
+public final class ConsistentHashRing {
+    private final Set<String> nodes;
+    private final int virtualNodes;
+    private final long[] points;
+    private final String[] owners;
+
+    private ConsistentHashRing(Collection<String> nodes, int virtualNodes) {
+        if (virtualNodes <= 0) {
+            throw new IllegalArgumentException("Virtual nodes must be positive");
+        }
+        this.nodes = Collections.unmodifiableSet(new TreeSet<>(nodes));
+        this.virtualNodes = virtualNodes;
+
+        List<long[]> placed = new ArrayList<>(this.nodes.size() * virtualNodes);
+        List<String> names = new ArrayList<>(this.nodes);
+        for (int n = 0; n < names.size(); n++) {
+            for (int v = 0; v < virtualNodes; v++) {
+                placed.add(new long[] { hash(names.get(n) + '#' + v), n });
+            }
+        }
+        // Ties (vanishingly rare) are broken by node name so every member builds the same ring
+        placed.sort((a, b) -> a[0] != b[0] ? Long.compare(a[0], b[0]) : Long.compare(a[1], b[1]));
+
+        this.points = new long[placed.size()];
+        this.owners = new String[placed.size()];
+        for (int i = 0; i < placed.size(); i++) {
+            points[i] = placed.get(i)[0];
+            owners[i] = names.get((int) placed.get(i)[1]);
+        }
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodes, int virtualNodes) {
+        return new ConsistentHashRing(nodes, virtualNodes);
+    }
+
+    public static ConsistentHashRing of(Collection<String> nodes) {
+        return new ConsistentHashRing(nodes, 160);
+    }
+
+    public ConsistentHashRing withNode(String nodeId) {
+        Set<String> next = new TreeSet<>(nodes);
+        next.add(nodeId);
+        return new ConsistentHashRing(next, virtualNodes);
+    }
+
+    public ConsistentHashRing withoutNode(String nodeId) {
+        Set<String> next = new TreeSet<>(nodes);
+        next.remove(nodeId);
+        return new ConsistentHashRing(next, virtualNodes);
+    }
+
+    /**
+     * Returns the node owning {@code key}, or null if the ring is empty.
+     */
+    public String ownerOf(String key) {
+        if (points.length == 0) {
+            return null;
+        }
+        int index = Arrays.binarySearch(points, hash(key));
+        if (index < 0) {
+            index = -index - 1;
+        }
+        return owners[index == points.length ? 0 : index];
+    }
+
+    public Set<String> getNodes() {
+        return nodes;
+    }
+
+    public boolean isEmpty() {
+        return nodes.isEmpty();
+    }
+
+    /**
+     * 64-bit FNV-1a with the MurmurHash3 finalizer, which spreads similar inputs
+     * (such as {@code node#1}, {@code node#2}) evenly around the ring.
+     */
+    static long hash(String key) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < key.length(); i++) {
+            h ^= key.charAt(i);
+            h *= 0x100000001b3L;
+        }
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
@@ -0,0 +1,249 @@
+package com.evoauth.cluster;
+
+import com.evoauth.session.SessionSnapshot;
+import com.evoauth.session.SessionStore;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link SessionStore} for a cluster behind a load balancer: sessions live in a shared
+ * {@link RemoteSessionBackend}, and each node keeps a near-cache (L1) in front of it
+ * so most reads never leave the process.
+ * <p>
+ * Every stored session carries a version. Writes are compare-and-set against the
+ * version this node last saw, retried from the backend on conflict, so concurrent
+ * updates from different nodes are never lost. After a write the node publishes the
+ * new version on the {@link InvalidationBus}; other nodes replace their L1 copy with
+ * a tombstone at that version and reload on next use. Because an L1 entry is only
+ * ever replaced by one with a higher version, a slow load can't reinstate a value
+ * that has already been invalidated. Entries are also revalidated after
+ * {@link Builder#l1Ttl} in case an invalidation is lost.
+ */
+public class DistributedSessionStore implements SessionStore, AutoCloseable {
+    private final String nodeId;
+    private final RemoteSessionBackend backend;
+    private final InvalidationBus bus;
+    private final AutoCloseable subscription;
+    private final long l1TtlMs;
+    private final int maximumL1Size;
+    private final LongSupplier clock;
+
+    private final ConcurrentHashMap<String, Entry> l1 = new ConcurrentHashMap<>();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    private DistributedSessionStore(Builder builder) {
+        this.nodeId = builder.nodeId != null ? builder.nodeId : UUID.randomUUID().toString();
+        this.backend = builder.backend;
+        this.bus = builder.bus;
+        this.l1TtlMs = builder.l1Ttl.toMillis();
+        this.maximumL1Size = builder.maximumL1Size;
+        this.clock = builder.clock;
+        this.subscription = bus.subscribe(this::onInvalidation);
+    }
+
+    @Override
+    public SessionSnapshot get(String sessionId) {
+        long now = clock.getAsLong();
+        Entry entry = l1.get(sessionId);
+        if (entry != null && entry.session != null && now - entry.loadedAt < l1TtlMs) {
+            hits.increment();
+            return entry.session;
+        }
+        misses.increment();
+        VersionedSession loaded = load(sessionId, now);
+        return loaded != null ? loaded.getSession() : null;
+    }
+
+    @Override
+    public void put(String sessionId, SessionSnapshot session) {
+        compute(sessionId, current -> session);
+    }
+
+    @Override
+    public SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update) {
+        long now = clock.getAsLong();
+        Entry entry = l1.get(sessionId);
+        VersionedSession expected = entry != null && entry.session != null && now - entry.loadedAt < l1TtlMs
+                ? new VersionedSession(entry.session, entry.version)
+                : backend.get(sessionId);
+
+        while (true) {
+            long expectedVersion = expected != null ? expected.getVersion() : 0;
+            SessionSnapshot next = update.apply(expected != null ? expected.getSession() : null);
+            if (next == null && expected == null) {
+                return null;
+            }
+
+            VersionedSession written = backend.compareAndSet(sessionId, expectedVersion, next);
+            if (written != null) {
+                cache(sessionId, new Entry(next, written.getVersion(), clock.getAsLong()));
+                bus.publish(new InvalidationBus.Invalidation(sessionId, written.getVersion(), nodeId));
+                return next;
+            }
+            // Another node wrote first: retry against its value
+            expected = backend.get(sessionId);
+        }
+    }
+
+    @Override
+    public SessionSnapshot remove(String sessionId) {
+        SessionSnapshot[] removed = new SessionSnapshot[1];
+        compute(sessionId, current -> {
+            removed[0] = current;
+            return null;
+        });
+        return removed[0];
+    }
+
+    @Override
+    public long size() {
+        return backend.size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        backend.forEach(action);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    public double getHitRate() {
+        long h = hits.sum();
+        long total = h + misses.sum();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    private VersionedSession load(String sessionId, long now) {
+        // A placeholder at version 0 lets an invalidation arriving mid-load leave a
+        // tombstone behind, which then outranks the stale value being loaded
+        Entry placeholder = new Entry(null, 0, now);
+        l1.putIfAbsent(sessionId, placeholder);
+
+        VersionedSession loaded = backend.get(sessionId);
+        if (loaded == null) {
+            l1.remove(sessionId, placeholder);
+            return null;
+        }
+        cache(sessionId, new Entry(loaded.getSession(), loaded.getVersion(), now));
+        return loaded;
+    }
+
+    private void cache(String sessionId, Entry entry) {
+        l1.merge(sessionId, entry, (existing, incoming) -> existing.version > incoming.version ? existing : incoming);
+        if (l1.size() > maximumL1Size) {
+            trim();
+        }
+    }
+
+    private void trim() {
+        // Evicts in iteration order, which is effectively random for session IDs
+        Iterator<String> keys = l1.keySet().iterator();
+        while (l1.size() > maximumL1Size && keys.hasNext()) {
+            keys.next();
+            keys.remove();
+        }
+    }
+
+    private void onInvalidation(InvalidationBus.Invalidation invalidation) {
+        if (nodeId.equals(invalidation.getOriginNodeId())) {
+            return;
+        }
+        Entry tombstone = new Entry(null, invalidation.getVersion(), clock.getAsLong());
+        l1.computeIfPresent(invalidation.getSessionId(),
+                (id, existing) -> existing.version >= invalidation.getVersion() ? existing : tombstone);
+    }
+
+    /**
+     * Stops listening for invalidations. The shared backend is left untouched.
+     */
+    @Override
+    public void close() {
+        try {
+            subscription.close();
+        } catch (Exception ignored) {
+            // Nothing more to release
+        }
+        l1.clear();
+    }
+
+    /**
+     * L1 copy of a session; a null session is a placeholder or tombstone that forces a reload.
+     */
+    private static final class Entry {
+        final SessionSnapshot session;
+        final long version;
+        final long loadedAt;
+
+        Entry(SessionSnapshot session, long version, long loadedAt) {
+            this.session = session;
+            this.version = version;
+            this.loadedAt = loadedAt;
+        }
+    }
+
+    public static class Builder {
+        private String nodeId;
+        private RemoteSessionBackend backend;
+        private InvalidationBus bus;
+        private Duration l1Ttl = Duration.ofSeconds(30);
+        private int maximumL1Size = 100_000;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        /**
+         * Identifies this node on the bus. Defaults to a random UUID.
+         */
+        public Builder nodeId(String nodeId) {
+            this.nodeId = nodeId;
+            return this;
+        }
+
+        public Builder backend(RemoteSessionBackend backend) {
+            this.backend = backend;
+            return this;
+        }
+
+        public Builder invalidationBus(InvalidationBus bus) {
+            this.bus = bus;
+            return this;
+        }
+
+        /**
+         * Longest an L1 entry is trusted without hearing from the backend.
+         */
+        public Builder l1Ttl(Duration l1Ttl) {
+            this.l1Ttl = l1Ttl;
+            return this;
+        }
+
+        public Builder maximumL1Size(int maximumL1Size) {
+            this.maximumL1Size = maximumL1Size;
+            return this;
+        }
+
+        // Exposed for testing
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public DistributedSessionStore build() {
+            if (backend == null || bus == null) {
+                throw new IllegalArgumentException("Backend and invalidation bus are required");
+            }
+            if (maximumL1Size <= 0) {
+                throw new IllegalArgumentException("Maximum L1 size must be positive");
+            }
+            return new DistributedSessionStore(this);
+        }
+    }
+}
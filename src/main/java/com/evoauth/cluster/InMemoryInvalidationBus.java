@@ -0,0 +1,30 @@
+package com.evoauth.cluster;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Consumer;
+
+/**
+ * In-process {@link InvalidationBus} delivering each message synchronously to every
+ * subscriber, standing in for Redis pub/sub or similar in tests.
+ */
+public class InMemoryInvalidationBus implements InvalidationBus {
+    private final List<Consumer<Invalidation>> subscribers = new CopyOnWriteArrayList<>();
+
+    @Override
+    public void publish(Invalidation invalidation) {
+        for (Consumer<Invalidation> subscriber : subscribers) {
+            try {
+                subscriber.accept(invalidation);
+            } catch (RuntimeException ignored) {
+                // One failing node must not stop delivery to the others
+            }
+        }
+    }
+
+    @Override
+    public AutoCloseable subscribe(Consumer<Invalidation> listener) {
+        subscribers.add(listener);
+        return () -> subscribers.remove(listener);
+    }
+}
@@ -0,0 +1,66 @@
+package com.evoauth.cluster;
+
+import com.evoauth.session.SessionSnapshot;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * In-process {@link RemoteSessionBackend} shared by several simulated nodes, for tests
+ * and local development, and the local {@link SessionShard} of an in-JVM cluster node.
+ * Counts reads so tests can check how often nodes miss L1.
+ */
+public class InMemoryRemoteBackend implements SessionShard {
+    private final ConcurrentHashMap<String, VersionedSession> sessions = new ConcurrentHashMap<>();
+    private final LongAdder reads = new LongAdder();
+
+    @Override
+    public VersionedSession get(String sessionId) {
+        reads.increment();
+        VersionedSession stored = sessions.get(sessionId);
+        return stored != null && stored.getSession() != null ? stored : null;
+    }
+
+    @Override
+    public VersionedSession compareAndSet(String sessionId, long expectedVersion, SessionSnapshot session) {
+        VersionedSession[] written = new VersionedSession[1];
+        sessions.compute(sessionId, (id, stored) -> {
+            boolean present = stored != null && stored.getSession() != null;
+            long currentVersion = present ? stored.getVersion() : 0;
+            if (currentVersion != expectedVersion) {
+                return stored;
+            }
+            // Versions keep growing across removals, so a re-created session never reuses one
+            long base = stored != null ? stored.getVersion() : 0;
+            written[0] = new VersionedSession(session, base + 1);
+            return written[0];
+        });
+        return written[0];
+    }
+
+    @Override
+    public void receive(Map<String, VersionedSession> handedOff) {
+        handedOff.forEach((id, incoming) -> sessions.merge(id, incoming,
+                (stored, offered) -> stored.getVersion() >= offered.getVersion() ? stored : offered));
+    }
+
+    @Override
+    public long size() {
+        return sessions.values().stream().filter(v -> v.getSession() != null).count();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        sessions.forEach((id, stored) -> {
+            if (stored.getSession() != null) {
+                action.accept(id, stored.getSession());
+            }
+        });
+    }
+
+    public long getReadCount() {
+        return reads.sum();
+    }
+}
@@ -0,0 +1,45 @@
+package com.evoauth.cluster;
+
+import java.util.function.Consumer;
+
+/**
+ * Broadcasts session changes between nodes so they can drop stale near-cache entries.
+ * Delivery may be asynchronous and at-most-once; the near-cache's TTL bounds staleness
+ * when a message is lost.
+ */
+public interface InvalidationBus {
+    void publish(Invalidation invalidation);
+
+    /**
+     * Registers {@code listener} for messages from every node, including this one.
+     * Closing the returned handle unsubscribes.
+     */
+    AutoCloseable subscribe(Consumer<Invalidation> listener);
+
+    /**
+     * Session {@code sessionId} changed to {@code version} on node {@code originNodeId}.
+     */
+    final class Invalidation {
+        private final String sessionId;
+        private final long version;
+        private final String originNodeId;
+
+        public Invalidation(String sessionId, long version, String originNodeId) {
+            this.sessionId = sessionId;
+            this.version = version;
+            this.originNodeId = originNodeId;
+        }
+
+        public String getSessionId() {
+            return sessionId;
+        }
+
+        public long getVersion() {
+            return version;
+        }
+
+        public String getOriginNodeId() {
+            return originNodeId;
+        }
+    }
+}
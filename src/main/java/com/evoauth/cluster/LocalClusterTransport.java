@@ -0,0 +1,28 @@
+package com.evoauth.cluster;
+
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * {@link ClusterTransport} connecting nodes that live in the same JVM, for tests and
+ * local development.
+ */
+public class LocalClusterTransport implements ClusterTransport {
+    private final ConcurrentHashMap<String, SessionShard> shards = new ConcurrentHashMap<>();
+
+    public void register(String nodeId, SessionShard shard) {
+        shards.put(nodeId, shard);
+    }
+
+    public void unregister(String nodeId) {
+        shards.remove(nodeId);
+    }
+
+    @Override
+    public SessionShard connect(String nodeId) {
+        SessionShard shard = shards.get(nodeId);
+        if (shard == null) {
+            throw new IllegalStateException("Unknown cluster node " + nodeId);
+        }
+        return shard;
+    }
+}
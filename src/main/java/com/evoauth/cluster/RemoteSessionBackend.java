@@ -0,0 +1,27 @@
+package com.evoauth.cluster;
+
+import com.evoauth.session.SessionSnapshot;
+
+import java.util.function.BiConsumer;
+
+/**
+ * Shared session storage reachable from every node, such as Redis or a database.
+ * Implementations must make {@link #compareAndSet} atomic per session ID.
+ */
+public interface RemoteSessionBackend {
+    /**
+     * Returns the session and its version, or null if it doesn't exist.
+     */
+    VersionedSession get(String sessionId);
+
+    /**
+     * Stores {@code session} (or removes the entry if null) only if the current version
+     * is {@code expectedVersion}, where 0 means absent. Returns the stored value with its
+     * new version, or null if the version didn't match.
+     */
+    VersionedSession compareAndSet(String sessionId, long expectedVersion, SessionSnapshot session);
+
+    long size();
+
+    void forEach(BiConsumer<String, SessionSnapshot> action);
+}
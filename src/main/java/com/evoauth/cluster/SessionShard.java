@@ -0,0 +1,14 @@
+package com.evoauth.cluster;
+
+import java.util.Map;
+
+/**
+ * The sessions owned by one cluster member, as reachable over a {@link ClusterTransport}.
+ */
+public interface SessionShard extends RemoteSessionBackend {
+    /**
+     * Accepts sessions handed off by their previous owner. Where this shard already
+     * holds a session, the copy with the higher version wins.
+     */
+    void receive(Map<String, VersionedSession> sessions);
+}
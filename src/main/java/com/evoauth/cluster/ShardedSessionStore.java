@@ -0,0 +1,221 @@
+package com.evoauth.cluster;
+
+import com.evoauth.session.SessionSnapshot;
+import com.evoauth.session.SessionStore;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link SessionStore} view of a cluster in which every session is owned by exactly one
+ * node, chosen by a {@link ConsistentHashRing}. Operations on sessions this node owns go
+ * to its local shard; the rest are forwarded to the owner over the {@link ClusterTransport}.
+ * <p>
+ * <b>Rebalancing.</b> When membership changes, each node applies the new ring with
+ * {@link #updateRing} and hands off only the sessions whose owner changed, in one batch
+ * per new owner. A session written on this node while its batch is in flight is sent
+ * again until the local copy can be dropped. Nodes apply the ring independently, so
+ * until the next membership change every lookup also reads the session's owner under the
+ * previous ring, and a newer copy there (written by a node that hasn't switched yet) is
+ * pulled across. That costs one extra read per operation on moved sessions while the
+ * previous ring is remembered.
+ * <p>
+ * Updates are compare-and-set on the owner's version stamps, retried on conflict.
+ */
+public class ShardedSessionStore implements SessionStore {
+    private final String nodeId;
+    private final SessionShard localShard;
+    private final ClusterTransport transport;
+
+    private volatile ConsistentHashRing ring;
+    private volatile ConsistentHashRing previousRing;
+
+    public ShardedSessionStore(String nodeId, SessionShard localShard, ClusterTransport transport,
+            ConsistentHashRing ring) {
+        this.nodeId = nodeId;
+        this.localShard = localShard;
+        this.transport = transport;
+        this.ring = ring;
+    }
+
+    @Override
+    public SessionSnapshot get(String sessionId) {
+        VersionedSession stored = lookup(sessionId);
+        return stored != null ? stored.getSession() : null;
+    }
+
+    @Override
+    public void put(String sessionId, SessionSnapshot session) {
+        compute(sessionId, current -> session);
+    }
+
+    @Override
+    public SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update) {
+        while (true) {
+            SessionShard owner = owner(sessionId);
+            VersionedSession expected = lookup(sessionId);
+
+            SessionSnapshot next = update.apply(expected != null ? expected.getSession() : null);
+            if (next == null && expected == null) {
+                return null;
+            }
+            if (owner.compareAndSet(sessionId, expected != null ? expected.getVersion() : 0, next) != null) {
+                return next;
+            }
+        }
+    }
+
+    @Override
+    public SessionSnapshot remove(String sessionId) {
+        SessionSnapshot[] removed = new SessionSnapshot[1];
+        compute(sessionId, current -> {
+            removed[0] = current;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Sessions across every member of the ring, each counted once even while a hand-off
+     * has left a copy on its previous owner.
+     */
+    @Override
+    public long size() {
+        long size = 0;
+        if (previousRing == null) {
+            for (String member : ring.getNodes()) {
+                size += shard(member).size();
+            }
+            return size;
+        }
+        long[] count = new long[1];
+        forEach((id, session) -> count[0]++);
+        return count[0];
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        ConsistentHashRing current = ring;
+        for (String member : current.getNodes()) {
+            SessionShard shard = shard(member);
+            shard.forEach((id, session) -> {
+                // A copy left behind by a hand-off counts only if the owner has none
+                String owner = current.ownerOf(id);
+                if (member.equals(owner) || shard(owner).get(id) == null) {
+                    action.accept(id, session);
+                }
+            });
+        }
+    }
+
+    /**
+     * Switches to {@code next} and hands off the local sessions this node no longer owns.
+     * Every member should apply the same ring; a node leaving the cluster applies a ring
+     * without itself to hand off everything before shutting down.
+     *
+     * @return the number of sessions handed off
+     */
+    public int updateRing(ConsistentHashRing next) {
+        previousRing = ring;
+        ring = next;
+
+        Map<String, Map<String, VersionedSession>> outgoing = new HashMap<>();
+        localShard.forEach((id, session) -> {
+            String owner = next.ownerOf(id);
+            if (owner != null && !owner.equals(nodeId)) {
+                VersionedSession stored = localShard.get(id);
+                if (stored != null) {
+                    outgoing.computeIfAbsent(owner, o -> new HashMap<>()).put(id, stored);
+                }
+            }
+        });
+
+        int handedOff = 0;
+        for (Map.Entry<String, Map<String, VersionedSession>> batch : outgoing.entrySet()) {
+            SessionShard newOwner = transport.connect(batch.getKey());
+            newOwner.receive(batch.getValue());
+            for (Map.Entry<String, VersionedSession> moved : batch.getValue().entrySet()) {
+                handOff(moved.getKey(), moved.getValue(), newOwner);
+                handedOff++;
+            }
+        }
+        return handedOff;
+    }
+
+    public ConsistentHashRing getRing() {
+        return ring;
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Drops the local copy of a session already sent to {@code newOwner}, first sending
+     * any newer version that a node still on the previous ring wrote meanwhile.
+     */
+    private void handOff(String sessionId, VersionedSession sent, SessionShard newOwner) {
+        while (localShard.compareAndSet(sessionId, sent.getVersion(), null) == null) {
+            VersionedSession current = localShard.get(sessionId);
+            if (current == null) {
+                // Removed meanwhile: stamp a fresh removal and pass it on so it beats the sent copy
+                current = localShard.compareAndSet(sessionId, 0, null);
+                if (current == null) {
+                    continue;
+                }
+                newOwner.receive(Map.of(sessionId, current));
+                return;
+            }
+            newOwner.receive(Map.of(sessionId, current));
+            sent = current;
+        }
+    }
+
+    /**
+     * Reads a session from its owner and, while a ring change may still be propagating,
+     * from its owner under the previous ring, pulling the previous owner's copy across
+     * when it is newer.
+     */
+    private VersionedSession lookup(String sessionId) {
+        SessionShard owner = owner(sessionId);
+        VersionedSession stored = owner.get(sessionId);
+        ConsistentHashRing previous = previousRing;
+        if (previous == null) {
+            return stored;
+        }
+        String previousOwner = previous.ownerOf(sessionId);
+        if (previousOwner == null || previousOwner.equals(ring.ownerOf(sessionId))) {
+            return stored;
+        }
+        SessionShard previousShard;
+        VersionedSession stale;
+        try {
+            previousShard = shard(previousOwner);
+            stale = previousShard.get(sessionId);
+        } catch (RuntimeException e) {
+            // The previous owner has left; whatever it held was handed off before it did
+            return stored;
+        }
+        if (stale == null || (stored != null && stored.getVersion() >= stale.getVersion())) {
+            return stored;
+        }
+        owner.receive(Map.of(sessionId, stale));
+        // Left in place if it changed again; the next lookup pulls that copy too
+        previousShard.compareAndSet(sessionId, stale.getVersion(), null);
+        return owner.get(sessionId);
+    }
+
+    private SessionShard owner(String sessionId) {
+        String owner = ring.ownerOf(sessionId);
+        if (owner == null) {
+            throw new IllegalStateException("Cluster has no members");
+        }
+        return shard(owner);
+    }
+
+    private SessionShard shard(String member) {
+        return member.equals(nodeId) ? localShard : transport.connect(member);
+    }
+}
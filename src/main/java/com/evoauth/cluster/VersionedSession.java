@@ -0,0 +1,26 @@
+package com.evoauth.cluster;
+
+import com.evoauth.session.SessionSnapshot;
+
+/**
+ * A session as stored in a {@link RemoteSessionBackend}, stamped with a version that
+ * grows with every write. A null session marks a removal, kept so that stale copies
+ * can be recognised as older.
+ */
+public final class VersionedSession {
+    private final SessionSnapshot session;
+    private final long version;
+
+    public VersionedSession(SessionSnapshot session, long version) {
+        this.session = session;
+        this.version = version;
+    }
+
+    public SessionSnapshot getSession() {
+        return session;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+}
@@ -2,13 +2,26 @@ package com.evoauth.core;
 
 import com.evoauth.exceptions.AuthApiException;
 import com.evoauth.exceptions.AuthSdkException;
+import com.evoauth.http.AuthTransport;
 import com.evoauth.http.HttpClientProvider;
 import com.evoauth.models.*;
+import com.evoauth.security.VerifiedTokenCache;
 import com.evoauth.session.SessionManager;
+import com.evoauth.session.SessionRegistry;
+import com.evoauth.session.SessionSnapshot;
+import com.evoauth.session.SessionTimerWheel;
+import com.evoauth.session.TokenRefreshScheduler;
 
-public class AuthClient {
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+public class AuthClient implements AutoCloseable {
     private final HttpClientProvider httpClient;
     private final SessionManager sessionManager;
+    private final SessionRegistry sessionRegistry;
+    private final TokenRefreshScheduler refreshScheduler;
+    private final SessionTimerWheel sessionTimers;
+    private volatile VerifiedTokenCache verifiedTokenCache;
 
     public AuthClient(AuthConfig config) {
         this(config, new SessionManager());
@@ -16,18 +29,93 @@ public class AuthClient {
 
     // Exposed for testing dependency injection
     public AuthClient(AuthConfig config, SessionManager sessionManager) {
-        this.httpClient = new HttpClientProvider(config);
+        this(config, sessionManager, new SessionRegistry(), new HttpClientProvider(config));
+    }
+
+    /**
+     * Creates a client on a transport shared with other clients, e.g. one client per
+     * tenant API key. Only {@code baseUrl} and {@code apiKey} (and refresh settings)
+     * are taken from {@code config}; connection settings come from the transport.
+     */
+    public AuthClient(AuthConfig config, AuthTransport transport) {
+        this(config, new SessionManager(), new SessionRegistry(), new HttpClientProvider(config, transport));
+    }
+
+    public AuthClient(AuthConfig config, SessionManager sessionManager, AuthTransport transport) {
+        this(config, sessionManager, new SessionRegistry(), new HttpClientProvider(config, transport));
+    }
+
+    /**
+     * Creates a client whose session-scoped methods keep their sessions in {@code sessionRegistry}.
+     */
+    public AuthClient(AuthConfig config, SessionRegistry sessionRegistry) {
+        this(config, new SessionManager(), sessionRegistry, new HttpClientProvider(config));
+    }
+
+    public AuthClient(AuthConfig config, SessionRegistry sessionRegistry, AuthTransport transport) {
+        this(config, new SessionManager(), sessionRegistry, new HttpClientProvider(config, transport));
+    }
+
+    private AuthClient(AuthConfig config, SessionManager sessionManager, SessionRegistry sessionRegistry,
+            HttpClientProvider httpClient) {
+        this.httpClient = httpClient;
         this.sessionManager = sessionManager;
+        this.sessionRegistry = sessionRegistry;
 
         // Configure Auto-Refresh
-        this.httpClient.setTokenRefresher(() -> {
-            try {
-                refreshSession(); // Synchronous call
+        this.httpClient.setTokenRefresher(new HttpClientProvider.TokenRefresher() {
+            @Override
+            public String refreshToken() {
+                try {
+                    refreshSession(); // Synchronous call
+                    return sessionManager.getAccessToken();
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public String currentAccessToken() {
                 return sessionManager.getAccessToken();
-            } catch (Exception e) {
-                return null;
+            }
+
+            @Override
+            public String currentRefreshToken() {
+                return sessionManager.getRefreshToken();
             }
         });
+
+        // Refresh ahead of expiry through the same single-flight path as 401 retries
+        if (config.isProactiveRefreshEnabled()) {
+            this.refreshScheduler = new TokenRefreshScheduler(config.getRefreshAheadFraction(),
+                    config.getRefreshJitterFraction(),
+                    () -> httpClient.refreshAccessToken(sessionManager.getAccessToken()));
+            sessionManager.setRefreshScheduler(refreshScheduler);
+        } else {
+            this.refreshScheduler = null;
+        }
+
+        // One wheel drives refresh and expiry for every keyed session
+        boolean refreshSessions = config.isProactiveRefreshEnabled();
+        this.sessionTimers = new SessionTimerWheel.Builder()
+                .refreshAheadFraction(config.getRefreshAheadFraction())
+                .jitterFraction(config.getRefreshJitterFraction())
+                .listener(new SessionTimerWheel.Listener() {
+                    @Override
+                    public void onRefreshDue(String sessionId) {
+                        if (refreshSessions) {
+                            // Failures fall back to the 401 path on the next request
+                            refreshSessionAsync(sessionId).exceptionally(error -> null);
+                        }
+                    }
+
+                    @Override
+                    public void onExpired(String sessionId) {
+                        sessionRegistry.expireSession(sessionId);
+                    }
+                })
+                .build();
+        sessionRegistry.setTimerWheel(sessionTimers);
     }
 
     /**
@@ -44,6 +132,15 @@ public class AuthClient {
         throw new AuthSdkException("Login failed: Empty response");
     }
 
+    /**
+     * Non-blocking variant of {@link #login(String, String)}.
+     */
+    public CompletableFuture<User> loginAsync(String email, String password) {
+        LoginRequest request = new LoginRequest(email, password);
+        return httpClient.postAsync("/api/v1/auth/login", request, AuthResponse.class)
+                .thenApply(response -> startSession(response, "Login failed: Empty response"));
+    }
+
     /**
      * Registers a new user.
      */
@@ -60,6 +157,23 @@ public class AuthClient {
         throw new AuthSdkException("Signup failed: Empty response");
     }
 
+    /**
+     * Non-blocking variant of {@link #signup(String, String, String, String)}.
+     */
+    public CompletableFuture<User> signupAsync(String email, String password, String firstName, String lastName) {
+        SignupRequest request = new SignupRequest(email, password, firstName, lastName);
+        return httpClient.postAsync("/api/v1/auth/signup", request, AuthResponse.class)
+                .thenApply(response -> startSession(response, "Signup failed: Empty response"));
+    }
+
+    /**
+     * Registers a verification cache whose entry for the session's token is
+     * dropped on logout.
+     */
+    public void setVerifiedTokenCache(VerifiedTokenCache verifiedTokenCache) {
+        this.verifiedTokenCache = verifiedTokenCache;
+    }
+
     /**
      * Logs out the user and clears the session.
      */
@@ -67,6 +181,7 @@ public class AuthClient {
         if (!sessionManager.isAuthenticated())
             return;
 
+        invalidateVerifiedToken(sessionManager.getAccessToken());
         try {
             // Best effort logout on server
             httpClient.post("/api/v1/auth/logout", null, Void.class, sessionManager.getAccessToken());
@@ -77,6 +192,22 @@ public class AuthClient {
         }
     }
 
+    /**
+     * Non-blocking variant of {@link #logout()}. The local session is cleared once
+     * the server call settles, whatever its outcome.
+     */
+    public CompletableFuture<Void> logoutAsync() {
+        if (!sessionManager.isAuthenticated())
+            return CompletableFuture.completedFuture(null);
+
+        invalidateVerifiedToken(sessionManager.getAccessToken());
+        return httpClient.postAsync("/api/v1/auth/logout", null, Void.class, sessionManager.getAccessToken())
+                .handle((ignored, error) -> {
+                    sessionManager.endSession();
+                    return null;
+                });
+    }
+
     /**
      * Refreshes the access token using the refresh token.
      */
@@ -93,17 +224,46 @@ public class AuthClient {
                 // If the server returns a new refresh token, update it. If not, keep the old
                 // one (logic depends on server).
                 // Assuming server returns full AuthResponse
-                sessionManager.startSession(response);
+                sessionManager.refreshSession(response);
             }
         } catch (AuthApiException e) {
             // If refresh fails (e.g., token expired), clear session
             if (e.getStatusCode() == 401 || e.getStatusCode() == 403) {
-                sessionManager.endSession();
+                sessionManager.expireSession();
             }
             throw e;
         }
     }
 
+    /**
+     * Non-blocking variant of {@link #refreshSession()}.
+     */
+    public CompletableFuture<Void> refreshSessionAsync() {
+        String refreshToken = sessionManager.getRefreshToken();
+        if (refreshToken == null) {
+            return CompletableFuture.failedFuture(new AuthSdkException("No refresh token available"));
+        }
+
+        RefreshRequest request = new RefreshRequest(refreshToken);
+        return httpClient.postAsync("/api/v1/auth/refresh", request, AuthResponse.class)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        if (cause instanceof AuthApiException) {
+                            int status = ((AuthApiException) cause).getStatusCode();
+                            if (status == 401 || status == 403) {
+                                sessionManager.expireSession();
+                            }
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    if (response != null) {
+                        sessionManager.refreshSession(response);
+                    }
+                    return null;
+                });
+    }
+
     public boolean isAuthenticated() {
         return sessionManager.isAuthenticated();
     }
@@ -126,6 +286,17 @@ public class AuthClient {
         return httpClient.post("/api/v1/2fa/enable", null, MfaResponse.class, sessionManager.getAccessToken());
     }
 
+    /**
+     * Non-blocking variant of {@link #enableMfa()}.
+     */
+    public CompletableFuture<MfaResponse> enableMfaAsync() {
+        if (!sessionManager.isAuthenticated()) {
+            return CompletableFuture.failedFuture(new AuthSdkException("User must be logged in to enable MFA"));
+        }
+        return httpClient.postAsync("/api/v1/2fa/enable", null, MfaResponse.class,
+                sessionManager.getAccessToken());
+    }
+
     /**
      * Verifies the 2FA code to finalize enrollment or login.
      */
@@ -137,12 +308,35 @@ public class AuthClient {
         try {
             // Assuming 200 OK means verified
             httpClient.post("/api/v1/2fa/verify", request, Void.class, sessionManager.getAccessToken());
+            sessionManager.mfaEnrolled();
             return true;
         } catch (AuthApiException e) {
             return false;
         }
     }
 
+    /**
+     * Non-blocking variant of {@link #verifyMfa(String)}.
+     */
+    public CompletableFuture<Boolean> verifyMfaAsync(String code) {
+        if (!sessionManager.isAuthenticated()) {
+            return CompletableFuture.failedFuture(new AuthSdkException("User must be logged in to verify MFA"));
+        }
+        MfaVerifyRequest request = new MfaVerifyRequest(code);
+        return httpClient.postAsync("/api/v1/2fa/verify", request, Void.class, sessionManager.getAccessToken())
+                .handle((ignored, error) -> {
+                    if (error == null) {
+                        sessionManager.mfaEnrolled();
+                        return true;
+                    }
+                    Throwable cause = unwrap(error);
+                    if (cause instanceof AuthApiException) {
+                        return false;
+                    }
+                    throw new CompletionException(cause);
+                });
+    }
+
     /**
      * Generates the URL to redirect the user to for Social Login.
      */
@@ -163,18 +357,7 @@ public class AuthClient {
     public User handleSocialCallback(String tempAuthCode) {
         // POST /api/v1/oauth/callback { "code": "..." }
         // Returns standard AuthResponse
-        // We'll reuse a generic Map or DTO here. Let's create an inner class or use
-        // Map.
-        class CodeRequest {
-            @SuppressWarnings("unused")
-            public String code;
-
-            public CodeRequest(String c) {
-                this.code = c;
-            }
-        }
-
-        AuthResponse response = httpClient.post("/api/v1/oauth/callback", new CodeRequest(tempAuthCode),
+        AuthResponse response = httpClient.post("/api/v1/oauth/callback", new OAuthCallbackRequest(tempAuthCode),
                 AuthResponse.class);
         if (response != null) {
             sessionManager.startSession(response);
@@ -182,4 +365,200 @@ public class AuthClient {
         }
         throw new AuthSdkException("OAuth callback failed");
     }
+
+    /**
+     * Non-blocking variant of {@link #handleSocialCallback(String)}.
+     */
+    public CompletableFuture<User> handleSocialCallbackAsync(String tempAuthCode) {
+        return httpClient.postAsync("/api/v1/oauth/callback", new OAuthCallbackRequest(tempAuthCode),
+                AuthResponse.class)
+                .thenApply(response -> startSession(response, "OAuth callback failed"));
+    }
+
+    // ---- Session-scoped API: one client serving many users, keyed by session ID ----
+
+    /**
+     * Authenticates a user and stores the session under {@code sessionId}.
+     */
+    public User login(String sessionId, String email, String password) {
+        LoginRequest request = new LoginRequest(email, password);
+        AuthResponse response = httpClient.post("/api/v1/auth/login", request, AuthResponse.class);
+
+        if (response != null) {
+            sessionRegistry.startSession(sessionId, response);
+            return response.getUser();
+        }
+        throw new AuthSdkException("Login failed: Empty response");
+    }
+
+    /**
+     * Refreshes the access token of the session stored under {@code sessionId}.
+     */
+    public void refreshSession(String sessionId) {
+        String refreshToken = sessionRegistry.getRefreshToken(sessionId);
+        if (refreshToken == null) {
+            throw new AuthSdkException("No refresh token available");
+        }
+
+        RefreshRequest request = new RefreshRequest(refreshToken);
+        try {
+            AuthResponse response = httpClient.post("/api/v1/auth/refresh", request, AuthResponse.class);
+            if (response != null) {
+                sessionRegistry.applyRefresh(sessionId, response);
+            }
+        } catch (AuthApiException e) {
+            if (e.getStatusCode() == 401 || e.getStatusCode() == 403) {
+                sessionRegistry.endSessionIfRefreshToken(sessionId, refreshToken);
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Refreshes the session stored under {@code sessionId} without blocking the caller.
+     */
+    public CompletableFuture<Void> refreshSessionAsync(String sessionId) {
+        String refreshToken = sessionRegistry.getRefreshToken(sessionId);
+        if (refreshToken == null) {
+            return CompletableFuture.failedFuture(new AuthSdkException("No refresh token available"));
+        }
+
+        RefreshRequest request = new RefreshRequest(refreshToken);
+        return httpClient.postAsync("/api/v1/auth/refresh", request, AuthResponse.class)
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        if (cause instanceof AuthApiException) {
+                            int status = ((AuthApiException) cause).getStatusCode();
+                            if (status == 401 || status == 403) {
+                                sessionRegistry.endSessionIfRefreshToken(sessionId, refreshToken);
+                            }
+                        }
+                        throw new CompletionException(cause);
+                    }
+                    if (response != null) {
+                        sessionRegistry.applyRefresh(sessionId, response);
+                    }
+                    return null;
+                });
+    }
+
+    /**
+     * Logs out the session stored under {@code sessionId}.
+     */
+    public void logout(String sessionId) {
+        SessionSnapshot session = sessionRegistry.endSession(sessionId);
+        if (session == null || session.getAccessToken() == null)
+            return;
+
+        invalidateVerifiedToken(session.getAccessToken());
+        try {
+            // Best effort logout on server
+            httpClient.post("/api/v1/auth/logout", null, Void.class, session.getAccessToken());
+        } catch (Exception ignored) {
+            // Session is already gone locally
+        }
+    }
+
+    /**
+     * Initiates 2FA enrollment for the session stored under {@code sessionId}.
+     */
+    public MfaResponse enableMfa(String sessionId) {
+        String accessToken = sessionRegistry.getAccessToken(sessionId);
+        if (accessToken == null) {
+            throw new AuthSdkException("User must be logged in to enable MFA");
+        }
+        return httpClient.post("/api/v1/2fa/enable", null, MfaResponse.class, accessToken,
+                sessionRefresher(sessionId));
+    }
+
+    /**
+     * Verifies a 2FA code for the session stored under {@code sessionId}.
+     */
+    public boolean verifyMfa(String sessionId, String code) {
+        String accessToken = sessionRegistry.getAccessToken(sessionId);
+        if (accessToken == null) {
+            throw new AuthSdkException("User must be logged in to verify MFA");
+        }
+        try {
+            httpClient.post("/api/v1/2fa/verify", new MfaVerifyRequest(code), Void.class, accessToken,
+                    sessionRefresher(sessionId));
+            sessionRegistry.recordMfaEnrolled(sessionId);
+            return true;
+        } catch (AuthApiException e) {
+            return false;
+        }
+    }
+
+    public boolean isAuthenticated(String sessionId) {
+        return sessionRegistry.isAuthenticated(sessionId);
+    }
+
+    public User getCurrentUser(String sessionId) {
+        return sessionRegistry.getUser(sessionId);
+    }
+
+    public String getAccessToken(String sessionId) {
+        return sessionRegistry.getAccessToken(sessionId);
+    }
+
+    public SessionRegistry getSessionRegistry() {
+        return sessionRegistry;
+    }
+
+    private HttpClientProvider.TokenRefresher sessionRefresher(String sessionId) {
+        return new HttpClientProvider.TokenRefresher() {
+            @Override
+            public String refreshToken() {
+                try {
+                    refreshSession(sessionId);
+                    return sessionRegistry.getAccessToken(sessionId);
+                } catch (Exception e) {
+                    return null;
+                }
+            }
+
+            @Override
+            public String currentAccessToken() {
+                return sessionRegistry.getAccessToken(sessionId);
+            }
+
+            @Override
+            public String currentRefreshToken() {
+                return sessionRegistry.getRefreshToken(sessionId);
+            }
+        };
+    }
+
+    /**
+     * Stops background work and releases connections owned by this client. A shared
+     * transport is left open. The session itself is left intact.
+     */
+    @Override
+    public void close() {
+        if (refreshScheduler != null) {
+            refreshScheduler.close();
+        }
+        sessionTimers.close();
+        httpClient.close();
+    }
+
+    private User startSession(AuthResponse response, String emptyResponseMessage) {
+        if (response == null) {
+            throw new AuthSdkException(emptyResponseMessage);
+        }
+        sessionManager.startSession(response);
+        return response.getUser();
+    }
+
+    private void invalidateVerifiedToken(String accessToken) {
+        VerifiedTokenCache cache = verifiedTokenCache;
+        if (cache != null) {
+            cache.invalidate(accessToken);
+        }
+    }
+
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
 }
@@ -1,14 +1,43 @@
 package com.evoauth.core;
 
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
 public class AuthConfig {
     private final String baseUrl;
     private final String apiKey;
     private final long connectionTimeoutMs;
+    private final Executor callbackExecutor;
+    private final boolean proactiveRefreshEnabled;
+    private final double refreshAheadFraction;
+    private final double refreshJitterFraction;
+    private final long readTimeoutMs;
+    private final long writeTimeoutMs;
+    private final long callTimeoutMs;
+    private final int maxIdleConnections;
+    private final long keepAliveMs;
+    private final int maxRequests;
+    private final int maxRequestsPerHost;
+    private final boolean http2Enabled;
+    private final boolean http2PriorKnowledge;
 
     private AuthConfig(Builder builder) {
         this.baseUrl = builder.baseUrl;
         this.apiKey = builder.apiKey;
         this.connectionTimeoutMs = builder.connectionTimeoutMs;
+        this.callbackExecutor = builder.callbackExecutor;
+        this.proactiveRefreshEnabled = builder.proactiveRefreshEnabled;
+        this.refreshAheadFraction = builder.refreshAheadFraction;
+        this.refreshJitterFraction = builder.refreshJitterFraction;
+        this.readTimeoutMs = builder.readTimeoutMs;
+        this.writeTimeoutMs = builder.writeTimeoutMs;
+        this.callTimeoutMs = builder.callTimeoutMs;
+        this.maxIdleConnections = builder.maxIdleConnections;
+        this.keepAliveMs = builder.keepAliveMs;
+        this.maxRequests = builder.maxRequests;
+        this.maxRequestsPerHost = builder.maxRequestsPerHost;
+        this.http2Enabled = builder.http2Enabled;
+        this.http2PriorKnowledge = builder.http2PriorKnowledge;
     }
 
     public String getBaseUrl() {
@@ -23,10 +52,75 @@ public class AuthConfig {
         return connectionTimeoutMs;
     }
 
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public boolean isProactiveRefreshEnabled() {
+        return proactiveRefreshEnabled;
+    }
+
+    public double getRefreshAheadFraction() {
+        return refreshAheadFraction;
+    }
+
+    public double getRefreshJitterFraction() {
+        return refreshJitterFraction;
+    }
+
+    public long getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public long getWriteTimeoutMs() {
+        return writeTimeoutMs;
+    }
+
+    public long getCallTimeoutMs() {
+        return callTimeoutMs;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public boolean isHttp2PriorKnowledge() {
+        return http2PriorKnowledge;
+    }
+
     public static class Builder {
         private String baseUrl;
         private String apiKey;
         private long connectionTimeoutMs = 10000; // Default 10s
+        private Executor callbackExecutor = ForkJoinPool.commonPool();
+        private boolean proactiveRefreshEnabled = true;
+        private double refreshAheadFraction = 0.8; // Refresh at 80% of the token lifetime
+        private double refreshJitterFraction = 0.05;
+        private long readTimeoutMs = -1; // Defaults to the connection timeout
+        private long writeTimeoutMs = 10000;
+        private long callTimeoutMs = 0; // 0 = no overall limit
+        private int maxIdleConnections = 5;
+        private long keepAliveMs = 300000; // OkHttp's default of 5 minutes
+        private int maxRequests = 64;
+        private int maxRequestsPerHost = 64; // The SDK talks to a single host, so this is effectively the async limit
+        private boolean http2Enabled = true;
+        private boolean http2PriorKnowledge = false; // h2c: cleartext HTTP/2 without upgrade
 
         public Builder baseUrl(String baseUrl) {
             this.baseUrl = baseUrl;
@@ -43,10 +137,123 @@ public class AuthConfig {
             return this;
         }
 
+        public Builder readTimeoutMs(long readTimeoutMs) {
+            this.readTimeoutMs = readTimeoutMs;
+            return this;
+        }
+
+        public Builder writeTimeoutMs(long writeTimeoutMs) {
+            this.writeTimeoutMs = writeTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Upper bound for a whole call including retries and the refresh-and-retry round trip.
+         */
+        public Builder callTimeoutMs(long callTimeoutMs) {
+            this.callTimeoutMs = callTimeoutMs;
+            return this;
+        }
+
+        /**
+         * Idle connections kept in the pool for reuse.
+         */
+        public Builder maxIdleConnections(int maxIdleConnections) {
+            this.maxIdleConnections = maxIdleConnections;
+            return this;
+        }
+
+        /**
+         * How long an idle pooled connection is kept before being closed.
+         */
+        public Builder keepAliveMs(long keepAliveMs) {
+            this.keepAliveMs = keepAliveMs;
+            return this;
+        }
+
+        /**
+         * Maximum concurrent async calls across all hosts.
+         */
+        public Builder maxRequests(int maxRequests) {
+            this.maxRequests = maxRequests;
+            return this;
+        }
+
+        /**
+         * Maximum concurrent async calls to the auth server.
+         */
+        public Builder maxRequestsPerHost(int maxRequestsPerHost) {
+            this.maxRequestsPerHost = maxRequestsPerHost;
+            return this;
+        }
+
+        /**
+         * Negotiate HTTP/2 over TLS when the server supports it.
+         */
+        public Builder http2Enabled(boolean http2Enabled) {
+            this.http2Enabled = http2Enabled;
+            return this;
+        }
+
+        /**
+         * Speak cleartext HTTP/2 (h2c) directly. Only for servers known to support it.
+         */
+        public Builder http2PriorKnowledge(boolean http2PriorKnowledge) {
+            this.http2PriorKnowledge = http2PriorKnowledge;
+            return this;
+        }
+
+        /**
+         * Executor used to deserialize responses of async calls, keeping that work
+         * off OkHttp's dispatcher threads.
+         */
+        public Builder callbackExecutor(Executor callbackExecutor) {
+            this.callbackExecutor = callbackExecutor;
+            return this;
+        }
+
+        /**
+         * Refresh access tokens in the background before they expire, based on the
+         * server's {@code expires_in}.
+         */
+        public Builder proactiveRefreshEnabled(boolean proactiveRefreshEnabled) {
+            this.proactiveRefreshEnabled = proactiveRefreshEnabled;
+            return this;
+        }
+
+        public Builder refreshAheadFraction(double refreshAheadFraction) {
+            this.refreshAheadFraction = refreshAheadFraction;
+            return this;
+        }
+
+        public Builder refreshJitterFraction(double refreshJitterFraction) {
+            this.refreshJitterFraction = refreshJitterFraction;
+            return this;
+        }
+
         public AuthConfig build() {
             if (baseUrl == null || baseUrl.isBlank()) {
                 throw new IllegalArgumentException("Base URL must not be empty");
             }
+            if (callbackExecutor == null) {
+                throw new IllegalArgumentException("Callback executor must not be null");
+            }
+            if (readTimeoutMs < 0) {
+                this.readTimeoutMs = connectionTimeoutMs;
+            }
+            if (maxRequests <= 0 || maxRequestsPerHost <= 0) {
+                throw new IllegalArgumentException("Request limits must be positive");
+            }
+            if (maxIdleConnections < 0 || keepAliveMs <= 0) {
+                throw new IllegalArgumentException("Invalid connection pool settings");
+            }
+            if (refreshAheadFraction <= 0 || refreshAheadFraction >= 1) {
+                throw new IllegalArgumentException("Refresh-ahead fraction must be between 0 and 1");
+            }
+            if (refreshJitterFraction < 0 || refreshJitterFraction >= refreshAheadFraction
+                    || refreshAheadFraction + refreshJitterFraction >= 1) {
+                throw new IllegalArgumentException("Refresh jitter must keep the refresh within the token lifetime");
+            }
             // Normalize URL to not have trailing slash
             if (baseUrl.endsWith("/")) {
                 this.baseUrl = baseUrl.substring(0, baseUrl.length() - 1);
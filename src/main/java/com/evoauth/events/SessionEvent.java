@@ -0,0 +1,69 @@
+package com.evoauth.events;
+
+/**
+ * One slot of the {@link SessionEventBus} ring buffer.
+ * <p>
+ * Events are preallocated and reused once every listener has moved past them, so a
+ * listener must not keep a reference after {@link SessionEventListener#onEvent} returns;
+ * copy the fields it needs instead.
+ */
+public final class SessionEvent {
+    private SessionEventType type;
+    private String sessionId;
+    private String userId;
+    private long timestamp;
+    private long sequence;
+
+    SessionEvent() {
+    }
+
+    void set(SessionEventType type, String sessionId, String userId, long timestamp, long sequence) {
+        this.type = type;
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.timestamp = timestamp;
+        this.sequence = sequence;
+    }
+
+    public SessionEventType getType() {
+        return type;
+    }
+
+    /**
+     * Session ID for keyed sessions, or null for the single session of a {@code SessionManager}.
+     */
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    /**
+     * ID of the user, when known.
+     */
+    public String getUserId() {
+        return userId;
+    }
+
+    /**
+     * Epoch millis at which the event was published.
+     */
+    public long getTimestamp() {
+        return timestamp;
+    }
+
+    /**
+     * Position in the ring buffer's stream of published events.
+     */
+    public long getSequence() {
+        return sequence;
+    }
+
+    @Override
+    public String toString() {
+        return "SessionEvent{" +
+                "type=" + type +
+                ", sessionId='" + sessionId + '\'' +
+                ", userId='" + userId + '\'' +
+                ", sequence=" + sequence +
+                '}';
+    }
+}
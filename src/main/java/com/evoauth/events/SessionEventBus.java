@@ -0,0 +1,269 @@
+package com.evoauth.events;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Delivers session lifecycle events to listeners without slowing down the threads
+ * that log users in.
+ * <p>
+ * Events go through a preallocated ring buffer in the style of the LMAX Disruptor.
+ * A publisher claims a sequence with one CAS, fills the slot in place and marks it
+ * available; nothing is allocated and no lock is taken. Each listener has its own
+ * consumer thread that processes every available event as a batch before advancing
+ * its position, so a slow listener only delays itself. Consumers that find nothing
+ * to do spin briefly and then park, so publishers never have to wake them.
+ * <p>
+ * Publishers only wait when the slowest listener is a full buffer behind, and then
+ * only under {@link BackPressure#BLOCK}.
+ */
+public class SessionEventBus implements AutoCloseable {
+
+    public enum BackPressure {
+        /** Wait for the slowest listener to free a slot. Nothing is lost. */
+        BLOCK,
+        /** Drop events while the buffer is full. */
+        DROP,
+        /**
+         * Once the buffer is half full, keep one event in {@code sampleRate}; drop
+         * everything while it is full. Listeners keep seeing a representative trickle.
+         */
+        SAMPLE
+    }
+
+    private static final long IDLE_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(200);
+    private static final int SPIN_TRIES = 100;
+
+    private final SessionEvent[] slots;
+    private final int mask;
+    private final int indexShift;
+    // Round in which each slot was last published; a slot is readable when it matches the sequence's round
+    private final AtomicIntegerArray published;
+    private final AtomicLong claimed = new AtomicLong(-1);
+    private final BackPressure backPressure;
+    private final int sampleRate;
+    private final List<Consumer> consumers = new ArrayList<>();
+    private final LongAdder dropped = new LongAdder();
+
+    private volatile long gatingCache = -1;
+    private volatile boolean running = true;
+
+    private SessionEventBus(Builder builder) {
+        int size = builder.bufferSize;
+        this.slots = new SessionEvent[size];
+        for (int i = 0; i < size; i++) {
+            slots[i] = new SessionEvent();
+        }
+        this.mask = size - 1;
+        this.indexShift = Integer.numberOfTrailingZeros(size);
+        this.published = new AtomicIntegerArray(size);
+        for (int i = 0; i < size; i++) {
+            published.set(i, -1);
+        }
+        this.backPressure = builder.backPressure;
+        this.sampleRate = builder.sampleRate;
+
+        int index = 0;
+        for (SessionEventListener listener : builder.listeners) {
+            Consumer consumer = new Consumer(listener);
+            Thread thread = new Thread(consumer, "evoauth-session-events-" + index++);
+            thread.setDaemon(true);
+            consumer.thread = thread;
+            consumers.add(consumer);
+        }
+        for (Consumer consumer : consumers) {
+            consumer.thread.start();
+        }
+    }
+
+    /**
+     * Publishes an event. Never allocates; returns false if the event was dropped or
+     * sampled out by the back-pressure policy, or the bus is closed.
+     */
+    public boolean publish(SessionEventType type, String sessionId, String userId) {
+        if (consumers.isEmpty() || !running) {
+            return false;
+        }
+        long sequence = claim();
+        if (sequence < 0) {
+            dropped.increment();
+            return false;
+        }
+        slots[(int) (sequence & mask)].set(type, sessionId, userId, System.currentTimeMillis(), sequence);
+        published.lazySet((int) (sequence & mask), (int) (sequence >>> indexShift));
+        return true;
+    }
+
+    private long claim() {
+        int size = slots.length;
+        while (true) {
+            long current = claimed.get();
+            long next = current + 1;
+            long wrapPoint = next - size;
+
+            long gating = gatingCache;
+            if (wrapPoint > gating || (backPressure == BackPressure.SAMPLE && next - gating > size / 2)) {
+                gating = minimumConsumerSequence();
+                gatingCache = gating;
+                if (wrapPoint > gating) {
+                    if (backPressure != BackPressure.BLOCK || !running) {
+                        return -1;
+                    }
+                    LockSupport.parkNanos(1);
+                    continue;
+                }
+                if (backPressure == BackPressure.SAMPLE && next - gating > size / 2
+                        && ThreadLocalRandom.current().nextInt(sampleRate) != 0) {
+                    return -1;
+                }
+            }
+            if (claimed.compareAndSet(current, next)) {
+                return next;
+            }
+        }
+    }
+
+    private long minimumConsumerSequence() {
+        long minimum = Long.MAX_VALUE;
+        for (Consumer consumer : consumers) {
+            minimum = Math.min(minimum, consumer.sequence);
+        }
+        return minimum;
+    }
+
+    private boolean isPublished(long sequence) {
+        return published.get((int) (sequence & mask)) == (int) (sequence >>> indexShift);
+    }
+
+    /**
+     * Events rejected by the back-pressure policy so far.
+     */
+    public long getDroppedCount() {
+        return dropped.sum();
+    }
+
+    public int getBufferSize() {
+        return slots.length;
+    }
+
+    /**
+     * Stops accepting events, lets the consumers drain what was already published and
+     * waits up to a second for them to finish.
+     */
+    @Override
+    public void close() {
+        running = false;
+        for (Consumer consumer : consumers) {
+            LockSupport.unpark(consumer.thread);
+        }
+        for (Consumer consumer : consumers) {
+            try {
+                consumer.thread.join(1000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    private final class Consumer implements Runnable {
+        final SessionEventListener listener;
+        Thread thread;
+        // Last sequence this listener has finished with
+        volatile long sequence = -1;
+
+        Consumer(SessionEventListener listener) {
+            this.listener = listener;
+        }
+
+        @Override
+        public void run() {
+            int idle = 0;
+            while (true) {
+                long next = sequence + 1;
+                long available = highestPublished(next, claimed.get());
+                if (available >= next) {
+                    for (long s = next; s <= available; s++) {
+                        try {
+                            listener.onEvent(slots[(int) (s & mask)], s == available);
+                        } catch (RuntimeException ignored) {
+                            // A failing listener must not stall the bus
+                        }
+                    }
+                    sequence = available;
+                    idle = 0;
+                } else if (!running && claimed.get() < next) {
+                    return;
+                } else if (idle++ < SPIN_TRIES) {
+                    Thread.onSpinWait();
+                } else {
+                    LockSupport.parkNanos(IDLE_PARK_NANOS);
+                }
+            }
+        }
+
+        /**
+         * Highest sequence up to {@code upTo} such that every event from {@code from} on is published.
+         */
+        private long highestPublished(long from, long upTo) {
+            for (long s = from; s <= upTo; s++) {
+                if (!isPublished(s)) {
+                    return s - 1;
+                }
+            }
+            return upTo;
+        }
+    }
+
+    public static class Builder {
+        private int bufferSize = 8192;
+        private BackPressure backPressure = BackPressure.DROP;
+        private int sampleRate = 10;
+        private final List<SessionEventListener> listeners = new ArrayList<>();
+
+        /**
+         * Number of preallocated event slots; must be a power of two.
+         */
+        public Builder bufferSize(int bufferSize) {
+            this.bufferSize = bufferSize;
+            return this;
+        }
+
+        public Builder backPressure(BackPressure backPressure) {
+            this.backPressure = backPressure;
+            return this;
+        }
+
+        /**
+         * Under {@link BackPressure#SAMPLE}, keep one in this many events once the buffer is half full.
+         */
+        public Builder sampleRate(int sampleRate) {
+            this.sampleRate = sampleRate;
+            return this;
+        }
+
+        /**
+         * Adds a listener, which gets its own consumer thread.
+         */
+        public Builder listener(SessionEventListener listener) {
+            listeners.add(listener);
+            return this;
+        }
+
+        public SessionEventBus build() {
+            if (bufferSize < 2 || Integer.bitCount(bufferSize) != 1) {
+                throw new IllegalArgumentException("Buffer size must be a power of two");
+            }
+            if (sampleRate < 1) {
+                throw new IllegalArgumentException("Sample rate must be at least 1");
+            }
+            return new SessionEventBus(this);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.evoauth.events;
+
+/**
+ * Receives session events on its own consumer thread, in publication order.
+ */
+@FunctionalInterface
+public interface SessionEventListener {
+    /**
+     * @param endOfBatch true for the last event currently available, a good point to
+     *                   flush work batched across events
+     */
+    void onEvent(SessionEvent event, boolean endOfBatch);
+}
@@ -0,0 +1,11 @@
+package com.evoauth.events;
+
+public enum SessionEventType {
+    LOGIN,
+    REFRESH,
+    LOGOUT,
+    /** The session ended without a logout: its refresh token expired or was rejected. */
+    EXPIRED,
+    /** A 2FA code was verified, completing enrollment. */
+    MFA_ENROLLED
+}
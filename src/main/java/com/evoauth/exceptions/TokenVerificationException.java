@@ -0,0 +1,27 @@
+package com.evoauth.exceptions;
+
+public class TokenVerificationException extends AuthSdkException {
+    public enum Reason {
+        MALFORMED,
+        UNSUPPORTED_ALGORITHM,
+        INVALID_SIGNATURE,
+        EXPIRED,
+        INVALID_CLAIMS
+    }
+
+    private final Reason reason;
+
+    public TokenVerificationException(String message, Reason reason) {
+        super(message);
+        this.reason = reason;
+    }
+
+    public TokenVerificationException(String message, Reason reason, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+}
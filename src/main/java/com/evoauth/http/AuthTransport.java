@@ -0,0 +1,117 @@
+package com.evoauth.http;
+
+import com.evoauth.core.AuthConfig;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.Authenticator;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.OkHttpClient;
+import okhttp3.Protocol;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The expensive, shareable half of an HTTP client: one {@link OkHttpClient} (and so one
+ * connection pool and dispatcher thread pool) plus one {@link ObjectMapper}.
+ * <p>
+ * Multi-tenant deployments create a single transport and hand it to every
+ * {@code AuthClient}. Each client derives its own {@code OkHttpClient} via
+ * {@link OkHttpClient#newBuilder()}, which shares the pool and dispatcher, and keeps
+ * tenant specifics such as base URL and API key at the request level.
+ */
+public class AuthTransport implements AutoCloseable {
+    private final OkHttpClient rootClient;
+    private final ObjectMapper mapper;
+    private final Executor callbackExecutor;
+    private final ConcurrentHashMap<Class<?>, ObjectReader> readers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<Class<?>, ObjectWriter> writers = new ConcurrentHashMap<>();
+
+    /**
+     * Builds a transport from the connection settings of {@code config}. Tenant
+     * settings (base URL, API key) are ignored here.
+     */
+    public AuthTransport(AuthConfig config) {
+        Dispatcher dispatcher = new Dispatcher();
+        dispatcher.setMaxRequests(config.getMaxRequests());
+        dispatcher.setMaxRequestsPerHost(config.getMaxRequestsPerHost());
+
+        this.rootClient = new OkHttpClient.Builder()
+                .connectTimeout(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS)
+                .readTimeout(config.getReadTimeoutMs(), TimeUnit.MILLISECONDS)
+                .writeTimeout(config.getWriteTimeoutMs(), TimeUnit.MILLISECONDS)
+                .callTimeout(config.getCallTimeoutMs(), TimeUnit.MILLISECONDS)
+                .connectionPool(new ConnectionPool(config.getMaxIdleConnections(), config.getKeepAliveMs(),
+                        TimeUnit.MILLISECONDS))
+                .dispatcher(dispatcher)
+                .protocols(protocols(config))
+                .build();
+
+        this.mapper = new ObjectMapper()
+                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false)
+                // Request bodies write into OkHttp's sink, which OkHttp closes itself
+                .configure(JsonGenerator.Feature.AUTO_CLOSE_TARGET, false);
+        this.callbackExecutor = config.getCallbackExecutor();
+    }
+
+    /**
+     * Derives a client that shares this transport's pool and dispatcher.
+     */
+    public OkHttpClient newClient(Authenticator authenticator) {
+        return rootClient.newBuilder()
+                .authenticator(authenticator)
+                .build();
+    }
+
+    public ObjectMapper getMapper() {
+        return mapper;
+    }
+
+    /**
+     * Pre-built reader for {@code type}, so per-call deserialization skips the type lookup.
+     */
+    public ObjectReader readerFor(Class<?> type) {
+        return readers.computeIfAbsent(type, mapper::readerFor);
+    }
+
+    /**
+     * Pre-built writer for {@code type}, so per-call serialization skips the type lookup.
+     */
+    public ObjectWriter writerFor(Class<?> type) {
+        return writers.computeIfAbsent(type, mapper::writerFor);
+    }
+
+    public Executor getCallbackExecutor() {
+        return callbackExecutor;
+    }
+
+    public int connectionCount() {
+        return rootClient.connectionPool().connectionCount();
+    }
+
+    private static List<Protocol> protocols(AuthConfig config) {
+        if (config.isHttp2PriorKnowledge()) {
+            return List.of(Protocol.H2_PRIOR_KNOWLEDGE);
+        }
+        if (config.isHttp2Enabled()) {
+            return List.of(Protocol.HTTP_2, Protocol.HTTP_1_1);
+        }
+        return List.of(Protocol.HTTP_1_1);
+    }
+
+    /**
+     * Releases pooled connections and dispatcher threads. Only call once every
+     * client using this transport is done.
+     */
+    @Override
+    public void close() {
+        rootClient.dispatcher().executorService().shutdown();
+        rootClient.connectionPool().evictAll();
+    }
+}
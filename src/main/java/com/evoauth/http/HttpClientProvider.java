@@ -4,23 +4,44 @@ import com.evoauth.core.AuthConfig;
 import com.evoauth.exceptions.AuthApiException;
 import com.evoauth.exceptions.AuthSdkException;
 import com.evoauth.models.ApiError;
-import com.fasterxml.jackson.core.JsonProcessingException;
-import com.fasterxml.jackson.databind.DeserializationFeature;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import okhttp3.*;
 
 import java.io.IOException;
-import java.util.concurrent.TimeUnit;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
 public class HttpClientProvider {
+    // Serialized form of a missing payload, kept for compatibility with earlier releases
+    private static final RequestBody NULL_BODY = RequestBody.create("null", JsonRequestBody.JSON);
+
     private final OkHttpClient client;
-    private final ObjectMapper mapper;
     private final String baseUrl;
     private final String apiKey;
-    private TokenRefresher tokenRefresher;
+    private final Executor callbackExecutor;
+    private final AuthTransport transport;
+    private final boolean ownsTransport;
+    private final TokenRefreshCoordinator refreshCoordinator = new TokenRefreshCoordinator();
+    private volatile TokenRefresher tokenRefresher;
 
     public interface TokenRefresher {
         String refreshToken();
+
+        /**
+         * Access token the session currently holds. Lets requests that were rejected
+         * with an older token reuse the new one instead of refreshing again.
+         */
+        default String currentAccessToken() {
+            return null;
+        }
+
+        /**
+         * Refresh token the next refresh will spend. Concurrent refreshes for the
+         * same refresh token share one call.
+         */
+        default String currentRefreshToken() {
+            return null;
+        }
     }
 
     public void setTokenRefresher(TokenRefresher refresher) {
@@ -28,38 +49,75 @@ public class HttpClientProvider {
     }
 
     public HttpClientProvider(AuthConfig config) {
+        this(config, new AuthTransport(config), true);
+    }
+
+    /**
+     * Creates a provider on a transport shared with other clients. The transport
+     * stays open when this provider is closed.
+     */
+    public HttpClientProvider(AuthConfig config, AuthTransport transport) {
+        this(config, transport, false);
+    }
+
+    private HttpClientProvider(AuthConfig config, AuthTransport transport, boolean ownsTransport) {
         this.baseUrl = config.getBaseUrl();
         this.apiKey = config.getApiKey();
+        this.transport = transport;
+        this.ownsTransport = ownsTransport;
+        this.callbackExecutor = transport.getCallbackExecutor();
+
+        this.client = transport.newClient((route, response) -> {
+            // Session-scoped requests carry their own refresher; the rest use the client's session
+            TokenRefresher refresher = response.request().tag(TokenRefresher.class);
+            if (refresher == null)
+                refresher = tokenRefresher;
+            if (refresher == null)
+                return null;
+
+            // Sync check to prevent infinite loops: retry count is in response
+            if (responseCount(response) >= 2)
+                return null;
 
-        this.client = new OkHttpClient.Builder()
-                .connectTimeout(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS)
-                .readTimeout(config.getConnectionTimeoutMs(), TimeUnit.MILLISECONDS)
-                .authenticator((route, response) -> {
-                    if (tokenRefresher == null)
-                        return null;
-
-                    // Sync check to prevent infinite loops: retry count is in response
-                    if (responseCount(response) >= 2)
-                        return null;
-
-                    synchronized (this) {
-                        try {
-                            String newToken = tokenRefresher.refreshToken();
-                            if (newToken != null) {
-                                return response.request().newBuilder()
-                                        .header("Authorization", "Bearer " + newToken)
-                                        .build();
-                            }
-                        } catch (Exception e) {
-                            return null;
-                        }
-                    }
-                    return null;
-                })
-                .build();
-
-        this.mapper = new ObjectMapper()
-                .configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+            // Requests without a bearer token (login, refresh) have nothing to refresh
+            String staleToken = bearerToken(response.request());
+            if (staleToken == null)
+                return null;
+
+            String newToken = refreshCoordinator.refresh(staleToken, refresher);
+            if (newToken == null || newToken.equals(staleToken))
+                return null;
+
+            return response.request().newBuilder()
+                    .header("Authorization", "Bearer " + newToken)
+                    .build();
+        });
+    }
+
+    /**
+     * Releases the transport if this provider created it.
+     */
+    public void close() {
+        if (ownsTransport) {
+            transport.close();
+        }
+    }
+
+    /**
+     * Obtains a replacement for {@code staleToken}, joining any refresh already in flight.
+     */
+    public String refreshAccessToken(String staleToken) {
+        TokenRefresher refresher = tokenRefresher;
+        if (refresher == null)
+            return null;
+        return refreshCoordinator.refresh(staleToken, refresher);
+    }
+
+    private static String bearerToken(Request request) {
+        String header = request.header("Authorization");
+        if (header == null || !header.startsWith("Bearer "))
+            return null;
+        return header.substring("Bearer ".length());
     }
 
     private int responseCount(Response response) {
@@ -82,6 +140,17 @@ public class HttpClientProvider {
                 .build(), responseType);
     }
 
+    /**
+     * Posts on behalf of a specific session: a 401 is resolved with {@code refresher}
+     * instead of the client-wide one.
+     */
+    public <T> T post(String path, Object body, Class<T> responseType, String token, TokenRefresher refresher) {
+        return execute(requestBuilder(path, token)
+                .tag(TokenRefresher.class, refresher)
+                .post(createRequestBody(body))
+                .build(), responseType);
+    }
+
     public <T> T get(String path, Class<T> responseType) {
         return execute(requestBuilder(path).get().build(), responseType);
     }
@@ -90,6 +159,26 @@ public class HttpClientProvider {
         return execute(requestBuilder(path, token).get().build(), responseType);
     }
 
+    public <T> CompletableFuture<T> postAsync(String path, Object body, Class<T> responseType) {
+        return executeAsync(requestBuilder(path)
+                .post(createRequestBody(body))
+                .build(), responseType);
+    }
+
+    public <T> CompletableFuture<T> postAsync(String path, Object body, Class<T> responseType, String token) {
+        return executeAsync(requestBuilder(path, token)
+                .post(createRequestBody(body))
+                .build(), responseType);
+    }
+
+    public <T> CompletableFuture<T> getAsync(String path, Class<T> responseType) {
+        return executeAsync(requestBuilder(path).get().build(), responseType);
+    }
+
+    public <T> CompletableFuture<T> getAsync(String path, Class<T> responseType, String token) {
+        return executeAsync(requestBuilder(path, token).get().build(), responseType);
+    }
+
     private Request.Builder requestBuilder(String path) {
         return requestBuilder(path, null);
     }
@@ -111,37 +200,84 @@ public class HttpClientProvider {
     }
 
     private RequestBody createRequestBody(Object body) {
-        try {
-            String json = mapper.writeValueAsString(body);
-            return RequestBody.create(json, MediaType.get("application/json; charset=utf-8"));
-        } catch (JsonProcessingException e) {
-            throw new AuthSdkException("Failed to serialize request body", e);
+        if (body == null) {
+            return NULL_BODY;
         }
+        return new JsonRequestBody(transport.writerFor(body.getClass()), body);
     }
 
     private <T> T execute(Request request, Class<T> responseType) {
         try (Response response = client.newCall(request).execute()) {
-            if (response.isSuccessful()) {
-                if (responseType == Void.class)
-                    return null;
-                if (response.body() == null)
-                    return null;
-                return mapper.readValue(response.body().string(), responseType);
-            } else {
-                handleError(response);
-                return null; // Unreachable
-            }
+            return readResponse(response, responseType);
         } catch (IOException e) {
             throw new AuthSdkException("Network error executing request to " + request.url(), e);
         }
     }
 
+    private <T> CompletableFuture<T> executeAsync(Request request, Class<T> responseType) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Call call = client.newCall(request);
+
+        call.enqueue(new Callback() {
+            @Override
+            public void onFailure(Call call, IOException e) {
+                future.completeExceptionally(
+                        new AuthSdkException("Network error executing request to " + request.url(), e));
+            }
+
+            @Override
+            public void onResponse(Call call, Response response) {
+                // Hand the body off so the dispatcher thread is free for the next call
+                try {
+                    callbackExecutor.execute(() -> complete(future, request, response, responseType));
+                } catch (RejectedExecutionException e) {
+                    response.close();
+                    future.completeExceptionally(new AuthSdkException("Callback executor rejected response", e));
+                }
+            }
+        });
+
+        // Cancelling the future should release the connection as well
+        future.whenComplete((result, error) -> {
+            if (future.isCancelled()) {
+                call.cancel();
+            }
+        });
+        return future;
+    }
+
+    private <T> void complete(CompletableFuture<T> future, Request request, Response response,
+            Class<T> responseType) {
+        try (response) {
+            future.complete(readResponse(response, responseType));
+        } catch (IOException e) {
+            future.completeExceptionally(
+                    new AuthSdkException("Network error executing request to " + request.url(), e));
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+    }
+
+    private <T> T readResponse(Response response, Class<T> responseType) throws IOException {
+        if (response.isSuccessful()) {
+            if (responseType == Void.class)
+                return null;
+            if (response.body() == null)
+                return null;
+            // Parse straight off the socket instead of buffering the body into a String
+            return transport.readerFor(responseType).readValue(response.body().byteStream());
+        } else {
+            handleError(response);
+            return null; // Unreachable
+        }
+    }
+
     private void handleError(Response response) throws IOException { // Throws runtime exception
         String errorBody = response.body() != null ? response.body().string() : "";
         String message = "Request failed with status " + response.code();
 
         try {
-            ApiError error = mapper.readValue(errorBody, ApiError.class);
+            ApiError error = transport.readerFor(ApiError.class).readValue(errorBody);
             if (error.getMessage() != null) {
                 message = error.getMessage();
             }
@@ -0,0 +1,50 @@
+package com.evoauth.http;
+
+import com.evoauth.exceptions.AuthSdkException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okio.BufferedSink;
+
+import java.io.IOException;
+
+/**
+ * Request body serialized once, straight to UTF-8 bytes with a cached writer, without
+ * an intermediate String.
+ * <p>
+ * The length is known up front, so requests carry a {@code Content-Length} header
+ * rather than being sent chunked, and the body can be replayed when the authenticator
+ * retries a request with a refreshed token.
+ */
+public class JsonRequestBody extends RequestBody {
+    public static final MediaType JSON = MediaType.get("application/json; charset=utf-8");
+
+    private final byte[] json;
+
+    /**
+     * @throws AuthSdkException if {@code payload} can't be serialized
+     */
+    public JsonRequestBody(ObjectWriter writer, Object payload) {
+        try {
+            this.json = writer.writeValueAsBytes(payload);
+        } catch (JsonProcessingException e) {
+            throw new AuthSdkException("Failed to serialize request body", e);
+        }
+    }
+
+    @Override
+    public MediaType contentType() {
+        return JSON;
+    }
+
+    @Override
+    public long contentLength() {
+        return json.length;
+    }
+
+    @Override
+    public void writeTo(BufferedSink sink) throws IOException {
+        sink.write(json);
+    }
+}
@@ -0,0 +1,129 @@
+package com.evoauth.http;
+
+import com.evoauth.security.JsonWebKeySet;
+import com.evoauth.security.SigningKeyResolver;
+import com.fasterxml.jackson.databind.JsonNode;
+
+import java.security.PublicKey;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Serves signing keys from a locally cached JWKS document.
+ * <p>
+ * Keys are indexed by {@code kid} and refreshed in the background every
+ * {@code refreshInterval}. A token signed with an unknown {@code kid} triggers at most
+ * one fetch per {@code minFetchInterval}, shared by every concurrent caller, and a
+ * failed fetch keeps the previous keys in service. Key rotation on the server
+ * therefore never turns into a burst of JWKS requests or a verification outage.
+ */
+public class JwksKeyProvider implements SigningKeyResolver, AutoCloseable {
+    private final HttpClientProvider httpClient;
+    private final String jwksPath;
+    private final long minFetchIntervalMs;
+    private final ConcurrentHashMap<String, PublicKey> keys = new ConcurrentHashMap<>();
+    private final AtomicReference<CompletableFuture<Void>> inFlight = new AtomicReference<>();
+    private final AtomicLong lastFetchStartedAt = new AtomicLong(Long.MIN_VALUE / 2);
+    private final ScheduledExecutorService scheduler;
+
+    public JwksKeyProvider(HttpClientProvider httpClient, String jwksPath) {
+        this(httpClient, jwksPath, Duration.ofMinutes(10), Duration.ofSeconds(30));
+    }
+
+    public JwksKeyProvider(HttpClientProvider httpClient, String jwksPath, Duration refreshInterval,
+            Duration minFetchInterval) {
+        this.httpClient = httpClient;
+        this.jwksPath = jwksPath;
+        this.minFetchIntervalMs = minFetchInterval.toMillis();
+
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "evoauth-jwks-refresh");
+            thread.setDaemon(true);
+            return thread;
+        });
+        long periodMs = refreshInterval.toMillis();
+        scheduler.scheduleWithFixedDelay(this::fetch, 0, periodMs, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public PublicKey resolve(String keyId) {
+        PublicKey key = lookup(keyId);
+        if (key != null) {
+            return key;
+        }
+
+        // Unknown kid: probably a rotation we haven't seen yet. Fetch at most once per interval.
+        long now = System.currentTimeMillis();
+        long last = lastFetchStartedAt.get();
+        CompletableFuture<Void> pending = inFlight.get();
+        if (pending == null && now - last < minFetchIntervalMs) {
+            // A fetch may have landed since our first lookup
+            return lookup(keyId);
+        }
+        try {
+            (pending != null ? pending : fetch()).join();
+        } catch (RuntimeException ignored) {
+            // Fall through with whatever keys we already have
+        }
+        return lookup(keyId);
+    }
+
+    /**
+     * Fetches the JWKS document unless a fetch is already running, in which case
+     * the running one is returned.
+     */
+    public CompletableFuture<Void> fetch() {
+        CompletableFuture<Void> flight = new CompletableFuture<>();
+        if (!inFlight.compareAndSet(null, flight)) {
+            CompletableFuture<Void> existing = inFlight.get();
+            return existing != null ? existing : CompletableFuture.completedFuture(null);
+        }
+        lastFetchStartedAt.set(System.currentTimeMillis());
+
+        httpClient.getAsync(jwksPath, JsonNode.class).whenComplete((document, error) -> {
+            try {
+                if (error == null && document != null) {
+                    replaceKeys(JsonWebKeySet.parse(document).getKeys());
+                }
+            } catch (RuntimeException ignored) {
+                // Malformed document: keep serving the keys we have
+            } finally {
+                inFlight.set(null);
+                flight.complete(null);
+            }
+        });
+        return flight;
+    }
+
+    public Map<String, PublicKey> getKeys() {
+        return Map.copyOf(keys);
+    }
+
+    private void replaceKeys(Map<String, PublicKey> fresh) {
+        if (fresh.isEmpty()) {
+            return;
+        }
+        // Add first, then drop retired keys, so readers never observe an empty map
+        keys.putAll(fresh);
+        keys.keySet().retainAll(fresh.keySet());
+    }
+
+    private PublicKey lookup(String keyId) {
+        if (keyId == null) {
+            return keys.size() == 1 ? keys.values().iterator().next() : keys.get("");
+        }
+        return keys.get(keyId);
+    }
+
+    @Override
+    public void close() {
+        scheduler.shutdownNow();
+    }
+}
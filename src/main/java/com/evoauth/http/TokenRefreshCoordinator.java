@@ -0,0 +1,71 @@
+package com.evoauth.http;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Collapses concurrent refresh attempts into a single call to the auth server.
+ * <p>
+ * Callers that hit a 401 for the same refresh token attach to the refresh already
+ * in flight instead of issuing their own, and callers whose token was replaced
+ * while they were waiting simply pick up the current one.
+ */
+public class TokenRefreshCoordinator {
+    // Used when the refresher cannot tell us which refresh token it will spend
+    private static final String DEFAULT_KEY = "";
+
+    private final ConcurrentHashMap<String, CompletableFuture<String>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Returns an access token to replace {@code staleToken}, or null if none could be obtained.
+     */
+    public String refresh(String staleToken, HttpClientProvider.TokenRefresher refresher) {
+        String current = refresher.currentAccessToken();
+        if (isNewer(current, staleToken)) {
+            return current;
+        }
+
+        String key = refresher.currentRefreshToken();
+        if (key == null) {
+            key = DEFAULT_KEY;
+        }
+
+        CompletableFuture<String> flight = new CompletableFuture<>();
+        CompletableFuture<String> existing = inFlight.putIfAbsent(key, flight);
+        if (existing != null) {
+            return await(existing);
+        }
+
+        try {
+            // A refresh may have completed between our first check and claiming the slot
+            current = refresher.currentAccessToken();
+            String token = isNewer(current, staleToken) ? current : refresher.refreshToken();
+            flight.complete(token);
+            return token;
+        } catch (RuntimeException e) {
+            flight.complete(null);
+            return null;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * Number of refreshes currently in flight, mainly useful for diagnostics.
+     */
+    public int inFlightCount() {
+        return inFlight.size();
+    }
+
+    private static boolean isNewer(String current, String staleToken) {
+        return current != null && !current.equals(staleToken);
+    }
+
+    private static String await(CompletableFuture<String> flight) {
+        try {
+            return flight.join();
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+}
@@ -12,6 +12,10 @@ public class AuthResponse {
     @JsonProperty("expires_in")
     private long expiresIn;
 
+    // Optional: not every server reports the refresh token lifetime
+    @JsonProperty("refresh_expires_in")
+    private long refreshExpiresIn;
+
     @JsonProperty("user")
     private User user;
 
@@ -39,6 +43,14 @@ public class AuthResponse {
         this.expiresIn = expiresIn;
     }
 
+    public long getRefreshExpiresIn() {
+        return refreshExpiresIn;
+    }
+
+    public void setRefreshExpiresIn(long refreshExpiresIn) {
+        this.refreshExpiresIn = refreshExpiresIn;
+    }
+
     public User getUser() {
         return user;
     }
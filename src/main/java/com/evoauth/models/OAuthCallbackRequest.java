@@ -0,0 +1,13 @@
+package com.evoauth.models;
+
+public class OAuthCallbackRequest {
+    private String code;
+
+    public OAuthCallbackRequest(String code) {
+        this.code = code;
+    }
+
+    public String getCode() {
+        return code;
+    }
+}
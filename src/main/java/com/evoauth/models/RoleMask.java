@@ -0,0 +1,179 @@
+package com.evoauth.models;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * An immutable set of roles held as a bitset over {@link RoleRegistry} IDs.
+ * <p>
+ * Build requirement masks once, for example in a static field, and check them against
+ * {@link User#getRoleMask()}; the checks don't allocate.
+ */
+public final class RoleMask {
+    public static final RoleMask EMPTY = new RoleMask(new long[0]);
+
+    private final long[] words;
+    private final int hash;
+
+    private RoleMask(long[] words) {
+        this.words = words;
+        // Ignore trailing zero words so equal masks of different lengths hash alike
+        int length = words.length;
+        while (length > 0 && words[length - 1] == 0) {
+            length--;
+        }
+        this.hash = Arrays.hashCode(Arrays.copyOf(words, length));
+    }
+
+    /**
+     * Mask of the given roles, registering any that are new.
+     *
+     * @throws IllegalStateException if the registry is full
+     */
+    public static RoleMask of(String... roles) {
+        int[] ids = new int[roles.length];
+        for (int i = 0; i < roles.length; i++) {
+            ids[i] = RoleRegistry.register(roles[i]);
+            if (ids[i] < 0) {
+                throw new IllegalStateException("Role registry is full, cannot register " + roles[i]);
+            }
+        }
+        return ofIds(ids);
+    }
+
+    /**
+     * Mask of the given role IDs.
+     */
+    public static RoleMask ofIds(int... ids) {
+        if (ids.length == 0) {
+            return EMPTY;
+        }
+        int max = 0;
+        for (int id : ids) {
+            if (id < 0) {
+                throw new IllegalArgumentException("Negative role ID " + id);
+            }
+            max = Math.max(max, id);
+        }
+        long[] words = new long[(max >>> 6) + 1];
+        for (int id : ids) {
+            words[id >>> 6] |= 1L << id;
+        }
+        return new RoleMask(words);
+    }
+
+    public boolean contains(int roleId) {
+        int word = roleId >>> 6;
+        return roleId >= 0 && word < words.length && (words[word] & (1L << roleId)) != 0;
+    }
+
+    /**
+     * True if every role in {@code other} is also in this mask.
+     */
+    public boolean containsAll(RoleMask other) {
+        long[] theirs = other.words;
+        for (int i = 0; i < theirs.length; i++) {
+            long mine = i < words.length ? words[i] : 0;
+            if ((theirs[i] & ~mine) != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * True if this mask and {@code other} share at least one role.
+     */
+    public boolean intersects(RoleMask other) {
+        int common = Math.min(words.length, other.words.length);
+        for (int i = 0; i < common; i++) {
+            if ((words[i] & other.words[i]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Mask holding the roles of both this mask and {@code other}.
+     */
+    public RoleMask union(RoleMask other) {
+        long[] longer = words.length >= other.words.length ? words : other.words;
+        long[] shorter = longer == words ? other.words : words;
+        long[] union = longer.clone();
+        for (int i = 0; i < shorter.length; i++) {
+            union[i] |= shorter[i];
+        }
+        return new RoleMask(union);
+    }
+
+    public boolean isEmpty() {
+        for (long word : words) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Number of roles in the mask.
+     */
+    public int size() {
+        int count = 0;
+        for (long word : words) {
+            count += Long.bitCount(word);
+        }
+        return count;
+    }
+
+    /**
+     * Role IDs in ascending order.
+     */
+    public int[] ids() {
+        int[] ids = new int[size()];
+        int n = 0;
+        for (int i = 0; i < words.length; i++) {
+            long word = words[i];
+            while (word != 0) {
+                ids[n++] = (i << 6) + Long.numberOfTrailingZeros(word);
+                word &= word - 1;
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Role names in ID order.
+     */
+    public List<String> names() {
+        List<String> names = new ArrayList<>(size());
+        for (int id : ids()) {
+            names.add(RoleRegistry.nameOf(id));
+        }
+        return names;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof RoleMask)) {
+            return false;
+        }
+        RoleMask other = (RoleMask) o;
+        return hash == other.hash && containsAll(other) && other.containsAll(this);
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return "RoleMask" + names();
+    }
+}
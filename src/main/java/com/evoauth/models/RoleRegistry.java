@@ -0,0 +1,81 @@
+package com.evoauth.models;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns every role name a dense integer ID, so a set of roles can be held as a
+ * {@link RoleMask} and checked with a few bitwise operations.
+ * <p>
+ * IDs are handed out once and never reused, so masks built at any point stay valid
+ * for the life of the JVM. The registry is capped; roles seen after it fills up have
+ * no ID and checks involving them fall back to comparing names.
+ */
+public final class RoleRegistry {
+    public static final int MAX_ROLES = 4096;
+
+    private static final ConcurrentHashMap<String, Integer> IDS = new ConcurrentHashMap<>();
+    private static volatile String[] names = new String[64];
+    private static int next;
+
+    private RoleRegistry() {
+    }
+
+    /**
+     * Returns the ID of {@code role}, assigning the next free one if it is new, or -1
+     * if the registry is full.
+     */
+    public static int register(String role) {
+        Integer id = IDS.get(role);
+        if (id != null) {
+            return id;
+        }
+        synchronized (RoleRegistry.class) {
+            id = IDS.get(role);
+            if (id != null) {
+                return id;
+            }
+            if (next >= MAX_ROLES) {
+                return -1;
+            }
+            int assigned = next++;
+            String[] current = names;
+            if (assigned == current.length) {
+                current = Arrays.copyOf(current, current.length * 2);
+            }
+            current[assigned] = role;
+            names = current;
+            IDS.put(role, assigned);
+            return assigned;
+        }
+    }
+
+    /**
+     * Returns the ID of {@code role}, or -1 if it has never been registered. Never allocates.
+     */
+    public static int idOf(String role) {
+        if (role == null) {
+            return -1;
+        }
+        Integer id = IDS.get(role);
+        return id != null ? id : -1;
+    }
+
+    /**
+     * Returns the name registered under {@code id}.
+     */
+    public static String nameOf(int id) {
+        String[] current = names;
+        if (id < 0 || id >= current.length || current[id] == null) {
+            throw new IllegalArgumentException("Unknown role ID " + id);
+        }
+        return current[id];
+    }
+
+    /**
+     * Number of roles registered so far.
+     */
+    public static int size() {
+        return IDS.size();
+    }
+}
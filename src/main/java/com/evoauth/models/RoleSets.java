@@ -0,0 +1,153 @@
+package com.evoauth.models;
+
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Interns role lists. Thousands of sessions typically share a handful of role
+ * combinations, so every {@link User} points at one shared, immutable, sorted list per
+ * combination instead of carrying its own {@code ArrayList} of duplicate strings.
+ * <p>
+ * Each shared list also carries its compiled {@link RoleMask}, so role checks cost a
+ * few bitwise operations per combination rather than per user.
+ * <p>
+ * The table is capped; once it is full, new combinations are still canonicalized
+ * but no longer shared.
+ */
+public final class RoleSets {
+    private static final int MAX_COMBINATIONS = 4096;
+
+    private static final ConcurrentHashMap<List<String>, List<String>> COMBINATIONS = new ConcurrentHashMap<>();
+
+    private RoleSets() {
+    }
+
+    /**
+     * Returns the shared immutable list holding {@code roles} sorted, without duplicates
+     * or nulls. Order in the input doesn't matter.
+     */
+    public static List<String> canonical(List<String> roles) {
+        if (roles == null) {
+            return null;
+        }
+        if (roles.isEmpty()) {
+            return List.of();
+        }
+        if (roles instanceof RoleList) {
+            return roles;
+        }
+        // Lists that are already canonical, the common case, are found without copying
+        List<String> shared = COMBINATIONS.get(roles);
+        if (shared != null) {
+            return shared;
+        }
+
+        RoleList sorted = sortedDistinct(roles);
+        shared = COMBINATIONS.get(sorted);
+        if (shared != null) {
+            return shared;
+        }
+        if (COMBINATIONS.size() >= MAX_COMBINATIONS) {
+            return sorted;
+        }
+        String[] names = sorted.names;
+        for (int i = 0; i < names.length; i++) {
+            names[i] = roleName(names[i]);
+        }
+        shared = COMBINATIONS.putIfAbsent(sorted, sorted);
+        return shared != null ? shared : sorted;
+    }
+
+    /**
+     * The compiled mask of {@code roles}, or null if some role has no {@link RoleRegistry} ID.
+     */
+    public static RoleMask maskOf(List<String> roles) {
+        if (roles == null || roles.isEmpty()) {
+            return RoleMask.EMPTY;
+        }
+        if (roles instanceof RoleList) {
+            return ((RoleList) roles).mask;
+        }
+        return sortedDistinct(roles).mask;
+    }
+
+    /**
+     * Number of distinct role combinations currently shared.
+     */
+    public static int size() {
+        return COMBINATIONS.size();
+    }
+
+    private static RoleList sortedDistinct(List<String> roles) {
+        List<String> present = new ArrayList<>(roles.size());
+        for (String role : roles) {
+            if (role != null) {
+                present.add(role);
+            }
+        }
+        String[] sorted = present.toArray(new String[0]);
+        Arrays.sort(sorted);
+        int distinct = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (distinct == 0 || !sorted[i].equals(sorted[distinct - 1])) {
+                sorted[distinct++] = sorted[i];
+            }
+        }
+        return new RoleList(Arrays.copyOf(sorted, distinct));
+    }
+
+    private static String roleName(String role) {
+        // The registry already holds one copy of every role name it has an ID for
+        int id = RoleRegistry.idOf(role);
+        return id >= 0 ? RoleRegistry.nameOf(id) : role;
+    }
+
+    /**
+     * Immutable sorted role list with its mask and hash computed once.
+     */
+    private static final class RoleList extends AbstractList<String> implements RandomAccess {
+        final String[] names;
+        final RoleMask mask;
+        private final int hash;
+
+        RoleList(String[] names) {
+            this.names = names;
+            int[] ids = new int[names.length];
+            boolean complete = true;
+            for (int i = 0; i < names.length; i++) {
+                ids[i] = RoleRegistry.register(names[i]);
+                complete &= ids[i] >= 0;
+            }
+            this.mask = complete ? RoleMask.ofIds(ids) : null;
+            this.hash = Arrays.asList(names).hashCode();
+        }
+
+        @Override
+        public String get(int index) {
+            return names[index];
+        }
+
+        @Override
+        public int size() {
+            return names.length;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (mask != null && o instanceof String) {
+                int id = RoleRegistry.idOf((String) o);
+                return id >= 0 && mask.contains(id);
+            }
+            return super.contains(o);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
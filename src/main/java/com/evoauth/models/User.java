@@ -1,6 +1,9 @@
 package com.evoauth.models;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
+
 import java.util.List;
+import java.util.Objects;
 
 public class User {
     private String id;
@@ -16,7 +19,7 @@ public class User {
     public User(String id, String email, List<String> roles) {
         this.id = id;
         this.email = email;
-        this.roles = roles;
+        this.roles = RoleSets.canonical(roles);
     }
 
     public String getId() {
@@ -51,12 +54,24 @@ public class User {
         this.lastName = lastName;
     }
 
+    /**
+     * The user's roles as a shared, sorted, immutable list; see {@link RoleSets}.
+     */
     public List<String> getRoles() {
         return roles;
     }
 
     public void setRoles(List<String> roles) {
-        this.roles = roles;
+        this.roles = RoleSets.canonical(roles);
+    }
+
+    /**
+     * The user's roles compiled to a bitset, or null in the rare case that a role could
+     * not be given an ID because the {@link RoleRegistry} is full.
+     */
+    @JsonIgnore
+    public RoleMask getRoleMask() {
+        return RoleSets.maskOf(roles);
     }
 
     public boolean isMfaEnabled() {
@@ -67,6 +82,36 @@ public class User {
         this.mfaEnabled = mfaEnabled;
     }
 
+    /**
+     * Returns {@code existing} if it describes the same user as {@code fresh}, so that a
+     * refresh returning an unchanged profile keeps the instance the session already holds.
+     */
+    public static User reuse(User existing, User fresh) {
+        return existing != null && existing.equals(fresh) ? existing : fresh;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof User)) {
+            return false;
+        }
+        User other = (User) o;
+        return mfaEnabled == other.mfaEnabled
+                && Objects.equals(id, other.id)
+                && Objects.equals(email, other.email)
+                && Objects.equals(firstName, other.firstName)
+                && Objects.equals(lastName, other.lastName)
+                && Objects.equals(roles, other.roles);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(id, email);
+    }
+
     @Override
     public String toString() {
         return "User{" +
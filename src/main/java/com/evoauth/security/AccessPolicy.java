@@ -0,0 +1,273 @@
+package com.evoauth.security;
+
+import com.evoauth.models.RoleMask;
+import com.evoauth.models.RoleRegistry;
+import com.evoauth.models.User;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Role hierarchy and permission grants, compiled for constant-time checks.
+ * <p>
+ * {@link Builder#build()} walks the hierarchy once and stores, per role, a bitset of
+ * the roles it implies and of the permissions it grants directly or by inheritance.
+ * A check is then a hash lookup for the permission's index and a bit test against the
+ * user's role combination, whose effective set is computed on first use and cached.
+ * The cache keeps two generations of up to 4096 combinations each: when the current
+ * one fills it becomes the previous one, and entries still in use are copied forward
+ * on their next hit. Workloads with more distinct combinations than that recompute
+ * only the ones that have gone cold.
+ * Policies are immutable; reload by building a new one and installing it with
+ * {@link PermissionGuard#setPolicy}.
+ */
+public final class AccessPolicy {
+    /** No hierarchy and no permissions: users have exactly their own roles. */
+    public static final AccessPolicy EMPTY = new Builder().build();
+
+    private static final int MAX_CACHED_COMBINATIONS = 4096;
+
+    private final Map<String, Integer> permissionIndex;
+    private final String[] permissionNames;
+    // Indexed by RoleRegistry ID; null for roles the policy doesn't mention
+    private final RoleMask[] impliedRoles;
+    private final long[][] rolePermissions;
+    private final boolean hierarchical;
+    private volatile ConcurrentHashMap<Object, Effective> effectiveByRoles = new ConcurrentHashMap<>();
+    private volatile ConcurrentHashMap<Object, Effective> previousEffectiveByRoles = new ConcurrentHashMap<>();
+
+    private AccessPolicy(Map<String, Integer> permissionIndex, RoleMask[] impliedRoles, long[][] rolePermissions,
+            boolean hierarchical) {
+        this.permissionIndex = permissionIndex;
+        this.permissionNames = new String[permissionIndex.size()];
+        permissionIndex.forEach((name, index) -> permissionNames[index] = name);
+        this.impliedRoles = impliedRoles;
+        this.rolePermissions = rolePermissions;
+        this.hierarchical = hierarchical;
+    }
+
+    /**
+     * Checks if any of the user's roles, directly or through inheritance, grants {@code permission}.
+     */
+    public boolean hasPermission(User user, String permission) {
+        return hasPermission(user, indexOf(permission));
+    }
+
+    /**
+     * Dense index of {@code permission} in this policy, or -1 if no role grants it.
+     */
+    int indexOf(String permission) {
+        Integer index = permissionIndex.get(permission);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * {@link #hasPermission(User, String)} with the permission already resolved by {@link #indexOf}.
+     */
+    boolean hasPermission(User user, int index) {
+        if (index < 0 || user == null || user.getRoles() == null) {
+            return false;
+        }
+        long[] permissions = effective(user).permissions;
+        return (permissions[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * The user's roles plus every role they imply.
+     */
+    public RoleMask effectiveRoles(User user) {
+        if (user == null || user.getRoles() == null) {
+            return RoleMask.EMPTY;
+        }
+        if (!hierarchical && user.getRoleMask() != null) {
+            return user.getRoleMask();
+        }
+        return effective(user).roles;
+    }
+
+    /**
+     * Every permission the user holds, in no particular order.
+     */
+    public Set<String> permissionsOf(User user) {
+        if (user == null || user.getRoles() == null) {
+            return Collections.emptySet();
+        }
+        long[] permissions = effective(user).permissions;
+        Set<String> names = new HashSet<>();
+        for (int i = 0; i < permissionNames.length; i++) {
+            if ((permissions[i >>> 6] & (1L << i)) != 0) {
+                names.add(permissionNames[i]);
+            }
+        }
+        return names;
+    }
+
+    private Effective effective(User user) {
+        RoleMask mask = user.getRoleMask();
+        // Users with an unregistered role have no mask; key them by their role list instead
+        Object key = mask != null ? mask : user.getRoles();
+        ConcurrentHashMap<Object, Effective> current = effectiveByRoles;
+        Effective effective = current.get(key);
+        if (effective != null) {
+            return effective;
+        }
+        effective = previousEffectiveByRoles.get(key);
+        if (effective == null) {
+            effective = compute(mask != null ? mask : registeredRoles(user.getRoles()));
+            if (mask == null) {
+                key = new ArrayList<>(user.getRoles());
+            }
+        }
+        if (current.size() >= MAX_CACHED_COMBINATIONS) {
+            synchronized (this) {
+                if (current == effectiveByRoles) {
+                    previousEffectiveByRoles = current;
+                    effectiveByRoles = new ConcurrentHashMap<>();
+                }
+                current = effectiveByRoles;
+            }
+        }
+        current.putIfAbsent(key, effective);
+        return effective;
+    }
+
+    private static RoleMask registeredRoles(List<String> roles) {
+        // A role without a registry ID can't appear in the policy either
+        List<Integer> ids = new ArrayList<>();
+        for (String role : roles) {
+            int id = RoleRegistry.idOf(role);
+            if (id >= 0) {
+                ids.add(id);
+            }
+        }
+        return RoleMask.ofIds(ids.stream().mapToInt(Integer::intValue).toArray());
+    }
+
+    private Effective compute(RoleMask roles) {
+        long[] permissions = new long[(permissionNames.length + 63) >>> 6];
+        RoleMask implied = roles;
+        for (int id : roles.ids()) {
+            if (id < impliedRoles.length && impliedRoles[id] != null) {
+                implied = implied.union(impliedRoles[id]);
+                long[] granted = rolePermissions[id];
+                for (int i = 0; i < granted.length; i++) {
+                    permissions[i] |= granted[i];
+                }
+            }
+        }
+        return new Effective(implied, permissions);
+    }
+
+    private static final class Effective {
+        final RoleMask roles;
+        final long[] permissions;
+
+        Effective(RoleMask roles, long[] permissions) {
+            this.roles = roles;
+            this.permissions = permissions;
+        }
+    }
+
+    public static class Builder {
+        private final Map<String, Set<String>> parents = new LinkedHashMap<>();
+        private final Map<String, Set<String>> grants = new LinkedHashMap<>();
+
+        /**
+         * Declares that {@code role} implies each of {@code inheritedRoles}, and with them
+         * their permissions; for example {@code inherit("ADMIN", "MANAGER")}.
+         */
+        public Builder inherit(String role, String... inheritedRoles) {
+            parents.computeIfAbsent(role, r -> new LinkedHashSet<>()).addAll(Arrays.asList(inheritedRoles));
+            return this;
+        }
+
+        /**
+         * Grants {@code permissions}, such as {@code accounts:transfer}, to {@code role}.
+         */
+        public Builder grant(String role, String... permissions) {
+            grants.computeIfAbsent(role, r -> new LinkedHashSet<>()).addAll(Arrays.asList(permissions));
+            return this;
+        }
+
+        /**
+         * Computes every role's transitive closure.
+         *
+         * @throws IllegalArgumentException if the hierarchy has a cycle
+         */
+        public AccessPolicy build() {
+            Set<String> roles = new LinkedHashSet<>(parents.keySet());
+            roles.addAll(grants.keySet());
+            parents.values().forEach(roles::addAll);
+
+            Map<String, Integer> roleIds = new HashMap<>();
+            int maxId = -1;
+            for (String role : roles) {
+                int id = RoleRegistry.register(role);
+                if (id < 0) {
+                    throw new IllegalArgumentException("Role registry is full, cannot register " + role);
+                }
+                roleIds.put(role, id);
+                maxId = Math.max(maxId, id);
+            }
+
+            Map<String, Integer> permissionIndex = new HashMap<>();
+            for (Set<String> granted : grants.values()) {
+                for (String permission : granted) {
+                    permissionIndex.putIfAbsent(permission, permissionIndex.size());
+                }
+            }
+
+            Map<String, Set<String>> closures = new HashMap<>();
+            RoleMask[] impliedRoles = new RoleMask[maxId + 1];
+            long[][] rolePermissions = new long[maxId + 1][];
+            for (String role : roles) {
+                Set<String> closure = closure(role, closures, new LinkedHashSet<>());
+                int[] ids = new int[closure.size()];
+                long[] permissions = new long[(permissionIndex.size() + 63) >>> 6];
+                int n = 0;
+                for (String implied : closure) {
+                    ids[n++] = roleIds.get(implied);
+                    for (String permission : grants.getOrDefault(implied, Collections.emptySet())) {
+                        int index = permissionIndex.get(permission);
+                        permissions[index >>> 6] |= 1L << index;
+                    }
+                }
+                int id = roleIds.get(role);
+                impliedRoles[id] = RoleMask.ofIds(ids);
+                rolePermissions[id] = permissions;
+            }
+            return new AccessPolicy(permissionIndex, impliedRoles, rolePermissions, !parents.isEmpty());
+        }
+
+        /**
+         * The role and every role it implies, memoized across roles.
+         */
+        private Set<String> closure(String role, Map<String, Set<String>> closures, Set<String> path) {
+            Set<String> known = closures.get(role);
+            if (known != null) {
+                return known;
+            }
+            if (!path.add(role)) {
+                throw new IllegalArgumentException("Role hierarchy has a cycle: " + String.join(" -> ", path)
+                        + " -> " + role);
+            }
+            Set<String> closure = new LinkedHashSet<>();
+            closure.add(role);
+            for (String parent : parents.getOrDefault(role, Collections.emptySet())) {
+                closure.addAll(closure(parent, closures, path));
+            }
+            path.remove(role);
+            closures.put(role, closure);
+            return closure;
+        }
+    }
+}
@@ -0,0 +1,94 @@
+package com.evoauth.security;
+
+import java.util.BitSet;
+
+/**
+ * Result of a {@link BatchAuthorizer} run: one bit per user and requirement, set when
+ * the user meets the requirement.
+ * <p>
+ * Rows follow the order of the users passed in and columns the order in which the
+ * requirements were declared. Each row occupies whole {@code long} words.
+ */
+public final class AuthorizationMatrix {
+    private final long[] bits;
+    private final int users;
+    private final int requirements;
+    private final int wordsPerRow;
+
+    AuthorizationMatrix(long[] bits, int users, int requirements, int wordsPerRow) {
+        this.bits = bits;
+        this.users = users;
+        this.requirements = requirements;
+        this.wordsPerRow = wordsPerRow;
+    }
+
+    public boolean isGranted(int user, int requirement) {
+        checkUser(user);
+        checkRequirement(requirement);
+        return (bits[user * wordsPerRow + (requirement >>> 6)] & (1L << requirement)) != 0;
+    }
+
+    /**
+     * Requirements met by the user at index {@code user}.
+     */
+    public BitSet grantedTo(int user) {
+        checkUser(user);
+        int from = user * wordsPerRow;
+        long[] row = new long[wordsPerRow];
+        System.arraycopy(bits, from, row, 0, wordsPerRow);
+        return BitSet.valueOf(row);
+    }
+
+    /**
+     * Users that meet the requirement at index {@code requirement}.
+     */
+    public BitSet usersGranted(int requirement) {
+        checkRequirement(requirement);
+        BitSet granted = new BitSet(users);
+        int word = requirement >>> 6;
+        long bit = 1L << requirement;
+        for (int user = 0; user < users; user++) {
+            if ((bits[user * wordsPerRow + word] & bit) != 0) {
+                granted.set(user);
+            }
+        }
+        return granted;
+    }
+
+    /**
+     * True if the user meets every requirement of the batch.
+     */
+    public boolean isGrantedAll(int user) {
+        checkUser(user);
+        int from = user * wordsPerRow;
+        for (int i = 0; i < wordsPerRow; i++) {
+            int remaining = requirements - (i << 6);
+            long expected = remaining >= 64 ? -1L : (1L << remaining) - 1;
+            if (bits[from + i] != expected) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    public int getUserCount() {
+        return users;
+    }
+
+    public int getRequirementCount() {
+        return requirements;
+    }
+
+    private void checkUser(int user) {
+        if (user < 0 || user >= users) {
+            throw new IndexOutOfBoundsException("User " + user + " out of range for " + users + " users");
+        }
+    }
+
+    private void checkRequirement(int requirement) {
+        if (requirement < 0 || requirement >= requirements) {
+            throw new IndexOutOfBoundsException("Requirement " + requirement + " out of range for "
+                    + requirements + " requirements");
+        }
+    }
+}
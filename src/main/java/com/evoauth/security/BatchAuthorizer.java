@@ -0,0 +1,241 @@
+package com.evoauth.security;
+
+import com.evoauth.models.RoleMask;
+import com.evoauth.models.User;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates many users against a fixed list of requirements in one pass, for jobs that
+ * would otherwise call {@link PermissionGuard} in nested loops.
+ * <p>
+ * Requirements are compiled once: role names into {@link RoleMask}s and permissions
+ * into indexes of the {@link AccessPolicy} installed when {@link #evaluate} starts.
+ * Every column, expressions included, is checked against that policy, so the whole
+ * batch sees one policy even if another is installed meanwhile. Users sharing a role combination share their row,
+ * unless an expression requirement looks at other attributes. Large batches are split
+ * across cores with fork/join.
+ * <p>
+ * An authorizer is immutable and can be reused for any number of batches.
+ */
+public final class BatchAuthorizer {
+    private static final int DEFAULT_THRESHOLD = 2048;
+
+    private final Requirement[] requirements;
+    private final boolean rolesOnly;
+    private final ForkJoinPool pool;
+    private final int threshold;
+
+    private BatchAuthorizer(Builder builder) {
+        this.requirements = builder.requirements.toArray(new Requirement[0]);
+        boolean rolesOnly = true;
+        for (Requirement requirement : requirements) {
+            rolesOnly &= requirement.kind != Kind.EXPRESSION;
+        }
+        this.rolesOnly = rolesOnly;
+        this.pool = builder.pool;
+        this.threshold = builder.threshold;
+    }
+
+    /**
+     * Checks every user against every requirement. Null users meet no requirement.
+     */
+    public AuthorizationMatrix evaluate(List<User> users) {
+        User[] batch = users.toArray(new User[0]);
+        int wordsPerRow = (requirements.length + 63) >>> 6;
+        long[] bits = new long[batch.length * wordsPerRow];
+
+        AccessPolicy policy = PermissionGuard.getPolicy();
+        int[] permissionIndexes = new int[requirements.length];
+        for (int i = 0; i < requirements.length; i++) {
+            permissionIndexes[i] = requirements[i].kind == Kind.PERMISSION
+                    ? policy.indexOf(requirements[i].permission) : -1;
+        }
+
+        Slice all = new Slice(batch, bits, wordsPerRow, policy, permissionIndexes, 0, batch.length);
+        if (batch.length <= threshold) {
+            all.compute();
+        } else {
+            pool.invoke(all);
+        }
+        return new AuthorizationMatrix(bits, batch.length, requirements.length, wordsPerRow);
+    }
+
+    public int getRequirementCount() {
+        return requirements.length;
+    }
+
+    private enum Kind {
+        ANY_ROLE, ALL_ROLES, PERMISSION, EXPRESSION
+    }
+
+    private static final class Requirement {
+        final Kind kind;
+        final RoleMask roles;
+        final String permission;
+        final PolicyExpression expression;
+
+        Requirement(Kind kind, RoleMask roles, String permission, PolicyExpression expression) {
+            this.kind = kind;
+            this.roles = roles;
+            this.permission = permission;
+            this.expression = expression;
+        }
+    }
+
+    /**
+     * Fills the rows of users {@code [from, to)}, splitting in half while above the threshold.
+     */
+    private final class Slice extends RecursiveAction {
+        private final User[] users;
+        private final long[] bits;
+        private final int wordsPerRow;
+        private final AccessPolicy policy;
+        private final int[] permissionIndexes;
+        private final int from;
+        private final int to;
+
+        Slice(User[] users, long[] bits, int wordsPerRow, AccessPolicy policy, int[] permissionIndexes,
+                int from, int to) {
+            this.users = users;
+            this.bits = bits;
+            this.wordsPerRow = wordsPerRow;
+            this.policy = policy;
+            this.permissionIndexes = permissionIndexes;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from > threshold) {
+                int middle = (from + to) >>> 1;
+                invokeAll(new Slice(users, bits, wordsPerRow, policy, permissionIndexes, from, middle),
+                        new Slice(users, bits, wordsPerRow, policy, permissionIndexes, middle, to));
+                return;
+            }
+            // Rows already computed for a role combination; only valid when every requirement depends on roles alone
+            Map<RoleMask, Integer> rowByRoles = rolesOnly ? new IdentityHashMap<>() : null;
+            for (int user = from; user < to; user++) {
+                RoleMask roles = users[user] != null ? users[user].getRoleMask() : null;
+                if (rowByRoles != null && roles != null) {
+                    Integer computed = rowByRoles.putIfAbsent(roles, user);
+                    if (computed != null) {
+                        System.arraycopy(bits, computed * wordsPerRow, bits, user * wordsPerRow, wordsPerRow);
+                        continue;
+                    }
+                }
+                fillRow(user);
+            }
+        }
+
+        private void fillRow(int index) {
+            User user = users[index];
+            if (user == null || user.getRoles() == null) {
+                return;
+            }
+            RoleMask effective = policy.effectiveRoles(user);
+            boolean flat = user.getRoleMask() == null;
+            int offset = index * wordsPerRow;
+            for (int i = 0; i < requirements.length; i++) {
+                Requirement requirement = requirements[i];
+                boolean granted;
+                switch (requirement.kind) {
+                    case ANY_ROLE:
+                        granted = effective.intersects(requirement.roles)
+                                || (flat && PermissionGuard.hasAnyRole(policy, user, requirement.roles));
+                        break;
+                    case ALL_ROLES:
+                        granted = effective.containsAll(requirement.roles)
+                                || (flat && PermissionGuard.hasAllRoles(policy, user, requirement.roles));
+                        break;
+                    case PERMISSION:
+                        granted = policy.hasPermission(user, permissionIndexes[i]);
+                        break;
+                    default:
+                        granted = requirement.expression.evaluate(user, policy);
+                        break;
+                }
+                if (granted) {
+                    bits[offset + (i >>> 6)] |= 1L << i;
+                }
+            }
+        }
+    }
+
+    public static class Builder {
+        private final List<Requirement> requirements = new ArrayList<>();
+        private ForkJoinPool pool = ForkJoinPool.commonPool();
+        private int threshold = DEFAULT_THRESHOLD;
+
+        /**
+         * Adds a column met by users holding {@code role}.
+         */
+        public Builder requireRole(String role) {
+            return requireAnyRole(role);
+        }
+
+        /**
+         * Adds a column met by users holding any of {@code roles}.
+         */
+        public Builder requireAnyRole(String... roles) {
+            requirements.add(new Requirement(Kind.ANY_ROLE, RoleMask.of(roles), null, null));
+            return this;
+        }
+
+        /**
+         * Adds a column met by users holding all of {@code roles}.
+         */
+        public Builder requireAllRoles(String... roles) {
+            requirements.add(new Requirement(Kind.ALL_ROLES, RoleMask.of(roles), null, null));
+            return this;
+        }
+
+        /**
+         * Adds a column met by users granted {@code permission} by the installed {@link AccessPolicy}.
+         */
+        public Builder requirePermission(String permission) {
+            requirements.add(new Requirement(Kind.PERMISSION, null, permission, null));
+            return this;
+        }
+
+        /**
+         * Adds a column met by users for whom {@code expression} holds.
+         */
+        public Builder require(PolicyExpression expression) {
+            requirements.add(new Requirement(Kind.EXPRESSION, null, null, expression));
+            return this;
+        }
+
+        /**
+         * Pool that large batches are split across. Defaults to the common pool.
+         */
+        public Builder pool(ForkJoinPool pool) {
+            this.pool = pool;
+            return this;
+        }
+
+        /**
+         * Users per fork/join task; smaller batches run on the calling thread. Defaults to 2048.
+         */
+        public Builder parallelThreshold(int threshold) {
+            this.threshold = threshold;
+            return this;
+        }
+
+        public BatchAuthorizer build() {
+            if (pool == null) {
+                throw new IllegalArgumentException("Pool is required");
+            }
+            if (threshold < 1) {
+                throw new IllegalArgumentException("Parallel threshold must be at least 1");
+            }
+            return new BatchAuthorizer(this);
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package com.evoauth.security;
+
+import javax.crypto.SecretKey;
+import java.util.Map;
+
+/**
+ * Supplies the AES keys used to encrypt stored tokens. New tokens are encrypted with
+ * the current key; older ones name the key they were encrypted with, so keys can be
+ * rotated without re-encrypting existing sessions.
+ */
+public interface EncryptionKeyProvider {
+    /**
+     * ID of the key new tokens are encrypted with. At most 255 bytes of UTF-8.
+     */
+    String currentKeyId();
+
+    /**
+     * Returns the key with the given ID, or null if it is unknown.
+     */
+    SecretKey getKey(String keyId);
+
+    static EncryptionKeyProvider of(String keyId, SecretKey key) {
+        return of(keyId, Map.of(keyId, key));
+    }
+
+    /**
+     * Provider encrypting with {@code currentKeyId} and still decrypting with any of {@code keys}.
+     */
+    static EncryptionKeyProvider of(String currentKeyId, Map<String, SecretKey> keys) {
+        if (!keys.containsKey(currentKeyId)) {
+            throw new IllegalArgumentException("No key for current key ID " + currentKeyId);
+        }
+        Map<String, SecretKey> copy = Map.copyOf(keys);
+        return new EncryptionKeyProvider() {
+            @Override
+            public String currentKeyId() {
+                return currentKeyId;
+            }
+
+            @Override
+            public SecretKey getKey(String keyId) {
+                return copy.get(keyId);
+            }
+        };
+    }
+}
@@ -0,0 +1,145 @@
+package com.evoauth.security;
+
+import com.evoauth.exceptions.AuthSdkException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.math.BigInteger;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Immutable set of signing keys parsed from a JWKS document (RFC 7517).
+ * <p>
+ * Only RSA and EC signature keys are kept; encryption keys, unsupported key types
+ * and malformed keys are skipped rather than failing the whole document, so one bad
+ * entry can't block rotation to the valid ones. Parsing fails only when malformed
+ * keys leave no usable key at all.
+ */
+public class JsonWebKeySet implements SigningKeyResolver {
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+    private static final String NO_KEY_ID = "";
+
+    private final Map<String, PublicKey> keys;
+
+    public JsonWebKeySet(Map<String, PublicKey> keys) {
+        this.keys = Collections.unmodifiableMap(new LinkedHashMap<>(keys));
+    }
+
+    public static JsonWebKeySet parse(String json) {
+        try {
+            return parse(MAPPER.readTree(json));
+        } catch (AuthSdkException e) {
+            throw e;
+        } catch (Exception e) {
+            throw new AuthSdkException("Failed to parse JWKS document", e);
+        }
+    }
+
+    public static JsonWebKeySet parse(JsonNode document) {
+        JsonNode keyNodes = document.path("keys");
+        if (!keyNodes.isArray()) {
+            throw new AuthSdkException("JWKS document has no 'keys' array");
+        }
+
+        Map<String, PublicKey> keys = new LinkedHashMap<>();
+        AuthSdkException firstInvalid = null;
+        for (JsonNode jwk : keyNodes) {
+            if ("enc".equals(jwk.path("use").asText(null))) {
+                continue;
+            }
+            try {
+                PublicKey key = toPublicKey(jwk);
+                if (key != null) {
+                    keys.put(jwk.path("kid").asText(NO_KEY_ID), key);
+                }
+            } catch (AuthSdkException e) {
+                if (firstInvalid == null) {
+                    firstInvalid = e;
+                }
+            }
+        }
+        if (keys.isEmpty() && firstInvalid != null) {
+            throw new AuthSdkException("JWKS document has no usable keys", firstInvalid);
+        }
+        return new JsonWebKeySet(keys);
+    }
+
+    @Override
+    public PublicKey resolve(String keyId) {
+        if (keyId == null) {
+            // Tokens without a kid can only be matched unambiguously against a single key
+            return keys.size() == 1 ? keys.values().iterator().next() : keys.get(NO_KEY_ID);
+        }
+        return keys.get(keyId);
+    }
+
+    public Map<String, PublicKey> getKeys() {
+        return keys;
+    }
+
+    public boolean isEmpty() {
+        return keys.isEmpty();
+    }
+
+    private static PublicKey toPublicKey(JsonNode jwk) {
+        String kty = jwk.path("kty").asText("");
+        try {
+            switch (kty) {
+                case "RSA":
+                    return KeyFactory.getInstance("RSA").generatePublic(new RSAPublicKeySpec(
+                            unsigned(jwk, "n"), unsigned(jwk, "e")));
+                case "EC":
+                    ECParameterSpec params = curve(jwk.path("crv").asText(""));
+                    if (params == null) {
+                        return null;
+                    }
+                    ECPoint point = new ECPoint(unsigned(jwk, "x"), unsigned(jwk, "y"));
+                    return KeyFactory.getInstance("EC").generatePublic(new ECPublicKeySpec(point, params));
+                default:
+                    return null;
+            }
+        } catch (GeneralSecurityException | IllegalArgumentException e) {
+            throw new AuthSdkException("Invalid JWK '" + jwk.path("kid").asText(NO_KEY_ID) + "'", e);
+        }
+    }
+
+    private static ECParameterSpec curve(String crv) throws GeneralSecurityException {
+        String name;
+        switch (crv) {
+            case "P-256":
+                name = "secp256r1";
+                break;
+            case "P-384":
+                name = "secp384r1";
+                break;
+            case "P-521":
+                name = "secp521r1";
+                break;
+            default:
+                return null;
+        }
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance("EC");
+        parameters.init(new ECGenParameterSpec(name));
+        return parameters.getParameterSpec(ECParameterSpec.class);
+    }
+
+    private static BigInteger unsigned(JsonNode jwk, String field) {
+        String value = jwk.path(field).asText(null);
+        if (value == null) {
+            throw new IllegalArgumentException("Missing '" + field + "'");
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
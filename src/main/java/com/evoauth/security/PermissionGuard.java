@@ -1,11 +1,34 @@
 package com.evoauth.security;
 
+import com.evoauth.models.RoleMask;
+import com.evoauth.models.RoleRegistry;
 import com.evoauth.models.User;
 
-import java.util.Arrays;
-import java.util.List;
-
+/**
+ * Role and permission checks against a {@link User}.
+ * <p>
+ * Checks run on the user's compiled {@link RoleMask}: each role name is looked up once
+ * in the {@link RoleRegistry} and tested with a bitwise operation, without allocating.
+ * For hot paths, build the required roles into a {@code RoleMask} once and use the
+ * mask overloads.
+ * <p>
+ * Once an {@link AccessPolicy} is installed, role checks also count inherited roles
+ * and {@link #hasPermission} becomes available. Installing a new policy is an atomic
+ * swap; every check sees either the old policy or the new one.
+ */
 public class PermissionGuard {
+    private static volatile AccessPolicy policy = AccessPolicy.EMPTY;
+
+    /**
+     * Installs the role hierarchy and permission grants used by every check.
+     */
+    public static void setPolicy(AccessPolicy newPolicy) {
+        policy = newPolicy != null ? newPolicy : AccessPolicy.EMPTY;
+    }
+
+    public static AccessPolicy getPolicy() {
+        return policy;
+    }
 
     /**
      * Checks if the user has the specified role.
@@ -14,7 +37,7 @@ public class PermissionGuard {
         if (user == null || user.getRoles() == null) {
             return false;
         }
-        return user.getRoles().contains(role);
+        return holds(user, policy.effectiveRoles(user), role);
     }
 
     /**
@@ -24,9 +47,9 @@ public class PermissionGuard {
         if (user == null || user.getRoles() == null) {
             return false;
         }
-        List<String> userRoles = user.getRoles();
+        RoleMask effective = policy.effectiveRoles(user);
         for (String role : roles) {
-            if (userRoles.contains(role)) {
+            if (holds(user, effective, role)) {
                 return true;
             }
         }
@@ -40,7 +63,71 @@ public class PermissionGuard {
         if (user == null || user.getRoles() == null) {
             return false;
         }
-        List<String> userRoles = user.getRoles();
-        return userRoles.containsAll(Arrays.asList(roles));
+        RoleMask effective = policy.effectiveRoles(user);
+        for (String role : roles) {
+            if (!holds(user, effective, role)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if the user has any role in {@code required}.
+     */
+    public static boolean hasAnyRole(User user, RoleMask required) {
+        return hasAnyRole(policy, user, required);
+    }
+
+    /**
+     * {@link #hasAnyRole(User, RoleMask)} against {@code policy} instead of the installed one.
+     */
+    static boolean hasAnyRole(AccessPolicy policy, User user, RoleMask required) {
+        if (user == null || user.getRoles() == null) {
+            return false;
+        }
+        if (policy.effectiveRoles(user).intersects(required)) {
+            return true;
+        }
+        return user.getRoleMask() == null && required.names().stream().anyMatch(user.getRoles()::contains);
+    }
+
+    /**
+     * Checks if the user has every role in {@code required}.
+     */
+    public static boolean hasAllRoles(User user, RoleMask required) {
+        return hasAllRoles(policy, user, required);
+    }
+
+    /**
+     * {@link #hasAllRoles(User, RoleMask)} against {@code policy} instead of the installed one.
+     */
+    static boolean hasAllRoles(AccessPolicy policy, User user, RoleMask required) {
+        if (user == null || user.getRoles() == null) {
+            return false;
+        }
+        RoleMask effective = policy.effectiveRoles(user);
+        if (effective.containsAll(required)) {
+            return true;
+        }
+        if (user.getRoleMask() != null) {
+            return false;
+        }
+        return required.names().stream().allMatch(role -> holds(user, effective, role));
+    }
+
+    /**
+     * Checks if the user's roles grant {@code permission}, directly or through inheritance.
+     */
+    public static boolean hasPermission(User user, String permission) {
+        return policy.hasPermission(user, permission);
+    }
+
+    private static boolean holds(User user, RoleMask effective, String role) {
+        if (effective.contains(RoleRegistry.idOf(role))) {
+            return true;
+        }
+        // Roles the registry had no room for only exist as names
+        return user.getRoleMask() == null && user.getRoles().contains(role);
     }
 }
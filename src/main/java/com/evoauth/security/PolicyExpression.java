@@ -0,0 +1,301 @@
+package com.evoauth.security;
+
+import com.evoauth.models.RoleMask;
+import com.evoauth.models.User;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * An authorization rule such as {@code hasRole('ADMIN') or (hasRole('TELLER') and mfaEnabled)},
+ * parsed once and compiled into a tree of lambdas.
+ * <p>
+ * Supported terms:
+ * <ul>
+ *   <li>{@code hasRole('R')}, {@code hasAnyRole('R1', 'R2')}, {@code hasAllRoles('R1', 'R2')} -
+ *       role checks through {@link PermissionGuard}, honouring the installed {@link AccessPolicy}</li>
+ *   <li>{@code hasPermission('accounts:transfer')}</li>
+ *   <li>{@code mfaEnabled}</li>
+ *   <li>{@code emailDomain('example.com')} - case-insensitive match on the part after {@code @}</li>
+ *   <li>{@code hasClaim('name')}, {@code claim('name', 'value')} - token claims; the value
+ *       matches a string claim or an element of a list claim. Always false when evaluated
+ *       against a bare {@code User}.</li>
+ *   <li>{@code true}, {@code false}</li>
+ * </ul>
+ * combined with {@code and}/{@code &&}, {@code or}/{@code ||}, {@code not}/{@code !} and
+ * parentheses. Role masks and lowercase domains are prepared at compile time, so
+ * evaluation does no parsing, lookups by name or allocation.
+ */
+public final class PolicyExpression {
+    private static final int MAX_CACHED = 1024;
+    private static final ConcurrentHashMap<String, PolicyExpression> CACHE = new ConcurrentHashMap<>();
+
+    private final String source;
+    private final Rule rule;
+
+    private PolicyExpression(String source, Rule rule) {
+        this.source = source;
+        this.rule = rule;
+    }
+
+    /**
+     * Returns the compiled form of {@code source}, parsing it only the first time.
+     *
+     * @throws IllegalArgumentException if the expression is malformed
+     */
+    public static PolicyExpression compile(String source) {
+        PolicyExpression compiled = CACHE.get(source);
+        if (compiled != null) {
+            return compiled;
+        }
+        compiled = new PolicyExpression(source, new Parser(source).parse());
+        if (CACHE.size() < MAX_CACHED) {
+            PolicyExpression existing = CACHE.putIfAbsent(source, compiled);
+            if (existing != null) {
+                return existing;
+            }
+        }
+        return compiled;
+    }
+
+    /**
+     * Evaluates the rule against a user; claim terms are false.
+     */
+    public boolean evaluate(User user) {
+        return evaluate(user, PermissionGuard.getPolicy());
+    }
+
+    /**
+     * {@link #evaluate(User)} against {@code policy} instead of the installed one.
+     */
+    boolean evaluate(User user, AccessPolicy policy) {
+        return user != null && rule.test(user, null, policy);
+    }
+
+    /**
+     * Evaluates the rule against a verified token's user and claims.
+     */
+    public boolean evaluate(VerifiedToken token) {
+        return token != null && token.getUser() != null && rule.test(token.getUser(), token, PermissionGuard.getPolicy());
+    }
+
+    public String getSource() {
+        return source;
+    }
+
+    @Override
+    public String toString() {
+        return source;
+    }
+
+    private interface Rule {
+        boolean test(User user, VerifiedToken token, AccessPolicy policy);
+    }
+
+    private static boolean claimMatches(Object claim, String value) {
+        if (claim instanceof List) {
+            List<?> values = (List<?>) claim;
+            for (int i = 0; i < values.size(); i++) {
+                if (value.equals(String.valueOf(values.get(i)))) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return claim != null && value.equals(claim.toString());
+    }
+
+    private static boolean hasEmailDomain(User user, String domain) {
+        String email = user.getEmail();
+        if (email == null) {
+            return false;
+        }
+        int start = email.length() - domain.length();
+        return start > 0 && email.charAt(start - 1) == '@' && email.regionMatches(true, start, domain, 0, domain.length());
+    }
+
+    /**
+     * Recursive descent over: or := and (or and)*, and := unary (and unary)*,
+     * unary := not unary | primary.
+     */
+    private static final class Parser {
+        private final String source;
+        private int pos;
+
+        Parser(String source) {
+            if (source == null || source.isBlank()) {
+                throw new IllegalArgumentException("Policy expression is empty");
+            }
+            this.source = source;
+        }
+
+        Rule parse() {
+            Rule rule = parseOr();
+            skipWhitespace();
+            if (pos < source.length()) {
+                throw error("Unexpected '" + source.charAt(pos) + "'");
+            }
+            return rule;
+        }
+
+        private Rule parseOr() {
+            Rule left = parseAnd();
+            while (accept("||") || acceptWord("or")) {
+                Rule l = left;
+                Rule r = parseAnd();
+                left = (user, token, policy) -> l.test(user, token, policy) || r.test(user, token, policy);
+            }
+            return left;
+        }
+
+        private Rule parseAnd() {
+            Rule left = parseUnary();
+            while (accept("&&") || acceptWord("and")) {
+                Rule l = left;
+                Rule r = parseUnary();
+                left = (user, token, policy) -> l.test(user, token, policy) && r.test(user, token, policy);
+            }
+            return left;
+        }
+
+        private Rule parseUnary() {
+            if (acceptWord("not") || accept("!")) {
+                Rule operand = parseUnary();
+                return (user, token, policy) -> !operand.test(user, token, policy);
+            }
+            return parsePrimary();
+        }
+
+        private Rule parsePrimary() {
+            if (accept("(")) {
+                Rule inner = parseOr();
+                expect(")");
+                return inner;
+            }
+            int start = pos;
+            String name = identifier();
+            switch (name) {
+                case "true":
+                    return (user, token, policy) -> true;
+                case "false":
+                    return (user, token, policy) -> false;
+                case "mfaEnabled":
+                    return (user, token, policy) -> user.isMfaEnabled();
+                case "hasRole": {
+                    RoleMask roles = RoleMask.of(arguments(1, 1).get(0));
+                    return (user, token, policy) -> PermissionGuard.hasAnyRole(policy, user, roles);
+                }
+                case "hasAnyRole": {
+                    RoleMask roles = RoleMask.of(arguments(1, Integer.MAX_VALUE).toArray(new String[0]));
+                    return (user, token, policy) -> PermissionGuard.hasAnyRole(policy, user, roles);
+                }
+                case "hasAllRoles": {
+                    RoleMask roles = RoleMask.of(arguments(1, Integer.MAX_VALUE).toArray(new String[0]));
+                    return (user, token, policy) -> PermissionGuard.hasAllRoles(policy, user, roles);
+                }
+                case "hasPermission": {
+                    String permission = arguments(1, 1).get(0);
+                    return (user, token, policy) -> policy.hasPermission(user, permission);
+                }
+                case "emailDomain": {
+                    String domain = arguments(1, 1).get(0);
+                    return (user, token, policy) -> hasEmailDomain(user, domain);
+                }
+                case "hasClaim": {
+                    String claim = arguments(1, 1).get(0);
+                    return (user, token, policy) -> token != null && token.getClaim(claim) != null;
+                }
+                case "claim": {
+                    List<String> args = arguments(2, 2);
+                    String claim = args.get(0);
+                    String value = args.get(1);
+                    return (user, token, policy) -> token != null && claimMatches(token.getClaim(claim), value);
+                }
+                default:
+                    pos = start;
+                    throw error("Unknown term '" + name + "'");
+            }
+        }
+
+        private List<String> arguments(int min, int max) {
+            int start = pos;
+            expect("(");
+            List<String> args = new ArrayList<>();
+            if (!accept(")")) {
+                do {
+                    args.add(string());
+                } while (accept(","));
+                expect(")");
+            }
+            if (args.size() < min || args.size() > max) {
+                pos = start;
+                throw error(min == max ? "Expected " + min + " argument(s)" : "Expected at least " + min + " argument(s)");
+            }
+            return args;
+        }
+
+        private String string() {
+            skipWhitespace();
+            if (pos >= source.length() || (source.charAt(pos) != '\'' && source.charAt(pos) != '"')) {
+                throw error("Expected a quoted string");
+            }
+            char quote = source.charAt(pos);
+            int end = source.indexOf(quote, pos + 1);
+            if (end < 0) {
+                throw error("Unterminated string");
+            }
+            String value = source.substring(pos + 1, end);
+            pos = end + 1;
+            return value;
+        }
+
+        private String identifier() {
+            skipWhitespace();
+            int start = pos;
+            while (pos < source.length() && Character.isJavaIdentifierPart(source.charAt(pos))) {
+                pos++;
+            }
+            if (start == pos) {
+                throw error(pos < source.length() ? "Unexpected '" + source.charAt(pos) + "'" : "Unexpected end of expression");
+            }
+            return source.substring(start, pos);
+        }
+
+        private boolean acceptWord(String word) {
+            skipWhitespace();
+            int end = pos + word.length();
+            if (source.startsWith(word, pos)
+                    && (end == source.length() || !Character.isJavaIdentifierPart(source.charAt(end)))) {
+                pos = end;
+                return true;
+            }
+            return false;
+        }
+
+        private boolean accept(String symbol) {
+            skipWhitespace();
+            if (source.startsWith(symbol, pos)) {
+                pos += symbol.length();
+                return true;
+            }
+            return false;
+        }
+
+        private void expect(String symbol) {
+            if (!accept(symbol)) {
+                throw error("Expected '" + symbol + "'");
+            }
+        }
+
+        private void skipWhitespace() {
+            while (pos < source.length() && Character.isWhitespace(source.charAt(pos))) {
+                pos++;
+            }
+        }
+
+        private IllegalArgumentException error(String message) {
+            return new IllegalArgumentException(message + " at position " + pos + " in: " + source);
+        }
+    }
+}
@@ -0,0 +1,324 @@
+package com.evoauth.security;
+
+import com.evoauth.models.RoleMask;
+import com.evoauth.models.User;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Maps HTTP method and path patterns to the roles allowed to call them, such as
+ * {@code GET /accounts/*}{@code /statements -> STATEMENT_READ}.
+ * <p>
+ * Patterns are stored in a trie with one level per path segment. A segment is a
+ * literal, {@code *} (exactly one segment) or {@code **} (any number of segments,
+ * including none). Resolving a path walks the trie depth first, falling back from a
+ * literal to {@code *} to {@code **} when the more specific branch doesn't match. A
+ * lookup remembers which trie nodes failed at which segment, so it visits each pair at
+ * most once: the cost is bounded by the number of trie nodes times the path's segment
+ * count, however many {@code **} the rules contain, and is close to the path's depth
+ * when little backtracking is needed. When several rules match, the most specific
+ * wins: at each segment a literal beats {@code *}, which beats {@code **}, and a rule
+ * for the exact method beats one for any method ({@code *}).
+ * <p>
+ * The index is immutable once built and safe to share between threads.
+ */
+public final class ResourcePermissionIndex {
+    private static final String ANY_METHOD = "*";
+    // Lookups that backtrack less than this never allocate their failure set
+    private static final int MEMOIZE_AFTER_STEPS = 256;
+
+    private final Node root;
+    private final int size;
+    // Without ** every (node, segment) pair is reached at most once, so nothing needs remembering
+    private final boolean backtracks;
+
+    private ResourcePermissionIndex(Node root, int size, boolean backtracks) {
+        this.root = root;
+        this.size = size;
+        this.backtracks = backtracks;
+    }
+
+    /**
+     * Checks that the user holds at least one of the roles required for {@code method}
+     * and {@code path}. Paths no rule matches are denied.
+     */
+    public boolean check(User user, String method, String path) {
+        RoleMask required = resolve(method, path);
+        return required != null && PermissionGuard.hasAnyRole(user, required);
+    }
+
+    /**
+     * Returns the roles of the most specific rule matching the request, any of which
+     * grants access, or null if no rule matches.
+     */
+    public RoleMask resolve(String method, String path) {
+        if (path == null) {
+            return null;
+        }
+        String normalizedMethod = method != null ? method.toUpperCase(Locale.ROOT) : null;
+        return new Lookup(normalizedMethod, path, backtracks).match(root, skipSlashes(path, 0));
+    }
+
+    /**
+     * Number of rules in the index.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * State of one {@link #resolve} call: the request and the (node, offset) pairs known
+     * not to match.
+     */
+    private static final class Lookup {
+        private final String method;
+        private final String path;
+        private final boolean memoize;
+        private Set<Long> failed;
+        private int steps;
+
+        Lookup(String method, String path, boolean memoize) {
+            this.method = method;
+            this.path = path;
+            this.memoize = memoize;
+        }
+
+        RoleMask match(Node node, int start) {
+            if (hasFailed(node, start, false)) {
+                return null;
+            }
+            steps++;
+            RoleMask roles = matchUncached(node, start);
+            if (roles == null) {
+                markFailed(node, start, false);
+            }
+            return roles;
+        }
+
+        private RoleMask matchUncached(Node node, int start) {
+            if (start == path.length()) {
+                RoleMask roles = node.rolesFor(method);
+                if (roles != null) {
+                    return roles;
+                }
+                // A trailing ** also matches zero segments
+                return node.anySegments != null ? node.anySegments.rolesFor(method) : null;
+            }
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            int next = skipSlashes(path, end);
+
+            if (node.segments != null) {
+                Node child = node.segments.get(path, start, end);
+                if (child != null) {
+                    RoleMask roles = match(child, next);
+                    if (roles != null) {
+                        return roles;
+                    }
+                }
+            }
+            if (node.oneSegment != null) {
+                RoleMask roles = match(node.oneSegment, next);
+                if (roles != null) {
+                    return roles;
+                }
+            }
+            return node.anySegments != null ? matchAnySegments(node.anySegments, start) : null;
+        }
+
+        /**
+         * Lets {@code **} absorb as few segments as possible, trying each segment boundary
+         * from {@code start} on. If every boundary from some offset on has already failed,
+         * every later one has too, so the scan stops there.
+         */
+        private RoleMask matchAnySegments(Node anySegments, int start) {
+            int from = start;
+            while (!hasFailed(anySegments, from, true)) {
+                RoleMask roles = match(anySegments, from);
+                if (roles != null) {
+                    return roles;
+                }
+                if (from == path.length()) {
+                    break;
+                }
+                int slash = path.indexOf('/', from);
+                from = slash < 0 ? path.length() : skipSlashes(path, slash);
+            }
+            if (failed != null) {
+                for (int failedFrom = start; ; ) {
+                    if (!failed.add(key(anySegments, failedFrom, true)) || failedFrom >= from) {
+                        break;
+                    }
+                    int slash = path.indexOf('/', failedFrom);
+                    failedFrom = slash < 0 ? path.length() : skipSlashes(path, slash);
+                }
+            }
+            return null;
+        }
+
+        private boolean hasFailed(Node node, int start, boolean fromOn) {
+            return failed != null && failed.contains(key(node, start, fromOn));
+        }
+
+        private void markFailed(Node node, int start, boolean fromOn) {
+            if (failed == null && memoize && steps > MEMOIZE_AFTER_STEPS) {
+                failed = new HashSet<>();
+            }
+            if (failed != null) {
+                failed.add(key(node, start, fromOn));
+            }
+        }
+
+        private static long key(Node node, int start, boolean fromOn) {
+            return ((long) node.id << 32) | ((long) start << 1) | (fromOn ? 1 : 0);
+        }
+    }
+
+    private static int skipSlashes(String path, int from) {
+        while (from < path.length() && path.charAt(from) == '/') {
+            from++;
+        }
+        return from;
+    }
+
+    private static final class Node {
+        // Literal children while building; frozen into segments by copy()
+        Map<String, Node> literals;
+        SegmentTable segments;
+        Node oneSegment;
+        Node anySegments;
+        Map<String, RoleMask> rolesByMethod;
+        // Dense per index, assigned by copy()
+        int id;
+
+        RoleMask rolesFor(String method) {
+            if (rolesByMethod == null) {
+                return null;
+            }
+            RoleMask roles = method != null ? rolesByMethod.get(method) : null;
+            return roles != null ? roles : rolesByMethod.get(ANY_METHOD);
+        }
+
+        Node copy(int[] nextId) {
+            Node copy = new Node();
+            copy.id = nextId[0]++;
+            if (literals != null) {
+                copy.segments = new SegmentTable(literals, nextId);
+            }
+            copy.oneSegment = oneSegment != null ? oneSegment.copy(nextId) : null;
+            copy.anySegments = anySegments != null ? anySegments.copy(nextId) : null;
+            copy.rolesByMethod = rolesByMethod != null ? new HashMap<>(rolesByMethod) : null;
+            return copy;
+        }
+
+        Node child(String segment) {
+            switch (segment) {
+                case "*":
+                    return oneSegment != null ? oneSegment : (oneSegment = new Node());
+                case "**":
+                    return anySegments != null ? anySegments : (anySegments = new Node());
+                default:
+                    if (literals == null) {
+                        literals = new HashMap<>();
+                    }
+                    return literals.computeIfAbsent(segment, s -> new Node());
+            }
+        }
+    }
+
+    /**
+     * Open-addressing table of literal children, looked up by a range of the request
+     * path so matching never has to cut the path into substrings.
+     */
+    private static final class SegmentTable {
+        private final String[] keys;
+        private final Node[] children;
+        private final int mask;
+
+        SegmentTable(Map<String, Node> literals, int[] nextId) {
+            int capacity = Integer.highestOneBit(Math.max(2, literals.size()) * 2 - 1) << 1;
+            this.keys = new String[capacity];
+            this.children = new Node[capacity];
+            this.mask = capacity - 1;
+            literals.forEach((segment, child) -> {
+                int slot = spread(segment.hashCode()) & mask;
+                while (keys[slot] != null) {
+                    slot = (slot + 1) & mask;
+                }
+                keys[slot] = segment;
+                children[slot] = child.copy(nextId);
+            });
+        }
+
+        Node get(String path, int start, int end) {
+            int length = end - start;
+            int hash = 0;
+            for (int i = start; i < end; i++) {
+                hash = 31 * hash + path.charAt(i);
+            }
+            for (int slot = spread(hash) & mask; keys[slot] != null; slot = (slot + 1) & mask) {
+                String key = keys[slot];
+                if (key.length() == length && path.regionMatches(start, key, 0, length)) {
+                    return children[slot];
+                }
+            }
+            return null;
+        }
+
+        private static int spread(int hash) {
+            return hash ^ (hash >>> 16);
+        }
+    }
+
+    public static class Builder {
+        private final Node root = new Node();
+        private int size;
+        private boolean anySegments;
+
+        /**
+         * Allows {@code roles} to call {@code method} (or {@code *} for any method) on paths
+         * matching {@code pattern}. A later rule for the same method and pattern adds to
+         * its roles.
+         */
+        public Builder rule(String method, String pattern, String... roles) {
+            if (method == null || method.isBlank()) {
+                throw new IllegalArgumentException("Method is required");
+            }
+            if (pattern == null || !pattern.startsWith("/")) {
+                throw new IllegalArgumentException("Pattern must start with '/': " + pattern);
+            }
+            if (roles.length == 0) {
+                throw new IllegalArgumentException("At least one role is required for " + method + " " + pattern);
+            }
+            Node node = root;
+            for (String segment : pattern.split("/")) {
+                if (segment.isEmpty()) {
+                    continue;
+                }
+                if (!segment.equals("*") && !segment.equals("**") && segment.contains("*")) {
+                    throw new IllegalArgumentException("Wildcards must be a whole segment: " + pattern);
+                }
+                anySegments |= segment.equals("**");
+                node = node.child(segment);
+            }
+            if (node.rolesByMethod == null) {
+                node.rolesByMethod = new HashMap<>();
+            }
+            RoleMask mask = RoleMask.of(roles);
+            node.rolesByMethod.merge(method.toUpperCase(Locale.ROOT), mask, RoleMask::union);
+            size++;
+            return this;
+        }
+
+        public ResourcePermissionIndex build() {
+            // Copy so rules added to this builder later don't leak into the index
+            return new ResourcePermissionIndex(root.copy(new int[1]), size, anySegments);
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package com.evoauth.security;
+
+import java.security.PublicKey;
+
+/**
+ * Looks up the public key a token was signed with.
+ */
+@FunctionalInterface
+public interface SigningKeyResolver {
+    /**
+     * Returns the key for the given {@code kid} header, or null if it is unknown.
+     * {@code keyId} is null when the token carries no {@code kid}.
+     */
+    PublicKey resolve(String keyId);
+}
@@ -0,0 +1,165 @@
+package com.evoauth.security;
+
+import com.evoauth.exceptions.AuthSdkException;
+
+import javax.crypto.AEADBadTagException;
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Encrypts tokens with AES-GCM for storage.
+ * <p>
+ * {@code Cipher.getInstance} is expensive, so each thread keeps its own {@link Cipher}
+ * and re-initializes it per call. Each IV is a random 8-byte prefix, chosen once per
+ * thread and again before its 4-byte counter wraps, followed by that counter, so no
+ * {@link SecureRandom} call is needed per encryption. IVs never repeat within one
+ * prefix; across prefixes (threads, re-seeds and restarts) uniqueness is only
+ * probabilistic, with collisions becoming likely after about 2^32 prefixes under one
+ * key. Rotate keys well before that.
+ * <p>
+ * The output is {@code base64url(version | keyIdLength | keyId | iv | ciphertext+tag)}.
+ * Callers may pass associated data (such as the session ID) that must match on
+ * decryption, so ciphertexts can't be moved between sessions.
+ */
+public class TokenCipher {
+    private static final String TRANSFORMATION = "AES/GCM/NoPadding";
+    private static final byte VERSION = 1;
+    private static final int IV_BYTES = 12;
+    private static final int TAG_BITS = 128;
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final EncryptionKeyProvider keyProvider;
+    private final ThreadLocal<ThreadState> state = ThreadLocal.withInitial(ThreadState::new);
+
+    public TokenCipher(EncryptionKeyProvider keyProvider) {
+        this.keyProvider = keyProvider;
+    }
+
+    public String encrypt(String plaintext) {
+        return encrypt(plaintext, null);
+    }
+
+    /**
+     * Encrypts {@code plaintext}, binding it to {@code associatedData}. Null in, null out.
+     */
+    public String encrypt(String plaintext, byte[] associatedData) {
+        if (plaintext == null) {
+            return null;
+        }
+        String keyId = keyProvider.currentKeyId();
+        SecretKey key = keyProvider.getKey(keyId);
+        if (key == null) {
+            throw new AuthSdkException("No encryption key for key ID " + keyId);
+        }
+        byte[] keyIdBytes = keyId.getBytes(StandardCharsets.UTF_8);
+        if (keyIdBytes.length > 255) {
+            throw new AuthSdkException("Encryption key ID is too long");
+        }
+
+        ThreadState thread = state.get();
+        try {
+            byte[] iv = thread.nextIv();
+            Cipher cipher = thread.cipher;
+            cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, iv));
+            if (associatedData != null) {
+                cipher.updateAAD(associatedData);
+            }
+            byte[] input = plaintext.getBytes(StandardCharsets.UTF_8);
+            int headerLength = 2 + keyIdBytes.length + IV_BYTES;
+            byte[] output = new byte[headerLength + cipher.getOutputSize(input.length)];
+            output[0] = VERSION;
+            output[1] = (byte) keyIdBytes.length;
+            System.arraycopy(keyIdBytes, 0, output, 2, keyIdBytes.length);
+            System.arraycopy(iv, 0, output, 2 + keyIdBytes.length, IV_BYTES);
+            cipher.doFinal(input, 0, input.length, output, headerLength);
+            return Base64.getUrlEncoder().withoutPadding().encodeToString(output);
+        } catch (GeneralSecurityException e) {
+            throw new AuthSdkException("Failed to encrypt token", e);
+        }
+    }
+
+    public String decrypt(String ciphertext) {
+        return decrypt(ciphertext, null);
+    }
+
+    /**
+     * Decrypts a value produced by {@link #encrypt(String, byte[])} with the same associated data.
+     *
+     * @throws AuthSdkException if the value was tampered with, belongs to other associated
+     *                          data or names an unknown key
+     */
+    public String decrypt(String ciphertext, byte[] associatedData) {
+        if (ciphertext == null) {
+            return null;
+        }
+        byte[] input;
+        try {
+            input = Base64.getUrlDecoder().decode(ciphertext);
+        } catch (IllegalArgumentException e) {
+            throw new AuthSdkException("Malformed encrypted token", e);
+        }
+        if (input.length < 2 || input[0] != VERSION || input.length < 2 + (input[1] & 0xff) + IV_BYTES) {
+            throw new AuthSdkException("Malformed encrypted token");
+        }
+        int keyIdLength = input[1] & 0xff;
+        String keyId = new String(input, 2, keyIdLength, StandardCharsets.UTF_8);
+        SecretKey key = keyProvider.getKey(keyId);
+        if (key == null) {
+            throw new AuthSdkException("No decryption key for key ID " + keyId);
+        }
+
+        int ivOffset = 2 + keyIdLength;
+        int bodyOffset = ivOffset + IV_BYTES;
+        try {
+            Cipher cipher = state.get().cipher;
+            cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(TAG_BITS, input, ivOffset, IV_BYTES));
+            if (associatedData != null) {
+                cipher.updateAAD(associatedData);
+            }
+            byte[] plaintext = cipher.doFinal(input, bodyOffset, input.length - bodyOffset);
+            return new String(plaintext, StandardCharsets.UTF_8);
+        } catch (AEADBadTagException e) {
+            throw new AuthSdkException("Encrypted token failed authentication", e);
+        } catch (GeneralSecurityException e) {
+            throw new AuthSdkException("Failed to decrypt token", e);
+        }
+    }
+
+    private static final class ThreadState {
+        final Cipher cipher;
+        final byte[] iv = new byte[IV_BYTES];
+        int counter;
+
+        ThreadState() {
+            try {
+                this.cipher = Cipher.getInstance(TRANSFORMATION);
+            } catch (GeneralSecurityException e) {
+                throw new AuthSdkException("AES-GCM is not available", e);
+            }
+            reseed();
+        }
+
+        byte[] nextIv() {
+            if (counter == -1) {
+                // Counter exhausted: a fresh prefix keeps IVs unique
+                reseed();
+            }
+            counter++;
+            ByteBuffer.wrap(iv, 8, 4).putInt(counter);
+            return iv;
+        }
+
+        private void reseed() {
+            byte[] prefix = new byte[8];
+            RANDOM.nextBytes(prefix);
+            System.arraycopy(prefix, 0, iv, 0, 8);
+            counter = 0;
+        }
+    }
+}
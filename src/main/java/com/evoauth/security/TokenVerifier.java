@@ -0,0 +1,299 @@
+package com.evoauth.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.auth0.jwt.exceptions.AlgorithmMismatchException;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import com.auth0.jwt.exceptions.JWTVerificationException;
+import com.auth0.jwt.exceptions.SignatureVerificationException;
+import com.auth0.jwt.exceptions.TokenExpiredException;
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.auth0.jwt.interfaces.ECDSAKeyProvider;
+import com.auth0.jwt.interfaces.RSAKeyProvider;
+import com.auth0.jwt.interfaces.Verification;
+import com.evoauth.exceptions.TokenVerificationException;
+import com.evoauth.exceptions.TokenVerificationException.Reason;
+import com.evoauth.models.User;
+
+import java.nio.charset.StandardCharsets;
+import java.security.PublicKey;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Verifies access tokens locally, without a round trip to the auth server.
+ * <p>
+ * Checks the signature, {@code exp}, {@code nbf}, {@code iss} and {@code aud} (with a
+ * configurable clock skew) and maps the standard claims onto a {@link User}. One
+ * {@link com.auth0.jwt.JWTVerifier} is built per supported algorithm up front, so a
+ * verification is a map lookup plus the signature check itself.
+ */
+public class TokenVerifier {
+    private final Map<String, com.auth0.jwt.JWTVerifier> verifiers;
+    private final boolean requireExpiry;
+    private final String rolesClaim;
+    private final VerifiedTokenCache cache;
+
+    private TokenVerifier(Builder builder) {
+        this.requireExpiry = builder.requireExpiry;
+        this.rolesClaim = builder.rolesClaim;
+        this.cache = builder.cache;
+        this.verifiers = buildVerifiers(builder);
+    }
+
+    /**
+     * Verifies the token and returns its claims, or throws {@link TokenVerificationException}.
+     */
+    public VerifiedToken verify(String token) {
+        if (cache != null) {
+            VerifiedToken cached = cache.get(token, this);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        DecodedJWT jwt;
+        try {
+            jwt = JWT.decode(token);
+        } catch (JWTDecodeException e) {
+            throw new TokenVerificationException("Malformed token", Reason.MALFORMED, e);
+        }
+
+        com.auth0.jwt.JWTVerifier verifier = verifiers.get(jwt.getAlgorithm());
+        if (verifier == null) {
+            throw new TokenVerificationException("Unsupported signing algorithm: " + jwt.getAlgorithm(),
+                    Reason.UNSUPPORTED_ALGORITHM);
+        }
+
+        try {
+            verifier.verify(jwt);
+        } catch (TokenExpiredException e) {
+            throw new TokenVerificationException("Token has expired", Reason.EXPIRED, e);
+        } catch (SignatureVerificationException | AlgorithmMismatchException e) {
+            throw new TokenVerificationException("Invalid token signature", Reason.INVALID_SIGNATURE, e);
+        } catch (JWTVerificationException e) {
+            throw new TokenVerificationException(e.getMessage(), Reason.INVALID_CLAIMS, e);
+        }
+
+        if (requireExpiry && jwt.getExpiresAtAsInstant() == null) {
+            throw new TokenVerificationException("Token has no expiry", Reason.INVALID_CLAIMS);
+        }
+
+        VerifiedToken verified = new VerifiedToken(jwt, toUser(jwt));
+        if (cache != null) {
+            cache.put(token, this, verified);
+        }
+        return verified;
+    }
+
+    public VerifiedTokenCache getCache() {
+        return cache;
+    }
+
+    /**
+     * Returns true if the token verifies; never throws for invalid tokens.
+     */
+    public boolean isValid(String token) {
+        try {
+            verify(token);
+            return true;
+        } catch (TokenVerificationException e) {
+            return false;
+        }
+    }
+
+    private User toUser(DecodedJWT jwt) {
+        User user = new User();
+        user.setId(jwt.getSubject());
+        user.setEmail(string(jwt.getClaim("email")));
+        user.setFirstName(string(jwt.getClaim("given_name")));
+        user.setLastName(string(jwt.getClaim("family_name")));
+
+        Claim roles = jwt.getClaim(rolesClaim);
+        if (!roles.isMissing() && !roles.isNull()) {
+            List<String> list = roles.asList(String.class);
+            if (list != null) {
+                user.setRoles(list);
+            } else if (roles.asString() != null) {
+                // Some servers send a space separated scope-style string
+                user.setRoles(List.of(roles.asString().trim().split("\\s+")));
+            }
+        }
+
+        Claim mfa = jwt.getClaim("mfa_enabled");
+        user.setMfaEnabled(Boolean.TRUE.equals(mfa.asBoolean()));
+        return user;
+    }
+
+    private static String string(Claim claim) {
+        return claim.isMissing() || claim.isNull() ? null : claim.asString();
+    }
+
+    private static Map<String, com.auth0.jwt.JWTVerifier> buildVerifiers(Builder builder) {
+        Map<String, com.auth0.jwt.JWTVerifier> result = new HashMap<>();
+
+        if (builder.keyResolver != null) {
+            RSAKeyProvider rsa = new RSAKeyProvider() {
+                @Override
+                public RSAPublicKey getPublicKeyById(String keyId) {
+                    PublicKey key = builder.keyResolver.resolve(keyId);
+                    return key instanceof RSAPublicKey ? (RSAPublicKey) key : null;
+                }
+
+                @Override
+                public RSAPrivateKey getPrivateKey() {
+                    return null;
+                }
+
+                @Override
+                public String getPrivateKeyId() {
+                    return null;
+                }
+            };
+            ECDSAKeyProvider ec = new ECDSAKeyProvider() {
+                @Override
+                public ECPublicKey getPublicKeyById(String keyId) {
+                    PublicKey key = builder.keyResolver.resolve(keyId);
+                    return key instanceof ECPublicKey ? (ECPublicKey) key : null;
+                }
+
+                @Override
+                public ECPrivateKey getPrivateKey() {
+                    return null;
+                }
+
+                @Override
+                public String getPrivateKeyId() {
+                    return null;
+                }
+            };
+            put(result, builder, Algorithm.RSA256(rsa));
+            put(result, builder, Algorithm.RSA384(rsa));
+            put(result, builder, Algorithm.RSA512(rsa));
+            put(result, builder, Algorithm.ECDSA256(ec));
+            put(result, builder, Algorithm.ECDSA384(ec));
+            put(result, builder, Algorithm.ECDSA512(ec));
+        }
+
+        if (builder.hmacSecret != null) {
+            put(result, builder, Algorithm.HMAC256(builder.hmacSecret));
+            put(result, builder, Algorithm.HMAC384(builder.hmacSecret));
+            put(result, builder, Algorithm.HMAC512(builder.hmacSecret));
+        }
+        return result;
+    }
+
+    private static void put(Map<String, com.auth0.jwt.JWTVerifier> verifiers, Builder builder,
+            Algorithm algorithm) {
+        Verification verification = JWT.require(algorithm).acceptLeeway(builder.clockSkewSeconds);
+        if (builder.issuer != null) {
+            verification.withIssuer(builder.issuer);
+        }
+        if (builder.audience != null) {
+            verification.withAnyOfAudience(builder.audience);
+        }
+        verifiers.put(algorithm.getName(), verification.build());
+    }
+
+    public static class Builder {
+        private SigningKeyResolver keyResolver;
+        private byte[] hmacSecret;
+        private String issuer;
+        private String[] audience;
+        private long clockSkewSeconds = 30;
+        private boolean requireExpiry = true;
+        private String rolesClaim = "roles";
+        private VerifiedTokenCache cache;
+
+        /**
+         * Verifies RSA/EC signed tokens with keys looked up by {@code kid}.
+         */
+        public Builder keyResolver(SigningKeyResolver keyResolver) {
+            this.keyResolver = keyResolver;
+            return this;
+        }
+
+        /**
+         * Verifies RSA/EC signed tokens with a single configured key, whatever their {@code kid}.
+         */
+        public Builder publicKey(PublicKey publicKey) {
+            this.keyResolver = keyId -> publicKey;
+            return this;
+        }
+
+        /**
+         * Verifies RSA/EC signed tokens against the keys of a JWKS document.
+         */
+        public Builder jwks(String jwksJson) {
+            this.keyResolver = JsonWebKeySet.parse(jwksJson);
+            return this;
+        }
+
+        /**
+         * Verifies HMAC signed tokens with a shared secret.
+         */
+        public Builder hmacSecret(String secret) {
+            this.hmacSecret = secret.getBytes(StandardCharsets.UTF_8);
+            return this;
+        }
+
+        public Builder issuer(String issuer) {
+            this.issuer = issuer;
+            return this;
+        }
+
+        /**
+         * Accepts tokens whose {@code aud} contains any of the given values.
+         */
+        public Builder audience(String... audience) {
+            this.audience = audience;
+            return this;
+        }
+
+        public Builder clockSkewSeconds(long clockSkewSeconds) {
+            this.clockSkewSeconds = clockSkewSeconds;
+            return this;
+        }
+
+        public Builder requireExpiry(boolean requireExpiry) {
+            this.requireExpiry = requireExpiry;
+            return this;
+        }
+
+        /**
+         * Name of the claim holding the user's roles. Defaults to {@code roles}.
+         */
+        public Builder rolesClaim(String rolesClaim) {
+            this.rolesClaim = rolesClaim;
+            return this;
+        }
+
+        /**
+         * Remembers successful verifications until the token expires. The cache may be
+         * shared; each verifier only gets back the verifications it made itself.
+         */
+        public Builder cache(VerifiedTokenCache cache) {
+            this.cache = cache;
+            return this;
+        }
+
+        public TokenVerifier build() {
+            if (keyResolver == null && hmacSecret == null) {
+                throw new IllegalArgumentException("A public key, JWKS or HMAC secret is required");
+            }
+            if (clockSkewSeconds < 0) {
+                throw new IllegalArgumentException("Clock skew must not be negative");
+            }
+            if (rolesClaim == null || rolesClaim.isBlank()) {
+                throw new IllegalArgumentException("Roles claim must not be empty");
+            }
+            return new TokenVerifier(this);
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.evoauth.security;
+
+import com.auth0.jwt.interfaces.Claim;
+import com.auth0.jwt.interfaces.DecodedJWT;
+import com.evoauth.models.User;
+
+import java.time.Instant;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Result of a successful local token verification.
+ */
+public class VerifiedToken {
+    private final DecodedJWT jwt;
+    private final User user;
+    private volatile Map<String, Object> claims;
+
+    VerifiedToken(DecodedJWT jwt, User user) {
+        this.jwt = jwt;
+        this.user = user;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public String getSubject() {
+        return jwt.getSubject();
+    }
+
+    public String getIssuer() {
+        return jwt.getIssuer();
+    }
+
+    public String getKeyId() {
+        return jwt.getKeyId();
+    }
+
+    public Instant getExpiresAt() {
+        return jwt.getExpiresAtAsInstant();
+    }
+
+    /**
+     * Returns a single claim converted to plain Java types, or null if absent.
+     */
+    public Object getClaim(String name) {
+        return getClaims().get(name);
+    }
+
+    /**
+     * All payload claims as plain Java types (String, Number, Boolean, List, Map).
+     */
+    public Map<String, Object> getClaims() {
+        Map<String, Object> result = claims;
+        if (result == null) {
+            // Converted on first use; most callers only look at the User
+            Map<String, Object> converted = new LinkedHashMap<>();
+            for (Map.Entry<String, Claim> entry : jwt.getClaims().entrySet()) {
+                converted.put(entry.getKey(), entry.getValue().as(Object.class));
+            }
+            result = Collections.unmodifiableMap(converted);
+            claims = result;
+        }
+        return result;
+    }
+}
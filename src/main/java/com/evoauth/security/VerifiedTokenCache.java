@@ -0,0 +1,219 @@
+package com.evoauth.security;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Bounded cache of successful verifications, so a bearer token seen repeatedly is
+ * only signature-checked once.
+ * <p>
+ * Entries are keyed by the SHA-256 of the token (the raw token is never retained),
+ * expire at the token's {@code exp}, and are evicted least-recently-used once the
+ * cache is full. The cache is split into independently locked LRU segments so
+ * concurrent lookups rarely contend.
+ * <p>
+ * Each entry remembers the {@link TokenVerifier} that produced it and is only returned
+ * to that verifier. Verifiers with different issuer or audience rules can therefore
+ * share one cache without trusting each other's results.
+ */
+public class VerifiedTokenCache {
+    private static final int SEGMENTS = 16;
+
+    private static final ThreadLocal<MessageDigest> SHA256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public VerifiedTokenCache(int maximumSize) {
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        int perSegment = Math.max(1, (maximumSize + SEGMENTS - 1) / SEGMENTS);
+        this.segments = new Segment[SEGMENTS];
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    /**
+     * Returns the cached verification for this token, or null if absent or expired.
+     */
+    public VerifiedToken get(String token) {
+        return get(token, null);
+    }
+
+    /**
+     * Returns the verification cached by {@code owner} for this token.
+     */
+    VerifiedToken get(String token, Object owner) {
+        TokenHash key = TokenHash.of(token);
+        CachedEntry entry = segmentFor(key).get(key, System.currentTimeMillis());
+        if (entry == null || entry.owner != owner) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        return entry.verified;
+    }
+
+    /**
+     * Caches a verification until the token's expiry. Tokens without {@code exp} are not cached.
+     */
+    public void put(String token, VerifiedToken verified) {
+        put(token, null, verified);
+    }
+
+    /**
+     * Caches a verification that only {@code owner} will be given back. A token verified
+     * by several owners keeps the latest one.
+     */
+    void put(String token, Object owner, VerifiedToken verified) {
+        Instant expiresAt = verified.getExpiresAt();
+        if (expiresAt == null) {
+            return;
+        }
+        TokenHash key = TokenHash.of(token);
+        segmentFor(key).put(key, new CachedEntry(owner, verified, expiresAt.toEpochMilli()));
+    }
+
+    /**
+     * Drops a token, e.g. after logout, so it must be verified again.
+     */
+    public void invalidate(String token) {
+        if (token == null) {
+            return;
+        }
+        TokenHash key = TokenHash.of(token);
+        segmentFor(key).remove(key);
+    }
+
+    public void invalidateAll() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    public long hitCount() {
+        return hits.sum();
+    }
+
+    public long missCount() {
+        return misses.sum();
+    }
+
+    public long evictionCount() {
+        return evictions.sum();
+    }
+
+    public double hitRate() {
+        long hit = hits.sum();
+        long total = hit + misses.sum();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    private Segment segmentFor(TokenHash key) {
+        return segments[key.hash & (SEGMENTS - 1)];
+    }
+
+    private static final class CachedEntry {
+        final Object owner;
+        final VerifiedToken verified;
+        final long expiresAtMs;
+
+        CachedEntry(Object owner, VerifiedToken verified, long expiresAtMs) {
+            this.owner = owner;
+            this.verified = verified;
+            this.expiresAtMs = expiresAtMs;
+        }
+    }
+
+    private static final class TokenHash {
+        final byte[] digest;
+        final int hash;
+
+        private TokenHash(byte[] digest) {
+            this.digest = digest;
+            // The digest is uniformly distributed, so its leading bytes make a good hash
+            this.hash = (digest[0] & 0xff) << 24 | (digest[1] & 0xff) << 16 | (digest[2] & 0xff) << 8
+                    | (digest[3] & 0xff);
+        }
+
+        static TokenHash of(String token) {
+            return new TokenHash(SHA256.get().digest(token.getBytes(StandardCharsets.US_ASCII)));
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof TokenHash && Arrays.equals(digest, ((TokenHash) o).digest);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private final class Segment {
+        private final LinkedHashMap<TokenHash, CachedEntry> map;
+
+        Segment(int capacity) {
+            this.map = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<TokenHash, CachedEntry> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized CachedEntry get(TokenHash key, long now) {
+            CachedEntry entry = map.get(key);
+            if (entry != null && entry.expiresAtMs <= now) {
+                map.remove(key);
+                return null;
+            }
+            return entry;
+        }
+
+        synchronized void put(TokenHash key, CachedEntry entry) {
+            map.put(key, entry);
+        }
+
+        synchronized void remove(TokenHash key) {
+            map.remove(key);
+        }
+
+        synchronized void clear() {
+            map.clear();
+        }
+
+        synchronized int size() {
+            return map.size();
+        }
+    }
+}
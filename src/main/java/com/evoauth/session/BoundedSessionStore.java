@@ -0,0 +1,522 @@
+package com.evoauth.session;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * Size-bounded {@link SessionStore} with per-session expiry, for deployments where an
+ * unbounded map would grow until the heap fills during a login storm.
+ * <p>
+ * <b>Expiry.</b> Each session lives until its refresh token expires (taken from
+ * {@code refresh_expires_in}, or {@link Builder#refreshTokenLifetime} when the server
+ * doesn't say), or until its access token expires if it has no refresh token.
+ * Deadlines are tracked in a hashed timing wheel, so scheduling is O(1) and idle
+ * sessions are dropped as the wheel advances, without sweeping the whole map.
+ * <p>
+ * <b>Eviction.</b> When full, the store uses W-TinyLFU: new sessions enter a small LRU
+ * window, and a session leaving the window only displaces a resident of the main
+ * segmented LRU if a frequency sketch says it has been used more often. A burst of
+ * one-off logins therefore can't flush out sessions that are in active use.
+ * <p>
+ * Lookups are lock-free reads of a {@link ConcurrentHashMap}; policy bookkeeping
+ * happens under a single lock that readers only ever {@code tryLock}, dropping the
+ * access record when it is contended rather than waiting.
+ */
+public class BoundedSessionStore implements SessionStore {
+    private static final int WINDOW = 0;
+    private static final int PROBATION = 1;
+    private static final int PROTECTED = 2;
+    private static final long NEVER = Long.MAX_VALUE;
+
+    private final ConcurrentHashMap<String, Node> data;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final long maximumSize;
+    private final long maxWindow;
+    private final long maxProtected;
+    private final long refreshTokenLifetimeMs;
+    private final long defaultTtlMs;
+    private final LongSupplier clock;
+    private final List<SessionEvictionListener> listeners = new CopyOnWriteArrayList<>();
+
+    // Guarded by lock
+    private final AccessQueue window = new AccessQueue();
+    private final AccessQueue probation = new AccessQueue();
+    private final AccessQueue protectedQueue = new AccessQueue();
+    private final FrequencySketch sketch;
+    private final ExpiryWheel wheel;
+
+    private BoundedSessionStore(Builder builder) {
+        this.maximumSize = builder.maximumSize;
+        this.maxWindow = Math.max(1, maximumSize / 100);
+        this.maxProtected = (long) ((maximumSize - maxWindow) * 0.8);
+        this.refreshTokenLifetimeMs = builder.refreshTokenLifetime.toMillis();
+        this.defaultTtlMs = builder.defaultTtl.toMillis();
+        this.clock = builder.clock;
+        this.data = new ConcurrentHashMap<>((int) Math.min(maximumSize, 1 << 20));
+        this.sketch = new FrequencySketch(maximumSize);
+        this.wheel = new ExpiryWheel(builder.wheelTickMs, clock.getAsLong());
+        if (builder.listener != null) {
+            listeners.add(builder.listener);
+        }
+    }
+
+    public void addEvictionListener(SessionEvictionListener listener) {
+        listeners.add(listener);
+    }
+
+    @Override
+    public SessionSnapshot get(String sessionId) {
+        Node node = data.get(sessionId);
+        if (node == null) {
+            return null;
+        }
+        long now = clock.getAsLong();
+        if (node.expiresAt <= now) {
+            tryMaintenance(null, now);
+            return null;
+        }
+        tryMaintenance(node, now);
+        return node.value;
+    }
+
+    @Override
+    public void put(String sessionId, SessionSnapshot session) {
+        compute(sessionId, current -> session);
+    }
+
+    @Override
+    public SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update) {
+        List<Evicted> evicted = new ArrayList<>(0);
+        SessionSnapshot result;
+        lock.lock();
+        try {
+            long now = clock.getAsLong();
+            Node node = data.get(sessionId);
+            SessionSnapshot current = node != null && node.expiresAt > now ? node.value : null;
+            result = update.apply(current);
+
+            if (result == null) {
+                if (node != null) {
+                    unlink(node);
+                    data.remove(sessionId, node);
+                }
+            } else if (node != null) {
+                node.value = result;
+                node.expiresAt = expiryOf(result, now);
+                wheel.schedule(node);
+                onAccess(node);
+            } else {
+                node = new Node(sessionId, result, expiryOf(result, now));
+                data.put(sessionId, node);
+                wheel.schedule(node);
+                onAdd(node);
+            }
+            maintain(now, evicted);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+        return result;
+    }
+
+    @Override
+    public SessionSnapshot remove(String sessionId) {
+        lock.lock();
+        try {
+            Node node = data.remove(sessionId);
+            if (node == null) {
+                return null;
+            }
+            unlink(node);
+            return node.expiresAt > clock.getAsLong() ? node.value : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        return data.mappingCount();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        long now = clock.getAsLong();
+        data.forEach((id, node) -> {
+            if (node.expiresAt > now) {
+                action.accept(id, node.value);
+            }
+        });
+    }
+
+    /**
+     * Advances the expiry wheel and applies pending evictions. Happens on every write
+     * anyway; call this periodically if the store may sit idle.
+     */
+    public void cleanUp() {
+        List<Evicted> evicted = new ArrayList<>(0);
+        lock.lock();
+        try {
+            maintain(clock.getAsLong(), evicted);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+    }
+
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    private long expiryOf(SessionSnapshot session, long now) {
+        if (session.getRefreshTokenExpiresAt() > 0) {
+            return session.getRefreshTokenExpiresAt();
+        }
+        if (session.getRefreshToken() != null && refreshTokenLifetimeMs > 0) {
+            return now + refreshTokenLifetimeMs;
+        }
+        if (session.getAccessTokenExpiresAt() > 0) {
+            return session.getAccessTokenExpiresAt();
+        }
+        return defaultTtlMs > 0 ? now + defaultTtlMs : NEVER;
+    }
+
+    private void tryMaintenance(Node accessed, long now) {
+        // Readers never wait on the policy lock; a dropped access record only
+        // makes the frequency estimate slightly less precise.
+        if (!lock.tryLock()) {
+            return;
+        }
+        List<Evicted> evicted = new ArrayList<>(0);
+        try {
+            if (accessed != null && data.get(accessed.key) == accessed) {
+                onAccess(accessed);
+            }
+            maintain(now, evicted);
+        } finally {
+            lock.unlock();
+        }
+        notifyListeners(evicted);
+    }
+
+    private void maintain(long now, List<Evicted> evicted) {
+        wheel.advance(now, node -> {
+            if (data.remove(node.key, node)) {
+                unlinkFromQueue(node);
+                evicted.add(new Evicted(node, SessionEvictionListener.Cause.EXPIRED));
+            }
+        });
+        evictForSize(evicted);
+    }
+
+    private void onAdd(Node node) {
+        sketch.increment(node.key.hashCode());
+        node.queue = WINDOW;
+        window.addLast(node);
+    }
+
+    private void onAccess(Node node) {
+        sketch.increment(node.key.hashCode());
+        switch (node.queue) {
+            case WINDOW:
+                window.moveToLast(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                node.queue = PROTECTED;
+                protectedQueue.addLast(node);
+                if (protectedQueue.size > maxProtected) {
+                    Node demoted = protectedQueue.pollFirst();
+                    demoted.queue = PROBATION;
+                    probation.addLast(demoted);
+                }
+                break;
+            default:
+                protectedQueue.moveToLast(node);
+                break;
+        }
+    }
+
+    private void evictForSize(List<Evicted> evicted) {
+        // Entries leaving the window become admission candidates at the tail of probation
+        while (window.size > maxWindow) {
+            Node candidate = window.pollFirst();
+            candidate.queue = PROBATION;
+            probation.addLast(candidate);
+        }
+
+        while (window.size + probation.size + protectedQueue.size > maximumSize) {
+            Node victim = probation.peekFirst();
+            Node candidate = probation.peekLast();
+            Node evict;
+            if (victim == null) {
+                evict = protectedQueue.size > 0 ? protectedQueue.peekFirst() : window.peekFirst();
+            } else if (victim == candidate) {
+                evict = victim;
+            } else {
+                // TinyLFU admission: the newcomer must have been seen more often than the resident
+                evict = sketch.frequency(candidate.key.hashCode()) > sketch.frequency(victim.key.hashCode())
+                        ? victim
+                        : candidate;
+            }
+            data.remove(evict.key, evict);
+            unlink(evict);
+            evicted.add(new Evicted(evict, SessionEvictionListener.Cause.SIZE));
+        }
+    }
+
+    private void unlink(Node node) {
+        unlinkFromQueue(node);
+        wheel.cancel(node);
+    }
+
+    private void unlinkFromQueue(Node node) {
+        switch (node.queue) {
+            case WINDOW:
+                window.remove(node);
+                break;
+            case PROBATION:
+                probation.remove(node);
+                break;
+            default:
+                protectedQueue.remove(node);
+                break;
+        }
+    }
+
+    private void notifyListeners(List<Evicted> evicted) {
+        if (evicted.isEmpty() || listeners.isEmpty()) {
+            return;
+        }
+        for (Evicted e : evicted) {
+            for (SessionEvictionListener listener : listeners) {
+                try {
+                    listener.onEviction(e.node.key, e.node.value, e.cause);
+                } catch (RuntimeException ignored) {
+                    // A failing listener must not break the store
+                }
+            }
+        }
+    }
+
+    private static final class Evicted {
+        final Node node;
+        final SessionEvictionListener.Cause cause;
+
+        Evicted(Node node, SessionEvictionListener.Cause cause) {
+            this.node = node;
+            this.cause = cause;
+        }
+    }
+
+    static final class Node {
+        final String key;
+        volatile SessionSnapshot value;
+        volatile long expiresAt;
+
+        // Access order links, guarded by the store lock
+        int queue;
+        Node prev;
+        Node next;
+
+        // Timing wheel links, guarded by the store lock
+        Node wheelPrev;
+        Node wheelNext;
+
+        Node(String key, SessionSnapshot value, long expiresAt) {
+            this.key = key;
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+
+    /**
+     * Intrusive doubly linked LRU list; least recently used first.
+     */
+    private static final class AccessQueue {
+        private final Node head = new Node(null, null, 0);
+        long size;
+
+        AccessQueue() {
+            head.prev = head;
+            head.next = head;
+        }
+
+        void addLast(Node node) {
+            node.prev = head.prev;
+            node.next = head;
+            head.prev.next = node;
+            head.prev = node;
+            size++;
+        }
+
+        void remove(Node node) {
+            if (node.prev == null) {
+                return;
+            }
+            node.prev.next = node.next;
+            node.next.prev = node.prev;
+            node.prev = null;
+            node.next = null;
+            size--;
+        }
+
+        void moveToLast(Node node) {
+            remove(node);
+            addLast(node);
+        }
+
+        Node peekFirst() {
+            return head.next == head ? null : head.next;
+        }
+
+        Node peekLast() {
+            return head.prev == head ? null : head.prev;
+        }
+
+        Node pollFirst() {
+            Node first = peekFirst();
+            if (first != null) {
+                remove(first);
+            }
+            return first;
+        }
+    }
+
+    /**
+     * Single-level hashed timing wheel. A node sits in the slot of its deadline tick;
+     * deadlines further out than one revolution simply stay put and are re-checked
+     * each time the wheel passes, which keeps insert and cancel O(1).
+     */
+    private static final class ExpiryWheel {
+        private static final int SLOTS = 4096;
+
+        private final Node[] slots = new Node[SLOTS];
+        private final long tickMs;
+        private long currentTick;
+
+        ExpiryWheel(long tickMs, long now) {
+            this.tickMs = tickMs;
+            this.currentTick = now / tickMs;
+            for (int i = 0; i < SLOTS; i++) {
+                Node sentinel = new Node(null, null, 0);
+                sentinel.wheelPrev = sentinel;
+                sentinel.wheelNext = sentinel;
+                slots[i] = sentinel;
+            }
+        }
+
+        void schedule(Node node) {
+            cancel(node);
+            if (node.expiresAt == NEVER) {
+                return;
+            }
+            // Round up so the slot is reached only once the deadline has passed, and never
+            // schedule into a slot the wheel has already passed
+            long tick = Math.max((node.expiresAt + tickMs - 1) / tickMs, currentTick + 1);
+            Node sentinel = slots[(int) (tick & (SLOTS - 1))];
+            node.wheelPrev = sentinel.wheelPrev;
+            node.wheelNext = sentinel;
+            sentinel.wheelPrev.wheelNext = node;
+            sentinel.wheelPrev = node;
+        }
+
+        void cancel(Node node) {
+            if (node.wheelPrev == null) {
+                return;
+            }
+            node.wheelPrev.wheelNext = node.wheelNext;
+            node.wheelNext.wheelPrev = node.wheelPrev;
+            node.wheelPrev = null;
+            node.wheelNext = null;
+        }
+
+        void advance(long now, java.util.function.Consumer<Node> onExpired) {
+            long targetTick = now / tickMs;
+            if (targetTick <= currentTick) {
+                return;
+            }
+            // After a long idle period one full revolution covers every slot
+            long steps = Math.min(targetTick - currentTick, SLOTS);
+            for (long i = 1; i <= steps; i++) {
+                Node sentinel = slots[(int) ((currentTick + i) & (SLOTS - 1))];
+                Node node = sentinel.wheelNext;
+                while (node != sentinel) {
+                    Node next = node.wheelNext;
+                    if (node.expiresAt <= now) {
+                        cancel(node);
+                        onExpired.accept(node);
+                    }
+                    node = next;
+                }
+            }
+            currentTick = targetTick;
+        }
+    }
+
+    public static class Builder {
+        private long maximumSize = 100_000;
+        private Duration refreshTokenLifetime = Duration.ofDays(14);
+        private Duration defaultTtl = Duration.ofHours(1);
+        private long wheelTickMs = 1000;
+        private LongSupplier clock = System::currentTimeMillis;
+        private SessionEvictionListener listener;
+
+        public Builder maximumSize(long maximumSize) {
+            this.maximumSize = maximumSize;
+            return this;
+        }
+
+        /**
+         * Assumed refresh token lifetime when the server doesn't send {@code refresh_expires_in}.
+         */
+        public Builder refreshTokenLifetime(Duration refreshTokenLifetime) {
+            this.refreshTokenLifetime = refreshTokenLifetime;
+            return this;
+        }
+
+        /**
+         * Lifetime of sessions for which no expiry is known at all. Zero keeps them until evicted.
+         */
+        public Builder defaultTtl(Duration defaultTtl) {
+            this.defaultTtl = defaultTtl;
+            return this;
+        }
+
+        /**
+         * Expiry resolution. Sessions are dropped at most one tick after their deadline.
+         */
+        public Builder expiryResolution(Duration resolution) {
+            this.wheelTickMs = resolution.toMillis();
+            return this;
+        }
+
+        public Builder evictionListener(SessionEvictionListener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        // Exposed for testing
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public BoundedSessionStore build() {
+            if (maximumSize <= 0) {
+                throw new IllegalArgumentException("Maximum size must be positive");
+            }
+            if (wheelTickMs <= 0) {
+                throw new IllegalArgumentException("Expiry resolution must be at least 1ms");
+            }
+            return new BoundedSessionStore(this);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.evoauth.session;
+
+import com.evoauth.security.TokenCipher;
+
+import java.nio.charset.StandardCharsets;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Decorator that keeps the access and refresh tokens of another {@link SessionStore}
+ * encrypted, so they don't appear in plaintext in heap dumps, off-heap slabs or
+ * session files. Each token is bound to its session ID as associated data.
+ */
+public class EncryptingSessionStore implements SessionStore {
+    private final SessionStore delegate;
+    private final TokenCipher cipher;
+
+    public EncryptingSessionStore(SessionStore delegate, TokenCipher cipher) {
+        this.delegate = delegate;
+        this.cipher = cipher;
+    }
+
+    @Override
+    public SessionSnapshot get(String sessionId) {
+        return decrypt(sessionId, delegate.get(sessionId));
+    }
+
+    @Override
+    public String getAccessToken(String sessionId) {
+        return cipher.decrypt(delegate.getAccessToken(sessionId), associatedData(sessionId));
+    }
+
+    @Override
+    public String getRefreshToken(String sessionId) {
+        return cipher.decrypt(delegate.getRefreshToken(sessionId), associatedData(sessionId));
+    }
+
+    @Override
+    public void put(String sessionId, SessionSnapshot session) {
+        delegate.put(sessionId, encrypt(sessionId, session));
+    }
+
+    @Override
+    public SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update) {
+        SessionSnapshot[] result = new SessionSnapshot[1];
+        delegate.compute(sessionId, stored -> {
+            SessionSnapshot current = decrypt(sessionId, stored);
+            result[0] = update.apply(current);
+            // Unchanged: keep the stored ciphertext rather than re-encrypting under a fresh IV
+            return result[0] == current ? stored : encrypt(sessionId, result[0]);
+        });
+        return result[0];
+    }
+
+    @Override
+    public SessionSnapshot remove(String sessionId) {
+        return decrypt(sessionId, delegate.remove(sessionId));
+    }
+
+    @Override
+    public long size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        delegate.forEach((id, session) -> action.accept(id, decrypt(id, session)));
+    }
+
+    private SessionSnapshot encrypt(String sessionId, SessionSnapshot session) {
+        if (session == null) {
+            return null;
+        }
+        byte[] aad = associatedData(sessionId);
+        return new SessionSnapshot(cipher.encrypt(session.getAccessToken(), aad),
+                cipher.encrypt(session.getRefreshToken(), aad), session.getUser(),
+                session.getAccessTokenExpiresAt(), session.getRefreshTokenExpiresAt());
+    }
+
+    private SessionSnapshot decrypt(String sessionId, SessionSnapshot session) {
+        if (session == null) {
+            return null;
+        }
+        byte[] aad = associatedData(sessionId);
+        return new SessionSnapshot(cipher.decrypt(session.getAccessToken(), aad),
+                cipher.decrypt(session.getRefreshToken(), aad), session.getUser(),
+                session.getAccessTokenExpiresAt(), session.getRefreshTokenExpiresAt());
+    }
+
+    private static byte[] associatedData(String sessionId) {
+        return sessionId.getBytes(StandardCharsets.UTF_8);
+    }
+}
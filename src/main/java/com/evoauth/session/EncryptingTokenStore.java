@@ -0,0 +1,63 @@
+package com.evoauth.session;
+
+import com.evoauth.models.User;
+import com.evoauth.security.TokenCipher;
+
+/**
+ * Decorator that keeps the tokens of another {@link TokenStore} encrypted at rest.
+ * For keyed sessions use {@link EncryptingSessionStore}.
+ */
+public class EncryptingTokenStore implements TokenStore {
+    private final TokenStore delegate;
+    private final TokenCipher cipher;
+
+    public EncryptingTokenStore(TokenStore delegate, TokenCipher cipher) {
+        this.delegate = delegate;
+        this.cipher = cipher;
+    }
+
+    @Override
+    public void saveTokens(String accessToken, String refreshToken, User user) {
+        delegate.saveTokens(cipher.encrypt(accessToken), cipher.encrypt(refreshToken), user);
+    }
+
+    @Override
+    public void saveSession(SessionSnapshot session) {
+        delegate.saveSession(new SessionSnapshot(cipher.encrypt(session.getAccessToken()),
+                cipher.encrypt(session.getRefreshToken()), session.getUser(),
+                session.getAccessTokenExpiresAt(), session.getRefreshTokenExpiresAt()));
+    }
+
+    @Override
+    public String getAccessToken() {
+        return cipher.decrypt(delegate.getAccessToken());
+    }
+
+    @Override
+    public String getRefreshToken() {
+        return cipher.decrypt(delegate.getRefreshToken());
+    }
+
+    @Override
+    public User getUser() {
+        return delegate.getUser();
+    }
+
+    @Override
+    public SessionSnapshot getSession() {
+        SessionSnapshot session = delegate.getSession();
+        return new SessionSnapshot(cipher.decrypt(session.getAccessToken()),
+                cipher.decrypt(session.getRefreshToken()), session.getUser(),
+                session.getAccessTokenExpiresAt(), session.getRefreshTokenExpiresAt());
+    }
+
+    @Override
+    public void updateAccessToken(String accessToken) {
+        delegate.updateAccessToken(cipher.encrypt(accessToken));
+    }
+
+    @Override
+    public void clear() {
+        delegate.clear();
+    }
+}
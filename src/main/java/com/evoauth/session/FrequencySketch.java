@@ -0,0 +1,74 @@
+package com.evoauth.session;
+
+/**
+ * 4-bit Count-Min sketch estimating how often each key was seen recently, as used by
+ * TinyLFU admission. Counters are packed sixteen to a {@code long}; once the number
+ * of increments reaches ten times the capacity every counter is halved, so the
+ * estimate favours recent popularity. Not thread-safe.
+ */
+final class FrequencySketch {
+    private static final long RESET_MASK = 0x7777777777777777L;
+    private static final int[] SEEDS = { 0x97cb3127, 0xc2b2ae35, 0x85ebca6b, 0x27d4eb2f };
+
+    private final long[] table;
+    private final int tableMask;
+    private final int sampleSize;
+    private int additions;
+
+    FrequencySketch(long capacity) {
+        int counters = ceilingPowerOfTwo((int) Math.min(Math.max(capacity, 16), 1 << 28));
+        // Sixteen 4-bit counters per long
+        this.table = new long[Math.max(1, counters >>> 4) * 4];
+        this.tableMask = table.length - 1;
+        this.sampleSize = (int) Math.min(10L * capacity, Integer.MAX_VALUE);
+    }
+
+    int frequency(int hash) {
+        int frequency = Integer.MAX_VALUE;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int shift = offsetOf(hash, i);
+            frequency = Math.min(frequency, (int) ((table[index] >>> shift) & 0xfL));
+        }
+        return frequency;
+    }
+
+    void increment(int hash) {
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int shift = offsetOf(hash, i);
+            long mask = 0xfL << shift;
+            if ((table[index] & mask) != mask) {
+                table[index] += 1L << shift;
+                added = true;
+            }
+        }
+        if (added && ++additions >= sampleSize) {
+            reset();
+        }
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        additions >>>= 1;
+    }
+
+    private int indexOf(int hash, int row) {
+        int h = (hash ^ SEEDS[row]) * 0x9e3779b9;
+        h ^= h >>> 16;
+        return h & tableMask;
+    }
+
+    private static int offsetOf(int hash, int row) {
+        // Each row uses a different nibble of the chosen long
+        int h = hash * SEEDS[(row + 1) & 3];
+        return ((h >>> 28) & 0xf) << 2;
+    }
+
+    private static int ceilingPowerOfTwo(int x) {
+        return 1 << (32 - Integer.numberOfLeadingZeros(x - 1));
+    }
+}
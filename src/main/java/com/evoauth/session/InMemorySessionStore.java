@@ -0,0 +1,51 @@
+package com.evoauth.session;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Unbounded {@link SessionStore} backed by a {@link ConcurrentHashMap}. Updates to
+ * one session lock only that session's bin, so unrelated users never contend.
+ */
+public class InMemorySessionStore implements SessionStore {
+    private final ConcurrentHashMap<String, SessionSnapshot> sessions;
+
+    public InMemorySessionStore() {
+        this(1024);
+    }
+
+    public InMemorySessionStore(int initialCapacity) {
+        this.sessions = new ConcurrentHashMap<>(initialCapacity);
+    }
+
+    @Override
+    public SessionSnapshot get(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    @Override
+    public void put(String sessionId, SessionSnapshot session) {
+        sessions.put(sessionId, session);
+    }
+
+    @Override
+    public SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update) {
+        return sessions.compute(sessionId, (id, current) -> update.apply(current));
+    }
+
+    @Override
+    public SessionSnapshot remove(String sessionId) {
+        return sessions.remove(sessionId);
+    }
+
+    @Override
+    public long size() {
+        return sessions.mappingCount();
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        sessions.forEach(action);
+    }
+}
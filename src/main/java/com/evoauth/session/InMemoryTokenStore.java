@@ -2,37 +2,62 @@ package com.evoauth.session;
 
 import com.evoauth.models.User;
 
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Thread-safe single-session store. The session is one immutable
+ * {@link SessionSnapshot} behind an {@link AtomicReference}: every read is a single
+ * volatile load, and updates swap the whole snapshot so readers never see a torn mix
+ * of old and new values.
+ */
 public class InMemoryTokenStore implements TokenStore {
-    private String accessToken;
-    private String refreshToken;
-    private User user;
+    private final AtomicReference<SessionSnapshot> session = new AtomicReference<>(SessionSnapshot.EMPTY);
 
     @Override
     public void saveTokens(String accessToken, String refreshToken, User user) {
-        this.accessToken = accessToken;
-        this.refreshToken = refreshToken;
-        this.user = user;
+        session.set(new SessionSnapshot(accessToken, refreshToken, user));
+    }
+
+    @Override
+    public void saveSession(SessionSnapshot session) {
+        this.session.set(session);
     }
 
     @Override
     public String getAccessToken() {
-        return accessToken;
+        return session.get().getAccessToken();
     }
 
     @Override
     public String getRefreshToken() {
-        return refreshToken;
+        return session.get().getRefreshToken();
     }
 
     @Override
     public User getUser() {
-        return user;
+        return session.get().getUser();
+    }
+
+    @Override
+    public SessionSnapshot getSession() {
+        return session.get();
+    }
+
+    @Override
+    public void updateAccessToken(String accessToken) {
+        session.updateAndGet(current -> current.withAccessToken(accessToken));
+    }
+
+    /**
+     * Replaces the session only if it is still {@code expected}, e.g. so a late
+     * refresh result can't overwrite a newer login.
+     */
+    public boolean compareAndSet(SessionSnapshot expected, SessionSnapshot next) {
+        return session.compareAndSet(expected, next);
     }
 
     @Override
     public void clear() {
-        this.accessToken = null;
-        this.refreshToken = null;
-        this.user = null;
+        session.set(SessionSnapshot.EMPTY);
     }
 }
@@ -0,0 +1,573 @@
+package com.evoauth.session;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link SessionStore} that keeps sessions outside the Java heap, so millions of them
+ * add almost nothing to old-gen or to GC pause times.
+ * <p>
+ * Each session is serialized into one block of a direct {@link ByteBuffer} slab: the
+ * session ID, both expiry times, both tokens and a compact encoding of the user.
+ * Blocks come in power-of-two size classes with a free list per class, and slabs
+ * released by {@link #clear()} go back to a shared pool, so steady-state churn
+ * reuses memory instead of allocating it. An open-addressing index of primitive
+ * arrays maps session IDs to blocks, costing a few dozen heap bytes per session.
+ * <p>
+ * Nothing is decoded until it is asked for: {@link #getAccessToken} reads only the
+ * access token, and {@link #get} builds a {@link SessionSnapshot} on each call.
+ * Sessions past their {@link SessionSnapshot#getExpiresAt() expiry} read as absent
+ * and are left out of {@link #size()}. A write to a segment frees the blocks of its
+ * expired sessions if a minute has passed since that segment was last swept;
+ * {@link #purgeExpired()} frees them all at once.
+ * <p>
+ * The store is split into segments, each guarded by its own read-write lock.
+ */
+public class OffHeapSessionStore implements SessionStore {
+    private static final int MIN_BLOCK_SHIFT = 6;   // 64 bytes
+    private static final int MAX_BLOCK_SHIFT = 16;  // 64 KiB
+    private static final int SIZE_CLASSES = MAX_BLOCK_SHIFT - MIN_BLOCK_SHIFT + 1;
+    private static final long EMPTY = 0;
+    private static final long SWEEP_INTERVAL_MS = 60_000;
+
+    private final Segment[] segments;
+    private final int segmentMask;
+    private final int slabSize;
+    private final LongSupplier clock;
+
+    public OffHeapSessionStore() {
+        this(new Builder());
+    }
+
+    private OffHeapSessionStore(Builder builder) {
+        this.slabSize = builder.slabSize;
+        this.clock = builder.clock;
+        this.segments = new Segment[builder.segments];
+        this.segmentMask = segments.length - 1;
+        int perSegment = Math.max(16, builder.expectedSessions / segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            segments[i] = new Segment(perSegment);
+        }
+    }
+
+    @Override
+    public SessionSnapshot get(String sessionId) {
+        byte[] key = encodeKey(sessionId);
+        int hash = hash(sessionId);
+        Segment segment = segmentFor(hash);
+        segment.lock.readLock().lock();
+        try {
+            long address = segment.find(hash, key);
+            if (address == EMPTY || segment.isExpired(address, clock.getAsLong())) {
+                return null;
+            }
+            return segment.decode(address);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public String getAccessToken(String sessionId) {
+        return readToken(sessionId, false);
+    }
+
+    @Override
+    public String getRefreshToken(String sessionId) {
+        return readToken(sessionId, true);
+    }
+
+    private String readToken(String sessionId, boolean refresh) {
+        byte[] key = encodeKey(sessionId);
+        int hash = hash(sessionId);
+        Segment segment = segmentFor(hash);
+        segment.lock.readLock().lock();
+        try {
+            long address = segment.find(hash, key);
+            if (address == EMPTY || segment.isExpired(address, clock.getAsLong())) {
+                return null;
+            }
+            return segment.readToken(address, refresh);
+        } finally {
+            segment.lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(String sessionId, SessionSnapshot session) {
+        compute(sessionId, current -> session);
+    }
+
+    @Override
+    public SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update) {
+        byte[] key = encodeKey(sessionId);
+        int hash = hash(sessionId);
+        Segment segment = segmentFor(hash);
+        segment.lock.writeLock().lock();
+        try {
+            long now = clock.getAsLong();
+            if (now - segment.lastSweep >= SWEEP_INTERVAL_MS) {
+                segment.purgeExpired(now);
+                segment.lastSweep = now;
+            }
+            int slot = segment.findSlot(hash, key);
+            long address = slot >= 0 ? segment.addresses[slot] : EMPTY;
+            SessionSnapshot current = null;
+            if (address != EMPTY && !segment.isExpired(address, now)) {
+                current = segment.decode(address);
+            }
+
+            SessionSnapshot result = update.apply(current);
+            if (result != null && result == current) {
+                return result;
+            }
+            if (result == null) {
+                if (address != EMPTY) {
+                    segment.removeAt(slot);
+                }
+            } else {
+                segment.write(slot, hash, key, result);
+            }
+            return result;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public SessionSnapshot remove(String sessionId) {
+        byte[] key = encodeKey(sessionId);
+        int hash = hash(sessionId);
+        Segment segment = segmentFor(hash);
+        segment.lock.writeLock().lock();
+        try {
+            int slot = segment.findSlot(hash, key);
+            if (slot < 0) {
+                return null;
+            }
+            long address = segment.addresses[slot];
+            SessionSnapshot removed = segment.isExpired(address, clock.getAsLong()) ? null : segment.decode(address);
+            segment.removeAt(slot);
+            return removed;
+        } finally {
+            segment.lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Sessions that haven't expired. Reads every block's expiry, so this is linear in
+     * the number of stored sessions.
+     */
+    @Override
+    public long size() {
+        long now = clock.getAsLong();
+        long size = 0;
+        for (Segment segment : segments) {
+            segment.lock.readLock().lock();
+            try {
+                for (long address : segment.addresses) {
+                    if (address != EMPTY && !segment.isExpired(address, now)) {
+                        size++;
+                    }
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        long now = clock.getAsLong();
+        for (Segment segment : segments) {
+            // Decode under the lock, call back outside it so the action may write to the store
+            List<String> ids = new ArrayList<>();
+            List<SessionSnapshot> sessions = new ArrayList<>();
+            segment.lock.readLock().lock();
+            try {
+                for (long address : segment.addresses) {
+                    if (address != EMPTY && !segment.isExpired(address, now)) {
+                        ids.add(segment.readKey(address));
+                        sessions.add(segment.decode(address));
+                    }
+                }
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+            for (int i = 0; i < ids.size(); i++) {
+                action.accept(ids.get(i), sessions.get(i));
+            }
+        }
+    }
+
+    /**
+     * Frees the blocks of every expired session. Returns how many were removed.
+     */
+    public int purgeExpired() {
+        long now = clock.getAsLong();
+        int purged = 0;
+        for (Segment segment : segments) {
+            segment.lock.writeLock().lock();
+            try {
+                purged += segment.purgeExpired(now);
+                segment.lastSweep = now;
+            } finally {
+                segment.lock.writeLock().unlock();
+            }
+        }
+        return purged;
+    }
+
+    /**
+     * Removes every session and returns all slabs to the free pool for reuse.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.lock.writeLock().lock();
+            try {
+                segment.clear();
+            } finally {
+                segment.lock.writeLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Direct memory held by slabs, including free blocks.
+     */
+    public long offHeapBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            segment.lock.readLock().lock();
+            try {
+                bytes += (long) segment.slabs.size() * slabSize;
+            } finally {
+                segment.lock.readLock().unlock();
+            }
+        }
+        return bytes;
+    }
+
+    private Segment segmentFor(int hash) {
+        return segments[(hash >>> 24) & segmentMask];
+    }
+
+    private static int hash(String sessionId) {
+        int h = sessionId.hashCode();
+        return h ^ (h >>> 16);
+    }
+
+    private static byte[] encodeKey(String sessionId) {
+        return sessionId.getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int sizeClass(int length) {
+        int shift = Math.max(MIN_BLOCK_SHIFT, 32 - Integer.numberOfLeadingZeros(length - 1));
+        if (shift > MAX_BLOCK_SHIFT) {
+            throw new IllegalArgumentException("Session of " + length + " bytes exceeds the off-heap block limit");
+        }
+        return shift - MIN_BLOCK_SHIFT;
+    }
+
+    private static long address(int slab, int offset) {
+        return ((long) (slab + 1) << 32) | (offset & 0xffffffffL);
+    }
+
+    private static int slabOf(long address) {
+        return (int) (address >>> 32) - 1;
+    }
+
+    private static int offsetOf(long address) {
+        return (int) address;
+    }
+
+    /**
+     * One lock's worth of index and slabs.
+     */
+    private final class Segment {
+        final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+        // Open-addressing index with linear probing; addresses[i] == EMPTY marks a free slot
+        int[] hashes;
+        long[] addresses;
+        volatile int count;
+        long lastSweep;
+
+        final List<ByteBuffer> slabs = new ArrayList<>();
+        int[] slabClass = new int[16];
+        int[] freeSlabs = new int[16];
+        int freeSlabCount;
+        final long[][] freeBlocks = new long[SIZE_CLASSES][];
+        final int[] freeBlockCount = new int[SIZE_CLASSES];
+        // Slab currently being carved for each class and the next unused offset in it
+        final int[] carveSlab = new int[SIZE_CLASSES];
+        final int[] carveOffset = new int[SIZE_CLASSES];
+
+        Segment(int expected) {
+            int capacity = Integer.highestOneBit(Math.max(16, (int) (expected / 0.6f)) * 2 - 1);
+            this.hashes = new int[capacity];
+            this.addresses = new long[capacity];
+            for (int i = 0; i < SIZE_CLASSES; i++) {
+                freeBlocks[i] = new long[16];
+            }
+            Arrays.fill(carveSlab, -1);
+        }
+
+        long find(int hash, byte[] key) {
+            int slot = findSlot(hash, key);
+            return slot >= 0 ? addresses[slot] : EMPTY;
+        }
+
+        /**
+         * Index slot holding {@code key}, or {@code -(insertion slot) - 1}.
+         */
+        int findSlot(int hash, byte[] key) {
+            int mask = addresses.length - 1;
+            for (int slot = hash & mask; ; slot = (slot + 1) & mask) {
+                long address = addresses[slot];
+                if (address == EMPTY) {
+                    return -slot - 1;
+                }
+                if (hashes[slot] == hash && keyEquals(address, key)) {
+                    return slot;
+                }
+            }
+        }
+
+        private boolean keyEquals(long address, byte[] key) {
+            ByteBuffer slab = slabs.get(slabOf(address));
+            int offset = offsetOf(address);
+            if (slab.getShort(offset) != key.length) {
+                return false;
+            }
+            offset += 2;
+            for (int i = 0; i < key.length; i++) {
+                if (slab.get(offset + i) != key[i]) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        void write(int slot, int hash, byte[] key, SessionSnapshot session) {
+            SessionRecord.Writer record = new SessionRecord.Writer(key, session);
+            int sizeClass = sizeClass(record.length);
+
+            long address;
+            if (slot >= 0) {
+                long existing = addresses[slot];
+                if (blockClass(existing) == sizeClass) {
+                    // Same size class: overwrite in place
+                    address = existing;
+                } else {
+                    free(existing);
+                    address = allocate(sizeClass);
+                }
+            } else {
+                address = allocate(sizeClass);
+                slot = -slot - 1;
+                count++;
+            }
+
+            record.writeTo(slabs.get(slabOf(address)), offsetOf(address));
+            hashes[slot] = hash;
+            addresses[slot] = address;
+            if (count > addresses.length * 0.6) {
+                resize();
+            }
+        }
+
+        int purgeExpired(long now) {
+            int purged = 0;
+            for (int slot = 0; slot < addresses.length; slot++) {
+                // Backward-shift deletion may move a later entry into this slot
+                while (addresses[slot] != EMPTY && isExpired(addresses[slot], now)) {
+                    removeAt(slot);
+                    purged++;
+                }
+            }
+            return purged;
+        }
+
+        void removeAt(int slot) {
+            free(addresses[slot]);
+            count--;
+
+            // Backward-shift deletion keeps probe sequences intact without tombstones
+            int mask = addresses.length - 1;
+            int hole = slot;
+            for (int next = (hole + 1) & mask; addresses[next] != EMPTY; next = (next + 1) & mask) {
+                int home = hashes[next] & mask;
+                boolean movable = hole <= next
+                        ? home <= hole || home > next
+                        : home <= hole && home > next;
+                if (movable) {
+                    hashes[hole] = hashes[next];
+                    addresses[hole] = addresses[next];
+                    hole = next;
+                }
+            }
+            addresses[hole] = EMPTY;
+            hashes[hole] = 0;
+        }
+
+        private void resize() {
+            int[] oldHashes = hashes;
+            long[] oldAddresses = addresses;
+            hashes = new int[oldHashes.length * 2];
+            addresses = new long[oldAddresses.length * 2];
+            int mask = addresses.length - 1;
+            for (int i = 0; i < oldAddresses.length; i++) {
+                if (oldAddresses[i] != EMPTY) {
+                    int slot = oldHashes[i] & mask;
+                    while (addresses[slot] != EMPTY) {
+                        slot = (slot + 1) & mask;
+                    }
+                    hashes[slot] = oldHashes[i];
+                    addresses[slot] = oldAddresses[i];
+                }
+            }
+        }
+
+        void clear() {
+            Arrays.fill(hashes, 0);
+            Arrays.fill(addresses, EMPTY);
+            count = 0;
+            if (freeSlabs.length < slabs.size()) {
+                freeSlabs = new int[slabs.size()];
+            }
+            for (int i = 0; i < slabs.size(); i++) {
+                freeSlabs[i] = i;
+            }
+            freeSlabCount = slabs.size();
+            Arrays.fill(freeBlockCount, 0);
+            Arrays.fill(carveSlab, -1);
+            Arrays.fill(carveOffset, 0);
+        }
+
+        private int blockClass(long address) {
+            return slabClass[slabOf(address)];
+        }
+
+        private long allocate(int sizeClass) {
+            int free = freeBlockCount[sizeClass];
+            if (free > 0) {
+                freeBlockCount[sizeClass] = free - 1;
+                return freeBlocks[sizeClass][free - 1];
+            }
+
+            int blockSize = 1 << (sizeClass + MIN_BLOCK_SHIFT);
+            int slab = carveSlab[sizeClass];
+            if (slab < 0 || carveOffset[sizeClass] + blockSize > slabSize) {
+                slab = takeSlab(sizeClass);
+                carveSlab[sizeClass] = slab;
+                carveOffset[sizeClass] = 0;
+            }
+            int offset = carveOffset[sizeClass];
+            carveOffset[sizeClass] = offset + blockSize;
+            return address(slab, offset);
+        }
+
+        private int takeSlab(int sizeClass) {
+            int slab;
+            if (freeSlabCount > 0) {
+                slab = freeSlabs[--freeSlabCount];
+            } else {
+                slab = slabs.size();
+                slabs.add(ByteBuffer.allocateDirect(slabSize));
+                if (slab == slabClass.length) {
+                    slabClass = Arrays.copyOf(slabClass, slab * 2);
+                }
+            }
+            slabClass[slab] = sizeClass;
+            return slab;
+        }
+
+        private void free(long address) {
+            int sizeClass = blockClass(address);
+            long[] stack = freeBlocks[sizeClass];
+            int free = freeBlockCount[sizeClass];
+            if (free == stack.length) {
+                stack = Arrays.copyOf(stack, free * 2);
+                freeBlocks[sizeClass] = stack;
+            }
+            stack[free] = address;
+            freeBlockCount[sizeClass] = free + 1;
+        }
+
+        boolean isExpired(long address, long now) {
+            long expiresAt = new SessionRecord.Reader(slabs.get(slabOf(address)), offsetOf(address)).expiresAt();
+            return expiresAt > 0 && expiresAt <= now;
+        }
+
+        String readKey(long address) {
+            return new SessionRecord.Reader(slabs.get(slabOf(address)), offsetOf(address)).readKey();
+        }
+
+        String readToken(long address, boolean refresh) {
+            return new SessionRecord.Reader(slabs.get(slabOf(address)), offsetOf(address)).readToken(refresh);
+        }
+
+        SessionSnapshot decode(long address) {
+            SessionRecord.Reader reader = new SessionRecord.Reader(slabs.get(slabOf(address)), offsetOf(address));
+            reader.skipKey();
+            return reader.readSession();
+        }
+    }
+
+    public static class Builder {
+        private int segments = 16;
+        private int slabSize = 256 * 1024;
+        private int expectedSessions = 1024;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        /**
+         * Number of independently locked segments; rounded up to a power of two.
+         */
+        public Builder segments(int segments) {
+            this.segments = segments;
+            return this;
+        }
+
+        /**
+         * Size of each direct buffer slab. Must hold at least one 64 KiB block.
+         */
+        public Builder slabSize(int slabSize) {
+            this.slabSize = slabSize;
+            return this;
+        }
+
+        /**
+         * Pre-sizes the index to avoid rehashing while the store fills.
+         */
+        public Builder expectedSessions(int expectedSessions) {
+            this.expectedSessions = expectedSessions;
+            return this;
+        }
+
+        // Exposed for testing
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        public OffHeapSessionStore build() {
+            if (segments <= 0 || segments > 256) {
+                throw new IllegalArgumentException("Segments must be between 1 and 256");
+            }
+            if (slabSize < (1 << MAX_BLOCK_SHIFT)) {
+                throw new IllegalArgumentException("Slab size must be at least " + (1 << MAX_BLOCK_SHIFT) + " bytes");
+            }
+            segments = Integer.highestOneBit(segments * 2 - 1);
+            return new OffHeapSessionStore(this);
+        }
+    }
+}
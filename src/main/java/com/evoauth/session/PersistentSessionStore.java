@@ -0,0 +1,602 @@
+package com.evoauth.session;
+
+import com.evoauth.exceptions.AuthSdkException;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.LongSupplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * {@link SessionStore} that survives restarts, so a redeploy doesn't log every user out
+ * and send them all back to the auth server at once.
+ * <p>
+ * Sessions are served from memory. Every write and removal is also appended to a
+ * memory-mapped log in {@link Builder#directory}; on startup the latest snapshot and
+ * the logs written after it are replayed to rebuild the sessions, skipping any that
+ * expired in the meantime. Expired sessions read as absent and are dropped from memory
+ * by a periodic sweep on the background thread, by compaction, or by
+ * {@link #purgeExpired()}.
+ * <p>
+ * <b>Compaction.</b> Once the log holds more than {@link Builder#compactionRatio} entries
+ * per live session, a background thread starts a new log for incoming writes and writes
+ * the live sessions to a new snapshot, then deletes the files it replaces. Writers are
+ * only paused for the switch itself. Startup cost therefore tracks the number of live
+ * sessions rather than the number of writes ever made.
+ * <p>
+ * <b>Durability.</b> {@link FsyncPolicy#ALWAYS} returns from a write only once it is on
+ * disk; concurrent writers are group-committed, so one fsync covers every entry appended
+ * while the previous one was running. {@link FsyncPolicy#INTERVAL} fsyncs in the
+ * background (a crash loses at most one interval), and {@link FsyncPolicy#NEVER} leaves
+ * it to the operating system.
+ */
+public class PersistentSessionStore implements SessionStore, AutoCloseable {
+    private static final String LOG_PREFIX = "sessions-";
+    private static final String LOG_SUFFIX = ".log";
+    private static final String SNAPSHOT_SUFFIX = ".snapshot";
+    private static final String TEMP_SUFFIX = ".tmp";
+    private static final long SWEEP_INTERVAL_MS = 60_000;
+
+    public enum FsyncPolicy {
+        /** Every write waits for an fsync, shared with concurrent writers. */
+        ALWAYS,
+        /** Writes are fsynced by the background thread every {@code fsyncInterval}. */
+        INTERVAL,
+        /** The operating system decides when to flush. */
+        NEVER
+    }
+
+    private final Path directory;
+    private final int regionSize;
+    private final FsyncPolicy fsyncPolicy;
+    private final double compactionRatio;
+    private final long minCompactionEntries;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<String, SessionSnapshot> sessions = new ConcurrentHashMap<>();
+
+    // Mutations hold the read side while they append and update the map; switching logs takes the write side
+    private final ReentrantReadWriteLock switchLock = new ReentrantReadWriteLock();
+    private final ReentrantLock appendLock = new ReentrantLock();
+
+    // Guarded by appendLock
+    private SessionLog log;
+    private long generation;
+    private long appendedSeq;
+    private long snapshotEntries;
+
+    // Guarded by syncMonitor
+    private final Object syncMonitor = new Object();
+    private long durableSeq;
+    private boolean syncing;
+
+    private final Thread background;
+    private volatile boolean closed;
+
+    private PersistentSessionStore(Builder builder) throws IOException {
+        this.directory = builder.directory;
+        this.regionSize = builder.regionSize;
+        this.fsyncPolicy = builder.fsyncPolicy;
+        this.compactionRatio = builder.compactionRatio;
+        this.minCompactionEntries = builder.minCompactionEntries;
+        this.clock = builder.clock;
+
+        Files.createDirectories(directory);
+        recover();
+
+        this.background = new Thread(() -> runBackground(builder.fsyncInterval.toMillis()), "evoauth-session-log");
+        background.setDaemon(true);
+        background.start();
+    }
+
+    @Override
+    public SessionSnapshot get(String sessionId) {
+        SessionSnapshot session = sessions.get(sessionId);
+        return session != null && !isExpired(session, clock.getAsLong()) ? session : null;
+    }
+
+    @Override
+    public void put(String sessionId, SessionSnapshot session) {
+        compute(sessionId, current -> session);
+    }
+
+    @Override
+    public SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update) {
+        long[] seq = new long[1];
+        SessionSnapshot result;
+        switchLock.readLock().lock();
+        try {
+            checkOpen();
+            long now = clock.getAsLong();
+            result = sessions.compute(sessionId, (id, stored) -> {
+                SessionSnapshot current = stored != null && !isExpired(stored, now) ? stored : null;
+                SessionSnapshot next = update.apply(current);
+                if (next != null && next == current) {
+                    return stored;
+                }
+                if (next != null) {
+                    seq[0] = append(id, next);
+                } else if (stored != null) {
+                    seq[0] = append(id, null);
+                }
+                return next;
+            });
+        } finally {
+            switchLock.readLock().unlock();
+        }
+        if (seq[0] > 0 && fsyncPolicy == FsyncPolicy.ALWAYS) {
+            awaitDurable(seq[0]);
+        }
+        return result;
+    }
+
+    @Override
+    public SessionSnapshot remove(String sessionId) {
+        SessionSnapshot[] removed = new SessionSnapshot[1];
+        compute(sessionId, current -> {
+            removed[0] = current;
+            return null;
+        });
+        return removed[0];
+    }
+
+    /**
+     * Number of sessions that have not expired.
+     */
+    @Override
+    public long size() {
+        long now = clock.getAsLong();
+        long live = 0;
+        for (SessionSnapshot session : sessions.values()) {
+            if (!isExpired(session, now)) {
+                live++;
+            }
+        }
+        return live;
+    }
+
+    /**
+     * Drops expired sessions from memory. Returns how many were removed.
+     * <p>
+     * No log entry is needed: replay skips expired sessions, and snapshots leave them out.
+     */
+    public int purgeExpired() {
+        long now = clock.getAsLong();
+        int purged = 0;
+        for (Map.Entry<String, SessionSnapshot> entry : sessions.entrySet()) {
+            // Conditional, so a session renewed concurrently is kept
+            if (isExpired(entry.getValue(), now) && sessions.remove(entry.getKey(), entry.getValue())) {
+                purged++;
+            }
+        }
+        return purged;
+    }
+
+    @Override
+    public void forEach(BiConsumer<String, SessionSnapshot> action) {
+        long now = clock.getAsLong();
+        sessions.forEach((id, session) -> {
+            if (!isExpired(session, now)) {
+                action.accept(id, session);
+            }
+        });
+    }
+
+    /**
+     * Compacts now rather than waiting for the log to grow past the threshold.
+     */
+    public void compact() {
+        try {
+            doCompact();
+        } catch (IOException e) {
+            throw new AuthSdkException("Failed to compact session log in " + directory, e);
+        }
+    }
+
+    /**
+     * Flushes every write made so far to disk, whatever the fsync policy.
+     */
+    public void flush() {
+        long seq;
+        appendLock.lock();
+        try {
+            seq = appendedSeq;
+        } finally {
+            appendLock.unlock();
+        }
+        awaitDurable(seq);
+    }
+
+    private long append(String sessionId, SessionSnapshot session) {
+        byte[] key = SessionLog.encodeKey(sessionId);
+        appendLock.lock();
+        try {
+            if (session != null) {
+                log.appendPut(key, session);
+            } else {
+                log.appendRemove(key);
+            }
+            return ++appendedSeq;
+        } catch (IOException e) {
+            throw new AuthSdkException("Failed to append to session log " + log.path(), e);
+        } finally {
+            appendLock.unlock();
+        }
+    }
+
+    /**
+     * Group commit: the first waiter fsyncs on behalf of everyone who appended before it
+     * started; the rest wait for that fsync instead of issuing their own.
+     */
+    private void awaitDurable(long seq) {
+        boolean interrupted = false;
+        try {
+            while (true) {
+                synchronized (syncMonitor) {
+                    while (durableSeq < seq && syncing) {
+                        try {
+                            syncMonitor.wait();
+                        } catch (InterruptedException e) {
+                            interrupted = true;
+                        }
+                    }
+                    if (durableSeq >= seq) {
+                        return;
+                    }
+                    syncing = true;
+                }
+                sync();
+            }
+        } finally {
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    /**
+     * Fsyncs the current region. Must be called with {@code syncing} claimed.
+     */
+    private void sync() {
+        long target;
+        MappedByteBuffer region;
+        appendLock.lock();
+        try {
+            target = appendedSeq;
+            region = log.currentRegion();
+        } finally {
+            appendLock.unlock();
+        }
+        boolean forced = false;
+        try {
+            region.force();
+            forced = true;
+        } finally {
+            synchronized (syncMonitor) {
+                syncing = false;
+                if (forced) {
+                    durableSeq = Math.max(durableSeq, target);
+                }
+                syncMonitor.notifyAll();
+            }
+        }
+    }
+
+    private void runBackground(long intervalMs) {
+        long lastSweep = clock.getAsLong();
+        while (!closed) {
+            try {
+                Thread.sleep(intervalMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            try {
+                if (fsyncPolicy == FsyncPolicy.INTERVAL) {
+                    flush();
+                }
+                if (needsCompaction()) {
+                    doCompact();
+                    lastSweep = clock.getAsLong();
+                } else if (clock.getAsLong() - lastSweep >= SWEEP_INTERVAL_MS) {
+                    purgeExpired();
+                    lastSweep = clock.getAsLong();
+                }
+            } catch (IOException | RuntimeException ignored) {
+                // Retried on the next interval; writes keep going to the current log
+            }
+        }
+    }
+
+    private boolean needsCompaction() {
+        long entries;
+        appendLock.lock();
+        try {
+            entries = snapshotEntries + log.records();
+        } finally {
+            appendLock.unlock();
+        }
+        return entries >= minCompactionEntries && entries > compactionRatio * Math.max(1, size());
+    }
+
+    private synchronized void doCompact() throws IOException {
+        long snapshotGeneration;
+        switchLock.writeLock().lock();
+        try {
+            checkOpen();
+            // Every write up to here is in the old log and the map; later ones go to the new log
+            appendLock.lock();
+            try {
+                log.force();
+                log.close();
+                snapshotGeneration = generation + 1;
+                SessionLog next = SessionLog.open(logPath(snapshotGeneration), regionSize);
+                next.replay(NO_OP);
+                log = next;
+                generation = snapshotGeneration;
+                synchronized (syncMonitor) {
+                    durableSeq = Math.max(durableSeq, appendedSeq);
+                }
+            } finally {
+                appendLock.unlock();
+            }
+        } finally {
+            switchLock.writeLock().unlock();
+        }
+
+        // Entries changed concurrently are also in the new log, which replays after the snapshot
+        Path temp = directory.resolve(LOG_PREFIX + snapshotGeneration + SNAPSHOT_SUFFIX + TEMP_SUFFIX);
+        Files.deleteIfExists(temp);
+        long now = clock.getAsLong();
+        long written = 0;
+        try (SessionLog snapshot = SessionLog.open(temp, regionSize)) {
+            for (Map.Entry<String, SessionSnapshot> entry : sessions.entrySet()) {
+                if (!isExpired(entry.getValue(), now)) {
+                    snapshot.appendPut(SessionLog.encodeKey(entry.getKey()), entry.getValue());
+                    written++;
+                } else {
+                    // Left out of the snapshot, so nothing on disk or in memory needs it any more
+                    sessions.remove(entry.getKey(), entry.getValue());
+                }
+            }
+            snapshot.force();
+        }
+        appendLock.lock();
+        try {
+            snapshotEntries = written;
+        } finally {
+            appendLock.unlock();
+        }
+        Files.move(temp, snapshotPath(snapshotGeneration), StandardCopyOption.ATOMIC_MOVE);
+        deleteGenerationsBefore(snapshotGeneration);
+    }
+
+    private void recover() throws IOException {
+        TreeMap<Long, Path> logs = new TreeMap<>();
+        long snapshotGeneration = -1;
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LOG_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(TEMP_SUFFIX)) {
+                    // Compaction interrupted by a crash; the logs it would replace are still there
+                    Files.delete(file);
+                } else if (name.endsWith(SNAPSHOT_SUFFIX)) {
+                    snapshotGeneration = Math.max(snapshotGeneration, generationOf(name, SNAPSHOT_SUFFIX));
+                } else if (name.endsWith(LOG_SUFFIX)) {
+                    logs.put(generationOf(name, LOG_SUFFIX), file);
+                }
+            }
+        }
+
+        long now = clock.getAsLong();
+        SessionLog.Visitor loader = new SessionLog.Visitor() {
+            @Override
+            public void put(String sessionId, SessionSnapshot session) {
+                if (isExpired(session, now)) {
+                    sessions.remove(sessionId);
+                } else {
+                    sessions.put(sessionId, session);
+                }
+            }
+
+            @Override
+            public void remove(String sessionId) {
+                sessions.remove(sessionId);
+            }
+        };
+
+        if (snapshotGeneration >= 0) {
+            try (SessionLog snapshot = SessionLog.open(snapshotPath(snapshotGeneration), regionSize)) {
+                snapshot.replay(loader);
+                snapshotEntries = snapshot.records();
+            }
+        }
+
+        generation = Math.max(0, snapshotGeneration);
+        List<Long> replayed = new ArrayList<>(logs.tailMap(generation, true).keySet());
+        for (int i = 0; i < replayed.size(); i++) {
+            SessionLog replaying = SessionLog.open(logs.get(replayed.get(i)), regionSize);
+            replaying.replay(loader);
+            if (i < replayed.size() - 1) {
+                snapshotEntries += replaying.records();
+                replaying.close();
+            } else {
+                log = replaying;
+                generation = replayed.get(i);
+            }
+        }
+        if (log == null) {
+            log = SessionLog.open(logPath(generation), regionSize);
+            log.replay(NO_OP);
+        }
+        if (snapshotGeneration >= 0) {
+            deleteGenerationsBefore(snapshotGeneration);
+        }
+    }
+
+    private void deleteGenerationsBefore(long keep) throws IOException {
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory, LOG_PREFIX + "*")) {
+            for (Path file : files) {
+                String name = file.getFileName().toString();
+                String suffix = name.endsWith(SNAPSHOT_SUFFIX) ? SNAPSHOT_SUFFIX
+                        : name.endsWith(LOG_SUFFIX) ? LOG_SUFFIX
+                        : null;
+                if (suffix != null && generationOf(name, suffix) < keep) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+    }
+
+    private Path logPath(long generation) {
+        return directory.resolve(LOG_PREFIX + generation + LOG_SUFFIX);
+    }
+
+    private Path snapshotPath(long generation) {
+        return directory.resolve(LOG_PREFIX + generation + SNAPSHOT_SUFFIX);
+    }
+
+    private static long generationOf(String name, String suffix) {
+        return Long.parseLong(name.substring(LOG_PREFIX.length(), name.length() - suffix.length()));
+    }
+
+    private static boolean isExpired(SessionSnapshot session, long now) {
+        long expiresAt = session.getExpiresAt();
+        return expiresAt > 0 && expiresAt <= now;
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new AuthSdkException("Session store is closed");
+        }
+    }
+
+    private static final SessionLog.Visitor NO_OP = new SessionLog.Visitor() {
+        @Override
+        public void put(String sessionId, SessionSnapshot session) {
+        }
+
+        @Override
+        public void remove(String sessionId) {
+        }
+    };
+
+    /**
+     * Flushes outstanding writes and releases the log. The sessions stay on disk.
+     */
+    @Override
+    public void close() {
+        background.interrupt();
+        switchLock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+            closed = true;
+            appendLock.lock();
+            try {
+                log.force();
+                log.close();
+            } finally {
+                appendLock.unlock();
+            }
+        } catch (IOException e) {
+            throw new AuthSdkException("Failed to close session log " + log.path(), e);
+        } finally {
+            switchLock.writeLock().unlock();
+        }
+    }
+
+    public static class Builder {
+        private Path directory;
+        private FsyncPolicy fsyncPolicy = FsyncPolicy.INTERVAL;
+        private Duration fsyncInterval = Duration.ofSeconds(1);
+        private int regionSize = 64 * 1024 * 1024;
+        private double compactionRatio = 2.0;
+        private long minCompactionEntries = 10_000;
+        private LongSupplier clock = System::currentTimeMillis;
+
+        public Builder directory(Path directory) {
+            this.directory = directory;
+            return this;
+        }
+
+        public Builder fsyncPolicy(FsyncPolicy fsyncPolicy) {
+            this.fsyncPolicy = fsyncPolicy;
+            return this;
+        }
+
+        /**
+         * How often the background thread fsyncs under {@link FsyncPolicy#INTERVAL} and
+         * checks whether to compact.
+         */
+        public Builder fsyncInterval(Duration fsyncInterval) {
+            this.fsyncInterval = fsyncInterval;
+            return this;
+        }
+
+        /**
+         * Size of each memory-mapped region of the log; also the largest possible session.
+         */
+        public Builder regionSize(int regionSize) {
+            this.regionSize = regionSize;
+            return this;
+        }
+
+        /**
+         * Compact once the log holds this many entries per live session.
+         */
+        public Builder compactionRatio(double compactionRatio) {
+            this.compactionRatio = compactionRatio;
+            return this;
+        }
+
+        /**
+         * Never compact logs smaller than this, however few sessions are live.
+         */
+        public Builder minCompactionEntries(long minCompactionEntries) {
+            this.minCompactionEntries = minCompactionEntries;
+            return this;
+        }
+
+        // Exposed for testing
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Opens the store, replaying whatever is already in the directory.
+         */
+        public PersistentSessionStore build() {
+            if (directory == null) {
+                throw new IllegalArgumentException("Directory is required");
+            }
+            if (regionSize < 4096) {
+                throw new IllegalArgumentException("Region size must be at least 4096 bytes");
+            }
+            if (compactionRatio <= 1) {
+                throw new IllegalArgumentException("Compaction ratio must be greater than 1");
+            }
+            if (fsyncInterval.toMillis() <= 0) {
+                throw new IllegalArgumentException("Fsync interval must be at least 1ms");
+            }
+            try {
+                return new PersistentSessionStore(this);
+            } catch (IOException e) {
+                throw new AuthSdkException("Failed to open session store in " + directory, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package com.evoauth.session;
+
+/**
+ * Notified when a bounded store drops a session on its own, as opposed to an
+ * explicit logout. Called after the store's lock is released.
+ */
+@FunctionalInterface
+public interface SessionEvictionListener {
+    enum Cause {
+        /** The session outlived its refresh token (or access token, if it has no refresh token). */
+        EXPIRED,
+        /** The store was full and the session lost the admission contest. */
+        SIZE
+    }
+
+    void onEviction(String sessionId, SessionSnapshot session, Cause cause);
+}
@@ -0,0 +1,196 @@
+package com.evoauth.session;
+
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only file of session writes and removals, memory-mapped in fixed-size regions.
+ * <p>
+ * Each entry is {@code [int length][int crc32c][byte type][body]}, where the body is a
+ * {@link SessionRecord} for a write or just the session ID for a removal. The length is
+ * written last, so an entry torn by a crash reads as either the end of the log or a
+ * checksum mismatch; replay stops there and later appends overwrite it. Entries never
+ * straddle regions: when one doesn't fit, a skip marker sends readers to the next region.
+ * <p>
+ * Not thread-safe; {@link PersistentSessionStore} serializes access.
+ */
+final class SessionLog implements AutoCloseable {
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    private static final int HEADER = 8;
+    private static final int SKIP = -1;
+
+    interface Visitor {
+        void put(String sessionId, SessionSnapshot session);
+
+        void remove(String sessionId);
+    }
+
+    private final Path path;
+    private final FileChannel channel;
+    private final int regionSize;
+    private final CRC32C crc = new CRC32C();
+
+    private MappedByteBuffer region;
+    private long regionIndex;
+    private int position;
+    private long records;
+
+    private SessionLog(Path path, int regionSize) throws IOException {
+        this.path = path;
+        this.regionSize = regionSize;
+        this.channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Opens or creates the log. Call {@link #replay} before appending to an existing log.
+     */
+    static SessionLog open(Path path, int regionSize) throws IOException {
+        SessionLog log = new SessionLog(path, regionSize);
+        log.region = log.map(0);
+        return log;
+    }
+
+    /**
+     * Feeds every intact entry to {@code visitor} in order and positions the log to
+     * append after the last one.
+     */
+    void replay(Visitor visitor) throws IOException {
+        long fileSize = channel.size();
+        records = 0;
+        for (regionIndex = 0; ; regionIndex++) {
+            if (regionIndex > 0) {
+                if (regionIndex * regionSize >= fileSize) {
+                    // Ran off the end right at a region boundary: append in a fresh region
+                    region = map(regionIndex);
+                    position = 0;
+                    return;
+                }
+                region = map(regionIndex);
+            }
+            position = 0;
+            while (regionSize - position >= HEADER) {
+                int length = region.getInt(position);
+                if (length == SKIP) {
+                    break;
+                }
+                if (length == 0) {
+                    return;
+                }
+                if (length < 0 || position + HEADER + length > regionSize
+                        || region.getInt(position + 4) != checksum(position + HEADER, length)) {
+                    // Torn entry from a crash: clear it so it can't be misread later
+                    int end = length > 0 ? Math.min(regionSize, position + HEADER + length) : position + HEADER;
+                    for (int i = position; i < end; i++) {
+                        region.put(i, (byte) 0);
+                    }
+                    return;
+                }
+                visit(visitor, position + HEADER);
+                records++;
+                position += HEADER + length;
+            }
+        }
+    }
+
+    private void visit(Visitor visitor, int offset) {
+        byte type = region.get(offset);
+        SessionRecord.Reader reader = new SessionRecord.Reader(region, offset + 1);
+        String sessionId = reader.readKey();
+        if (type == PUT) {
+            visitor.put(sessionId, reader.readSession());
+        } else {
+            visitor.remove(sessionId);
+        }
+    }
+
+    void appendPut(byte[] key, SessionSnapshot session) throws IOException {
+        SessionRecord.Writer writer = new SessionRecord.Writer(key, session);
+        int offset = reserve(1 + writer.length);
+        region.put(offset, PUT);
+        writer.writeTo(region, offset + 1);
+        commit(1 + writer.length);
+    }
+
+    void appendRemove(byte[] key) throws IOException {
+        int length = 1 + 2 + key.length;
+        int offset = reserve(length);
+        region.put(offset, REMOVE);
+        region.putShort(offset + 1, (short) key.length);
+        region.put(offset + 3, key);
+        commit(length);
+    }
+
+    private int reserve(int length) throws IOException {
+        if (HEADER + length > regionSize) {
+            throw new IllegalArgumentException("Session of " + length + " bytes exceeds the log region size");
+        }
+        if (position + HEADER + length > regionSize) {
+            if (regionSize - position >= 4) {
+                region.putInt(position, SKIP);
+            }
+            // Rolling over is rare; flushing here keeps force() to the current region
+            region.force();
+            regionIndex++;
+            region = map(regionIndex);
+            position = 0;
+        }
+        return position + HEADER;
+    }
+
+    private void commit(int length) {
+        region.putInt(position + 4, checksum(position + HEADER, length));
+        region.putInt(position, length);
+        position += HEADER + length;
+        records++;
+    }
+
+    private int checksum(int offset, int length) {
+        crc.reset();
+        crc.update(region.slice(offset, length));
+        return (int) crc.getValue();
+    }
+
+    /**
+     * Flushes appended entries to the storage device.
+     */
+    void force() {
+        region.force();
+    }
+
+    /**
+     * The region entries are currently appended to. Earlier regions were flushed when
+     * the log rolled over, so forcing this one makes everything appended so far durable;
+     * it may be done without holding the append lock.
+     */
+    MappedByteBuffer currentRegion() {
+        return region;
+    }
+
+    long records() {
+        return records;
+    }
+
+    Path path() {
+        return path;
+    }
+
+    private MappedByteBuffer map(long index) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_WRITE, index * regionSize, regionSize);
+    }
+
+    static byte[] encodeKey(String sessionId) {
+        return sessionId.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -1,10 +1,14 @@
 package com.evoauth.session;
 
+import com.evoauth.events.SessionEventBus;
+import com.evoauth.events.SessionEventType;
 import com.evoauth.models.AuthResponse;
 import com.evoauth.models.User;
 
 public class SessionManager {
     private final TokenStore tokenStore;
+    private volatile TokenRefreshScheduler refreshScheduler;
+    private volatile SessionEventBus eventBus;
 
     public SessionManager(TokenStore tokenStore) {
         this.tokenStore = tokenStore;
@@ -14,16 +18,81 @@ public class SessionManager {
         this(new InMemoryTokenStore());
     }
 
+    /**
+     * Enables proactive refresh: every started session schedules its own refresh
+     * ahead of the access token's expiry.
+     */
+    public void setRefreshScheduler(TokenRefreshScheduler refreshScheduler) {
+        this.refreshScheduler = refreshScheduler;
+    }
+
+    /**
+     * Publishes the session's lifecycle events to {@code eventBus}.
+     */
+    public void setEventBus(SessionEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
     public void startSession(AuthResponse response) {
-        tokenStore.saveTokens(response.getAccessToken(), response.getRefreshToken(), response.getUser());
+        saveSession(response, response.getUser());
+        publish(SessionEventType.LOGIN, response.getUser());
+    }
+
+    /**
+     * Replaces the tokens with the result of a refresh, keeping the current {@code User}
+     * instance if the profile is unchanged.
+     */
+    public void refreshSession(AuthResponse response) {
+        User user = User.reuse(tokenStore.getUser(), response.getUser());
+        saveSession(response, user);
+        publish(SessionEventType.REFRESH, user);
+    }
+
+    private void saveSession(AuthResponse response, User user) {
+        // Keep the deadlines so expiring stores behind forSession() get a TTL
+        SessionSnapshot fresh = SessionSnapshot.from(response, System.currentTimeMillis());
+        tokenStore.saveSession(new SessionSnapshot(fresh.getAccessToken(), fresh.getRefreshToken(), user,
+                fresh.getAccessTokenExpiresAt(), fresh.getRefreshTokenExpiresAt()));
+
+        TokenRefreshScheduler scheduler = refreshScheduler;
+        if (scheduler != null) {
+            scheduler.schedule(response.getExpiresIn());
+        }
     }
 
     public void updateAccessToken(String newAccessToken) {
         // Keeps the existing refresh token and user
-        tokenStore.saveTokens(newAccessToken, tokenStore.getRefreshToken(), tokenStore.getUser());
+        tokenStore.updateAccessToken(newAccessToken);
+        publish(SessionEventType.REFRESH, tokenStore.getUser());
     }
 
     public void endSession() {
+        User user = tokenStore.getUser();
+        clear();
+        publish(SessionEventType.LOGOUT, user);
+    }
+
+    /**
+     * Ends the session because the server rejected its refresh token.
+     */
+    public void expireSession() {
+        User user = tokenStore.getUser();
+        clear();
+        publish(SessionEventType.EXPIRED, user);
+    }
+
+    /**
+     * Records that the user completed 2FA verification.
+     */
+    public void mfaEnrolled() {
+        publish(SessionEventType.MFA_ENROLLED, tokenStore.getUser());
+    }
+
+    private void clear() {
+        TokenRefreshScheduler scheduler = refreshScheduler;
+        if (scheduler != null) {
+            scheduler.cancel();
+        }
         tokenStore.clear();
     }
 
@@ -35,6 +104,22 @@ public class SessionManager {
         return tokenStore.getRefreshToken();
     }
 
+    /**
+     * Epoch millis at which the current access token expires, or 0 if the server didn't
+     * say or the token was replaced through {@link #updateAccessToken}. Read from the
+     * store, so it always matches the stored session.
+     */
+    public long getAccessTokenExpiresAt() {
+        return tokenStore.getSession().getAccessTokenExpiresAt();
+    }
+
+    /**
+     * Tokens and user read together, for callers that need a consistent view.
+     */
+    public SessionSnapshot getSession() {
+        return tokenStore.getSession();
+    }
+
     public User getCurrentUser() {
         return tokenStore.getUser();
     }
@@ -42,4 +127,11 @@ public class SessionManager {
     public boolean isAuthenticated() {
         return getAccessToken() != null;
     }
+
+    private void publish(SessionEventType type, User user) {
+        SessionEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publish(type, null, user != null ? user.getId() : null);
+        }
+    }
 }
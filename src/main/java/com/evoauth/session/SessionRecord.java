@@ -0,0 +1,220 @@
+package com.evoauth.session;
+
+import com.evoauth.models.User;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Binary encoding of one session, shared by the stores that keep sessions outside
+ * the heap or on disk.
+ */
+final class SessionRecord {
+    static final int NULL_LENGTH = -1;
+    static final int EXPIRY_BYTES = 16;
+
+    private SessionRecord() {
+    }
+
+    /**
+     * Serializes one session. Layout: key (short length), access and refresh expiry,
+     * access and refresh token (int length, -1 for null), then the user: a presence
+     * byte, id, email, first and last name, roles (short count, -1 for null), MFA flag.
+     */
+    static final class Writer {
+        final byte[] key;
+        final long accessExpiresAt;
+        final long refreshExpiresAt;
+        final byte[][] strings;
+        final byte[][] roles;
+        final boolean hasUser;
+        final boolean mfaEnabled;
+        final int length;
+
+        Writer(byte[] key, SessionSnapshot session) {
+            this.key = key;
+            this.accessExpiresAt = session.getAccessTokenExpiresAt();
+            this.refreshExpiresAt = session.getRefreshTokenExpiresAt();
+            User user = session.getUser();
+            this.hasUser = user != null;
+            this.mfaEnabled = hasUser && user.isMfaEnabled();
+            this.strings = new byte[][] {
+                    bytes(session.getAccessToken()),
+                    bytes(session.getRefreshToken()),
+                    hasUser ? bytes(user.getId()) : null,
+                    hasUser ? bytes(user.getEmail()) : null,
+                    hasUser ? bytes(user.getFirstName()) : null,
+                    hasUser ? bytes(user.getLastName()) : null,
+            };
+            List<String> userRoles = hasUser ? user.getRoles() : null;
+            if (userRoles != null) {
+                roles = new byte[userRoles.size()][];
+                for (int i = 0; i < roles.length; i++) {
+                    roles[i] = bytes(userRoles.get(i));
+                }
+            } else {
+                roles = null;
+            }
+
+            int size = 2 + key.length + EXPIRY_BYTES + sizeOf(strings[0]) + sizeOf(strings[1]) + 1;
+            if (hasUser) {
+                for (int i = 2; i < strings.length; i++) {
+                    size += sizeOf(strings[i]);
+                }
+                size += 2 + 1;
+                if (roles != null) {
+                    for (byte[] role : roles) {
+                        size += sizeOf(role);
+                    }
+                }
+            }
+            this.length = size;
+        }
+
+        void writeTo(ByteBuffer buffer, int offset) {
+            buffer.putShort(offset, (short) key.length);
+            buffer.put(offset + 2, key);
+            offset += 2 + key.length;
+            buffer.putLong(offset, accessExpiresAt);
+            buffer.putLong(offset + 8, refreshExpiresAt);
+            offset += EXPIRY_BYTES;
+            offset = putString(buffer, offset, strings[0]);
+            offset = putString(buffer, offset, strings[1]);
+            buffer.put(offset++, (byte) (hasUser ? 1 : 0));
+            if (!hasUser) {
+                return;
+            }
+            for (int i = 2; i < strings.length; i++) {
+                offset = putString(buffer, offset, strings[i]);
+            }
+            buffer.putShort(offset, (short) (roles == null ? NULL_LENGTH : roles.length));
+            offset += 2;
+            if (roles != null) {
+                for (byte[] role : roles) {
+                    offset = putString(buffer, offset, role);
+                }
+            }
+            buffer.put(offset, (byte) (mfaEnabled ? 1 : 0));
+        }
+
+        private static int putString(ByteBuffer buffer, int offset, byte[] value) {
+            if (value == null) {
+                buffer.putInt(offset, NULL_LENGTH);
+                return offset + 4;
+            }
+            buffer.putInt(offset, value.length);
+            buffer.put(offset + 4, value);
+            return offset + 4 + value.length;
+        }
+
+        private static byte[] bytes(String value) {
+            return value != null ? value.getBytes(StandardCharsets.UTF_8) : null;
+        }
+
+        private static int sizeOf(byte[] value) {
+            return 4 + (value != null ? value.length : 0);
+        }
+    }
+
+    static final class Reader {
+        final ByteBuffer buffer;
+        int offset;
+
+        Reader(ByteBuffer buffer, int offset) {
+            this.buffer = buffer;
+            this.offset = offset;
+        }
+
+        String readKey() {
+            int length = buffer.getShort(offset);
+            byte[] bytes = new byte[length];
+            buffer.get(offset + 2, bytes);
+            offset += 2 + length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        /**
+         * {@link SessionSnapshot#getExpiresAt()} of the record, read without decoding it.
+         */
+        long expiresAt() {
+            int start = offset;
+            skipKey();
+            long accessExpiresAt = readLong();
+            long refreshExpiresAt = readLong();
+            skipString();
+            boolean hasRefreshToken = buffer.getInt(offset) != NULL_LENGTH;
+            offset = start;
+            return hasRefreshToken ? refreshExpiresAt : accessExpiresAt;
+        }
+
+        String readToken(boolean refresh) {
+            skipKey();
+            offset += EXPIRY_BYTES;
+            if (refresh) {
+                skipString();
+            }
+            return readString();
+        }
+
+        /**
+         * Decodes everything after the key.
+         */
+        SessionSnapshot readSession() {
+            long accessExpiresAt = readLong();
+            long refreshExpiresAt = readLong();
+            String accessToken = readString();
+            String refreshToken = readString();
+            User user = readUser();
+            return new SessionSnapshot(accessToken, refreshToken, user, accessExpiresAt, refreshExpiresAt);
+        }
+
+        void skipKey() {
+            offset += 2 + buffer.getShort(offset);
+        }
+
+        long readLong() {
+            long value = buffer.getLong(offset);
+            offset += 8;
+            return value;
+        }
+
+        void skipString() {
+            offset += 4 + Math.max(0, buffer.getInt(offset));
+        }
+
+        String readString() {
+            int length = buffer.getInt(offset);
+            offset += 4;
+            if (length == NULL_LENGTH) {
+                return null;
+            }
+            byte[] bytes = new byte[length];
+            buffer.get(offset, bytes);
+            offset += length;
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+
+        User readUser() {
+            if (buffer.get(offset++) == 0) {
+                return null;
+            }
+            User user = new User();
+            user.setId(readString());
+            user.setEmail(readString());
+            user.setFirstName(readString());
+            user.setLastName(readString());
+            int roleCount = buffer.getShort(offset);
+            offset += 2;
+            if (roleCount != NULL_LENGTH) {
+                String[] roles = new String[roleCount];
+                for (int i = 0; i < roleCount; i++) {
+                    roles[i] = readString();
+                }
+                user.setRoles(List.of(roles));
+            }
+            user.setMfaEnabled(buffer.get(offset) != 0);
+            return user;
+        }
+    }
+}
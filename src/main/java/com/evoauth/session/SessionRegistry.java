@@ -0,0 +1,200 @@
+package com.evoauth.session;
+
+import com.evoauth.events.SessionEventBus;
+import com.evoauth.events.SessionEventType;
+import com.evoauth.models.AuthResponse;
+import com.evoauth.models.User;
+
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Holds the sessions of many users, keyed by an application chosen session ID
+ * (typically the HTTP session ID).
+ * <p>
+ * All state lives in the {@link SessionStore}; the registry itself keeps nothing
+ * per session, so one {@code AuthClient} can serve any number of users. Updates that
+ * depend on the current value go through {@link SessionStore#compute} so they are
+ * atomic per session.
+ */
+public class SessionRegistry {
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    private final SessionStore store;
+    private volatile SessionTimerWheel timerWheel;
+    private volatile SessionEventBus eventBus;
+
+    public SessionRegistry() {
+        this(new InMemorySessionStore());
+    }
+
+    public SessionRegistry(SessionStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Tracks every session's refresh and expiry deadlines on {@code timerWheel}, whose
+     * listener is expected to refresh sessions and call {@link #expireSession}.
+     */
+    public void setTimerWheel(SessionTimerWheel timerWheel) {
+        this.timerWheel = timerWheel;
+    }
+
+    /**
+     * Publishes every session's lifecycle events to {@code eventBus}.
+     */
+    public void setEventBus(SessionEventBus eventBus) {
+        this.eventBus = eventBus;
+    }
+
+    /**
+     * Generates an unguessable 128-bit session ID.
+     */
+    public static String newSessionId() {
+        byte[] bytes = new byte[16];
+        RANDOM.nextBytes(bytes);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+    }
+
+    public void startSession(String sessionId, AuthResponse response) {
+        SessionSnapshot session = SessionSnapshot.from(response, System.currentTimeMillis());
+        store.put(sessionId, session);
+        track(sessionId, session);
+        publish(SessionEventType.LOGIN, sessionId, session.getUser());
+    }
+
+    /**
+     * Applies a refresh result, unless the session ended while the refresh was in flight.
+     */
+    public boolean applyRefresh(String sessionId, AuthResponse response) {
+        long now = System.currentTimeMillis();
+        SessionSnapshot updated = store.compute(sessionId,
+                current -> current == null ? null : current.refreshedWith(response, now));
+        if (updated == null) {
+            return false;
+        }
+        track(sessionId, updated);
+        publish(SessionEventType.REFRESH, sessionId, updated.getUser());
+        return true;
+    }
+
+    public void updateAccessToken(String sessionId, String accessToken) {
+        SessionSnapshot updated = store.compute(sessionId,
+                current -> current == null ? null : current.withAccessToken(accessToken));
+        if (updated != null) {
+            track(sessionId, updated);
+            publish(SessionEventType.REFRESH, sessionId, updated.getUser());
+        }
+    }
+
+    /**
+     * Ends the session only if it still holds {@code refreshToken}, so a failed refresh
+     * can't log out a session that has since been re-established.
+     */
+    public boolean endSessionIfRefreshToken(String sessionId, String refreshToken) {
+        SessionSnapshot[] removed = new SessionSnapshot[1];
+        store.compute(sessionId, current -> {
+            if (current != null && refreshToken.equals(current.getRefreshToken())) {
+                removed[0] = current;
+                return null;
+            }
+            return current;
+        });
+        if (removed[0] == null) {
+            return false;
+        }
+        untrack(sessionId);
+        publish(SessionEventType.EXPIRED, sessionId, removed[0].getUser());
+        return true;
+    }
+
+    public SessionSnapshot endSession(String sessionId) {
+        untrack(sessionId);
+        SessionSnapshot removed = store.remove(sessionId);
+        if (removed != null) {
+            publish(SessionEventType.LOGOUT, sessionId, removed.getUser());
+        }
+        return removed;
+    }
+
+    /**
+     * Ends the session if it has passed its {@link SessionSnapshot#getExpiresAt() expiry},
+     * leaving it alone if it was renewed in the meantime.
+     */
+    public boolean expireSession(String sessionId) {
+        long now = System.currentTimeMillis();
+        SessionSnapshot[] removed = new SessionSnapshot[1];
+        store.compute(sessionId, current -> {
+            if (current != null && current.getExpiresAt() > 0 && current.getExpiresAt() <= now) {
+                removed[0] = current;
+                return null;
+            }
+            return current;
+        });
+        if (removed[0] == null) {
+            return false;
+        }
+        publish(SessionEventType.EXPIRED, sessionId, removed[0].getUser());
+        return true;
+    }
+
+    /**
+     * Records that the session's user completed 2FA verification.
+     */
+    public void recordMfaEnrolled(String sessionId) {
+        publish(SessionEventType.MFA_ENROLLED, sessionId, getUser(sessionId));
+    }
+
+    /**
+     * Returns the session, or {@link SessionSnapshot#EMPTY} if there is none.
+     */
+    public SessionSnapshot getSession(String sessionId) {
+        SessionSnapshot session = store.get(sessionId);
+        return session != null ? session : SessionSnapshot.EMPTY;
+    }
+
+    public String getAccessToken(String sessionId) {
+        return store.getAccessToken(sessionId);
+    }
+
+    public String getRefreshToken(String sessionId) {
+        return store.getRefreshToken(sessionId);
+    }
+
+    public User getUser(String sessionId) {
+        return getSession(sessionId).getUser();
+    }
+
+    public boolean isAuthenticated(String sessionId) {
+        return getAccessToken(sessionId) != null;
+    }
+
+    public long size() {
+        return store.size();
+    }
+
+    public SessionStore getStore() {
+        return store;
+    }
+
+    private void track(String sessionId, SessionSnapshot session) {
+        SessionTimerWheel wheel = timerWheel;
+        if (wheel != null) {
+            wheel.track(sessionId, session);
+        }
+    }
+
+    private void publish(SessionEventType type, String sessionId, User user) {
+        SessionEventBus bus = eventBus;
+        if (bus != null) {
+            bus.publish(type, sessionId, user != null ? user.getId() : null);
+        }
+    }
+
+    private void untrack(String sessionId) {
+        SessionTimerWheel wheel = timerWheel;
+        if (wheel != null) {
+            wheel.untrack(sessionId);
+        }
+    }
+}
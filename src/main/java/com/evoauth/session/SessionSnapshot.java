@@ -0,0 +1,101 @@
+package com.evoauth.session;
+
+import com.evoauth.models.AuthResponse;
+import com.evoauth.models.User;
+
+/**
+ * Immutable view of one session's tokens and user, published as a unit so readers
+ * never see a new access token paired with an old user.
+ */
+public final class SessionSnapshot {
+    public static final SessionSnapshot EMPTY = new SessionSnapshot(null, null, null);
+
+    private final String accessToken;
+    private final String refreshToken;
+    private final User user;
+    private final long accessTokenExpiresAt;
+    private final long refreshTokenExpiresAt;
+
+    public SessionSnapshot(String accessToken, String refreshToken, User user) {
+        this(accessToken, refreshToken, user, 0, 0);
+    }
+
+    /**
+     * @param accessTokenExpiresAt  epoch millis, or 0 if unknown
+     * @param refreshTokenExpiresAt epoch millis, or 0 if unknown
+     */
+    public SessionSnapshot(String accessToken, String refreshToken, User user, long accessTokenExpiresAt,
+            long refreshTokenExpiresAt) {
+        this.accessToken = accessToken;
+        this.refreshToken = refreshToken;
+        this.user = user;
+        this.accessTokenExpiresAt = accessTokenExpiresAt;
+        this.refreshTokenExpiresAt = refreshTokenExpiresAt;
+    }
+
+    /**
+     * Builds a snapshot from a login or refresh response, turning the relative
+     * lifetimes into absolute deadlines.
+     */
+    public static SessionSnapshot from(AuthResponse response, long nowMillis) {
+        return new SessionSnapshot(response.getAccessToken(), response.getRefreshToken(), response.getUser(),
+                deadline(nowMillis, response.getExpiresIn()), deadline(nowMillis, response.getRefreshExpiresIn()));
+    }
+
+    private static long deadline(long nowMillis, long seconds) {
+        return seconds > 0 ? nowMillis + seconds * 1000 : 0;
+    }
+
+    public String getAccessToken() {
+        return accessToken;
+    }
+
+    public String getRefreshToken() {
+        return refreshToken;
+    }
+
+    public User getUser() {
+        return user;
+    }
+
+    public long getAccessTokenExpiresAt() {
+        return accessTokenExpiresAt;
+    }
+
+    public long getRefreshTokenExpiresAt() {
+        return refreshTokenExpiresAt;
+    }
+
+    /**
+     * Epoch millis after which the session can no longer be used: the refresh token's
+     * expiry, or the access token's for sessions without a refresh token. 0 if unknown.
+     */
+    public long getExpiresAt() {
+        if (refreshToken != null) {
+            return refreshTokenExpiresAt;
+        }
+        return accessTokenExpiresAt;
+    }
+
+    public SessionSnapshot withAccessToken(String newAccessToken) {
+        return new SessionSnapshot(newAccessToken, refreshToken, user, 0, refreshTokenExpiresAt);
+    }
+
+    /**
+     * Applies a refresh response, keeping the refresh token and user when the server
+     * didn't send new ones. An unchanged user keeps its existing instance.
+     */
+    public SessionSnapshot refreshedWith(AuthResponse response, long nowMillis) {
+        SessionSnapshot fresh = from(response, nowMillis);
+        boolean rotated = fresh.refreshToken != null;
+        return new SessionSnapshot(fresh.accessToken,
+                rotated ? fresh.refreshToken : refreshToken,
+                fresh.user != null ? User.reuse(user, fresh.user) : user,
+                fresh.accessTokenExpiresAt,
+                rotated ? fresh.refreshTokenExpiresAt : refreshTokenExpiresAt);
+    }
+
+    public boolean isEmpty() {
+        return accessToken == null && refreshToken == null && user == null;
+    }
+}
@@ -0,0 +1,57 @@
+package com.evoauth.session;
+
+import java.util.function.BiConsumer;
+import java.util.function.UnaryOperator;
+
+/**
+ * Keyed storage for many sessions at once, one {@link SessionSnapshot} per session ID.
+ * <p>
+ * Where a {@link TokenStore} holds a single session, a SessionStore backs a
+ * {@link SessionRegistry} serving every user of an application. {@link #forSession}
+ * adapts one entry back to the {@code TokenStore} interface, so a store can also sit
+ * behind a plain {@link SessionManager}.
+ */
+public interface SessionStore {
+    /**
+     * Returns the session, or null if there is none.
+     */
+    SessionSnapshot get(String sessionId);
+
+    /**
+     * Returns only the access token. Stores that decode sessions on read can override
+     * this to skip the rest.
+     */
+    default String getAccessToken(String sessionId) {
+        SessionSnapshot session = get(sessionId);
+        return session != null ? session.getAccessToken() : null;
+    }
+
+    default String getRefreshToken(String sessionId) {
+        SessionSnapshot session = get(sessionId);
+        return session != null ? session.getRefreshToken() : null;
+    }
+
+    void put(String sessionId, SessionSnapshot session);
+
+    /**
+     * Atomically replaces the session with {@code update}'s result. The function sees
+     * null for a missing session and may return null to remove it.
+     */
+    SessionSnapshot compute(String sessionId, UnaryOperator<SessionSnapshot> update);
+
+    /**
+     * Removes the session, returning what was stored or null.
+     */
+    SessionSnapshot remove(String sessionId);
+
+    long size();
+
+    void forEach(BiConsumer<String, SessionSnapshot> action);
+
+    /**
+     * Single-session view of one entry.
+     */
+    default TokenStore forSession(String sessionId) {
+        return new SessionTokenStore(this, sessionId);
+    }
+}
@@ -0,0 +1,376 @@
+package com.evoauth.session;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Tracks refresh and expiry deadlines for many sessions on a hierarchical timing wheel
+ * driven by a single daemon thread.
+ * <p>
+ * The wheel has four levels of 64 slots. Level 0 holds deadlines due within the current
+ * 64 ticks, level 1 those within the current 64&sup2; ticks, and so on; when a level's
+ * cursor wraps, the next slot of the level above is cascaded down. Scheduling and
+ * cancelling are O(1), and each tick only touches the entries that are actually due,
+ * so the cost is independent of how many sessions are tracked. With the default one
+ * second tick the levels span about 194 days; later deadlines wait in an overflow list.
+ * <p>
+ * Each session has exactly one entry, which first fires {@link Listener#onRefreshDue}
+ * at {@code refreshAheadFraction} of the access token lifetime and then
+ * {@link Listener#onExpired} when the session itself expires. Callbacks run on the
+ * wheel thread and must not block.
+ */
+public class SessionTimerWheel implements AutoCloseable {
+    private static final int LEVEL_BITS = 6;
+    private static final int SLOTS = 1 << LEVEL_BITS;
+    private static final int SLOT_MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    /**
+     * Receives due timers. Called from the wheel thread, outside the wheel's lock.
+     */
+    public interface Listener {
+        void onRefreshDue(String sessionId);
+
+        void onExpired(String sessionId);
+    }
+
+    private final long tickMs;
+    private final double refreshAheadFraction;
+    private final double jitterFraction;
+    private final Listener listener;
+    private final LongSupplier clock;
+    private final boolean manualTicks;
+
+    // Guarded by this
+    private final Map<String, Timer> timers = new HashMap<>();
+    private final Timer[][] wheel = new Timer[LEVELS][SLOTS];
+    private final Timer overflow = Timer.sentinel();
+    private long currentTick;
+    private Thread thread;
+    private boolean closed;
+
+    private SessionTimerWheel(Builder builder) {
+        this.tickMs = builder.tickMs;
+        this.refreshAheadFraction = builder.refreshAheadFraction;
+        this.jitterFraction = builder.jitterFraction;
+        this.listener = builder.listener;
+        this.clock = builder.clock;
+        this.manualTicks = builder.manualTicks;
+        this.currentTick = clock.getAsLong() / tickMs;
+        for (Timer[] level : wheel) {
+            for (int i = 0; i < SLOTS; i++) {
+                level[i] = Timer.sentinel();
+            }
+        }
+    }
+
+    /**
+     * Schedules (or reschedules) the timers of {@code session}: a pre-emptive refresh if
+     * the access token's lifetime is known and it can be refreshed, and its expiry.
+     */
+    public void track(String sessionId, SessionSnapshot session) {
+        long now = clock.getAsLong();
+        long expireAt = session.getExpiresAt();
+        long refreshAt = 0;
+        long accessExpiresAt = session.getAccessTokenExpiresAt();
+        if (session.getRefreshToken() != null && accessExpiresAt > now) {
+            refreshAt = refreshDeadline(now, accessExpiresAt);
+            if (expireAt > 0 && refreshAt >= expireAt) {
+                refreshAt = 0;
+            }
+        }
+        if (refreshAt == 0 && expireAt == 0) {
+            untrack(sessionId);
+            return;
+        }
+
+        synchronized (this) {
+            if (closed) {
+                return;
+            }
+            Timer timer = timers.get(sessionId);
+            if (timer == null) {
+                timer = new Timer(sessionId);
+                timers.put(sessionId, timer);
+            } else {
+                unlink(timer);
+            }
+            timer.refreshAt = refreshAt;
+            timer.expireAt = expireAt;
+            schedule(timer);
+            startThread();
+        }
+    }
+
+    public synchronized void untrack(String sessionId) {
+        Timer timer = timers.remove(sessionId);
+        if (timer != null) {
+            unlink(timer);
+        }
+    }
+
+    public synchronized int size() {
+        return timers.size();
+    }
+
+    long refreshDeadline(long now, long accessExpiresAt) {
+        long lifetimeMs = accessExpiresAt - now;
+        double jitter = jitterFraction == 0 ? 0
+                : ThreadLocalRandom.current().nextDouble(-jitterFraction, jitterFraction);
+        long delay = (long) (lifetimeMs * (refreshAheadFraction + jitter));
+        return now + Math.max(0, Math.min(delay, lifetimeMs - 1));
+    }
+
+    /**
+     * Advances the wheel to the current time and fires everything that fell due.
+     * Called by the wheel thread, unless built with {@link Builder#manualTicks()}.
+     */
+    public void advance() {
+        List<Timer> refreshDue = new ArrayList<>();
+        List<Timer> expired = new ArrayList<>();
+        synchronized (this) {
+            long targetTick = clock.getAsLong() / tickMs;
+            while (currentTick < targetTick) {
+                currentTick++;
+                cascade();
+                collectDue(refreshDue, expired);
+            }
+        }
+        for (Timer timer : refreshDue) {
+            notify(timer.sessionId, true);
+        }
+        for (Timer timer : expired) {
+            notify(timer.sessionId, false);
+        }
+    }
+
+    private void notify(String sessionId, boolean refresh) {
+        try {
+            if (refresh) {
+                listener.onRefreshDue(sessionId);
+            } else {
+                listener.onExpired(sessionId);
+            }
+        } catch (RuntimeException ignored) {
+            // One failing session must not stop the wheel
+        }
+    }
+
+    private void cascade() {
+        // Higher levels first, so entries cascading from level 2 into level 1's
+        // current slot are redistributed in the same tick
+        for (int level = LEVELS; level >= 1; level--) {
+            int shift = level * LEVEL_BITS;
+            if ((currentTick & ((1L << shift) - 1)) != 0) {
+                continue;
+            }
+            Timer sentinel = level == LEVELS
+                    ? overflow
+                    : wheel[level][(int) ((currentTick >>> shift) & SLOT_MASK)];
+            Timer timer = sentinel.next;
+            sentinel.next = sentinel;
+            sentinel.prev = sentinel;
+            while (timer != sentinel) {
+                Timer next = timer.next;
+                timer.prev = null;
+                timer.next = null;
+                insert(timer);
+                timer = next;
+            }
+        }
+    }
+
+    private void collectDue(List<Timer> refreshDue, List<Timer> expired) {
+        Timer sentinel = wheel[0][(int) (currentTick & SLOT_MASK)];
+        Timer timer = sentinel.next;
+        while (timer != sentinel) {
+            Timer next = timer.next;
+            unlink(timer);
+            if (timer.refreshAt > 0) {
+                refreshDue.add(timer);
+                timer.refreshAt = 0;
+                if (timer.expireAt > 0) {
+                    schedule(timer);
+                } else {
+                    timers.remove(timer.sessionId);
+                }
+            } else {
+                expired.add(timer);
+                timers.remove(timer.sessionId);
+            }
+            timer = next;
+        }
+    }
+
+    private void schedule(Timer timer) {
+        long deadline = timer.refreshAt > 0 ? timer.refreshAt : timer.expireAt;
+        // Round up so nothing fires before its deadline
+        timer.deadlineTick = Math.max((deadline + tickMs - 1) / tickMs, currentTick + 1);
+        insert(timer);
+    }
+
+    private void insert(Timer timer) {
+        long deadlineTick = Math.max(timer.deadlineTick, currentTick);
+        Timer sentinel = overflow;
+        for (int level = 0; level < LEVELS; level++) {
+            int shift = (level + 1) * LEVEL_BITS;
+            // The lowest level whose span contains both now and the deadline
+            if ((deadlineTick >>> shift) == (currentTick >>> shift)) {
+                sentinel = wheel[level][(int) ((deadlineTick >>> (level * LEVEL_BITS)) & SLOT_MASK)];
+                break;
+            }
+        }
+        timer.prev = sentinel.prev;
+        timer.next = sentinel;
+        sentinel.prev.next = timer;
+        sentinel.prev = timer;
+    }
+
+    private static void unlink(Timer timer) {
+        if (timer.prev == null) {
+            return;
+        }
+        timer.prev.next = timer.next;
+        timer.next.prev = timer.prev;
+        timer.prev = null;
+        timer.next = null;
+    }
+
+    private void startThread() {
+        // Started lazily so clients without keyed sessions never start a thread
+        if (thread != null || manualTicks) {
+            return;
+        }
+        thread = new Thread(this::run, "evoauth-session-timer");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void run() {
+        while (!isClosed()) {
+            long now = clock.getAsLong();
+            long untilNextTick = tickMs - (now % tickMs);
+            LockSupport.parkNanos(untilNextTick * 1_000_000);
+            if (Thread.interrupted() || isClosed()) {
+                return;
+            }
+            advance();
+        }
+    }
+
+    private synchronized boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public void close() {
+        Thread toStop;
+        synchronized (this) {
+            closed = true;
+            timers.clear();
+            for (Timer[] level : wheel) {
+                for (Timer sentinel : level) {
+                    sentinel.next = sentinel;
+                    sentinel.prev = sentinel;
+                }
+            }
+            overflow.next = overflow;
+            overflow.prev = overflow;
+            toStop = thread;
+        }
+        if (toStop != null) {
+            toStop.interrupt();
+        }
+    }
+
+    /**
+     * One session's entry; linked into exactly one wheel slot at a time.
+     */
+    private static final class Timer {
+        final String sessionId;
+        long refreshAt;
+        long expireAt;
+        long deadlineTick;
+        Timer prev;
+        Timer next;
+
+        Timer(String sessionId) {
+            this.sessionId = sessionId;
+        }
+
+        static Timer sentinel() {
+            Timer sentinel = new Timer(null);
+            sentinel.prev = sentinel;
+            sentinel.next = sentinel;
+            return sentinel;
+        }
+    }
+
+    public static class Builder {
+        private long tickMs = 1000;
+        private double refreshAheadFraction = 0.8;
+        private double jitterFraction = 0.05;
+        private Listener listener;
+        private LongSupplier clock = System::currentTimeMillis;
+        private boolean manualTicks;
+
+        public Builder listener(Listener listener) {
+            this.listener = listener;
+            return this;
+        }
+
+        /**
+         * Timer resolution. Callbacks fire at most one tick after their deadline.
+         */
+        public Builder tick(Duration tick) {
+            this.tickMs = tick.toMillis();
+            return this;
+        }
+
+        public Builder refreshAheadFraction(double refreshAheadFraction) {
+            this.refreshAheadFraction = refreshAheadFraction;
+            return this;
+        }
+
+        public Builder jitterFraction(double jitterFraction) {
+            this.jitterFraction = jitterFraction;
+            return this;
+        }
+
+        // Exposed for testing
+        public Builder clock(LongSupplier clock) {
+            this.clock = clock;
+            return this;
+        }
+
+        /**
+         * Don't start the wheel thread; the caller invokes {@link #advance()} from its own scheduler.
+         */
+        public Builder manualTicks() {
+            this.manualTicks = true;
+            return this;
+        }
+
+        public SessionTimerWheel build() {
+            if (listener == null) {
+                throw new IllegalArgumentException("Listener is required");
+            }
+            if (tickMs <= 0) {
+                throw new IllegalArgumentException("Tick must be at least 1ms");
+            }
+            if (refreshAheadFraction <= 0 || refreshAheadFraction >= 1) {
+                throw new IllegalArgumentException("Refresh-ahead fraction must be between 0 and 1");
+            }
+            if (jitterFraction < 0 || jitterFraction >= 1) {
+                throw new IllegalArgumentException("Jitter fraction must be between 0 and 1");
+            }
+            return new SessionTimerWheel(this);
+        }
+    }
+}
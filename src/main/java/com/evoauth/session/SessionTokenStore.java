@@ -0,0 +1,58 @@
+package com.evoauth.session;
+
+import com.evoauth.models.User;
+
+/**
+ * {@link TokenStore} view of a single entry in a {@link SessionStore}.
+ */
+class SessionTokenStore implements TokenStore {
+    private final SessionStore store;
+    private final String sessionId;
+
+    SessionTokenStore(SessionStore store, String sessionId) {
+        this.store = store;
+        this.sessionId = sessionId;
+    }
+
+    @Override
+    public void saveTokens(String accessToken, String refreshToken, User user) {
+        store.put(sessionId, new SessionSnapshot(accessToken, refreshToken, user));
+    }
+
+    @Override
+    public void saveSession(SessionSnapshot session) {
+        store.put(sessionId, session);
+    }
+
+    @Override
+    public String getAccessToken() {
+        return store.getAccessToken(sessionId);
+    }
+
+    @Override
+    public String getRefreshToken() {
+        return store.getRefreshToken(sessionId);
+    }
+
+    @Override
+    public User getUser() {
+        return getSession().getUser();
+    }
+
+    @Override
+    public SessionSnapshot getSession() {
+        SessionSnapshot session = store.get(sessionId);
+        return session != null ? session : SessionSnapshot.EMPTY;
+    }
+
+    @Override
+    public void updateAccessToken(String accessToken) {
+        store.compute(sessionId, current -> (current != null ? current : SessionSnapshot.EMPTY)
+                .withAccessToken(accessToken));
+    }
+
+    @Override
+    public void clear() {
+        store.remove(sessionId);
+    }
+}
@@ -0,0 +1,97 @@
+package com.evoauth.session;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Refreshes the access token shortly before it expires so foreground requests
+ * never have to take the 401-then-refresh detour.
+ * <p>
+ * The refresh fires at {@code refreshAheadFraction} of the token lifetime, shifted
+ * by up to {@code jitterFraction} of the lifetime in either direction so that a fleet
+ * of clients started together doesn't refresh in lockstep.
+ */
+public class TokenRefreshScheduler implements AutoCloseable {
+    private final double refreshAheadFraction;
+    private final double jitterFraction;
+    private final Runnable refreshAction;
+
+    private ScheduledExecutorService executor;
+    private ScheduledFuture<?> pending;
+    private boolean closed;
+
+    public TokenRefreshScheduler(double refreshAheadFraction, double jitterFraction, Runnable refreshAction) {
+        if (refreshAheadFraction <= 0 || refreshAheadFraction >= 1) {
+            throw new IllegalArgumentException("Refresh-ahead fraction must be between 0 and 1");
+        }
+        if (jitterFraction < 0 || jitterFraction >= 1) {
+            throw new IllegalArgumentException("Jitter fraction must be between 0 and 1");
+        }
+        this.refreshAheadFraction = refreshAheadFraction;
+        this.jitterFraction = jitterFraction;
+        this.refreshAction = refreshAction;
+    }
+
+    /**
+     * Replaces any pending refresh with one timed for a token living {@code expiresInSeconds}.
+     */
+    public synchronized void schedule(long expiresInSeconds) {
+        cancel();
+        if (closed || expiresInSeconds <= 0) {
+            return;
+        }
+        pending = executor().schedule(this::runRefresh, delayMillis(expiresInSeconds), TimeUnit.MILLISECONDS);
+    }
+
+    public synchronized void cancel() {
+        if (pending != null) {
+            pending.cancel(false);
+            pending = null;
+        }
+    }
+
+    public synchronized boolean isScheduled() {
+        return pending != null && !pending.isDone();
+    }
+
+    long delayMillis(long expiresInSeconds) {
+        long lifetimeMs = TimeUnit.SECONDS.toMillis(expiresInSeconds);
+        double jitter = jitterFraction == 0 ? 0
+                : ThreadLocalRandom.current().nextDouble(-jitterFraction, jitterFraction);
+        long delay = (long) (lifetimeMs * (refreshAheadFraction + jitter));
+        // Never schedule past the expiry itself
+        return Math.max(0, Math.min(delay, lifetimeMs - 1));
+    }
+
+    private void runRefresh() {
+        try {
+            refreshAction.run();
+        } catch (RuntimeException ignored) {
+            // The next request will fall back to the 401 path
+        }
+    }
+
+    private ScheduledExecutorService executor() {
+        // Created lazily: clients that never see expires_in never start a thread
+        if (executor == null) {
+            executor = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread thread = new Thread(r, "evoauth-token-refresh");
+                thread.setDaemon(true);
+                return thread;
+            });
+        }
+        return executor;
+    }
+
+    @Override
+    public synchronized void close() {
+        closed = true;
+        cancel();
+        if (executor != null) {
+            executor.shutdownNow();
+        }
+    }
+}
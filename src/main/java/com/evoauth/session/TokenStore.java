@@ -12,4 +12,28 @@ public interface TokenStore {
     User getUser();
 
     void clear();
+
+    /**
+     * Saves a whole session, including its expiry deadlines. Stores that keep
+     * {@link SessionSnapshot}s should override this; the default drops the deadlines.
+     */
+    default void saveSession(SessionSnapshot session) {
+        saveTokens(session.getAccessToken(), session.getRefreshToken(), session.getUser());
+    }
+
+    /**
+     * Returns the tokens and user together. Stores that can publish them atomically
+     * should override this; the default reads the fields one by one.
+     */
+    default SessionSnapshot getSession() {
+        return new SessionSnapshot(getAccessToken(), getRefreshToken(), getUser());
+    }
+
+    /**
+     * Replaces the access token, keeping the refresh token and user. Stores that
+     * support it should do this atomically.
+     */
+    default void updateAccessToken(String accessToken) {
+        saveTokens(accessToken, getRefreshToken(), getUser());
+    }
 }
@@ -2,6 +2,7 @@ package com.evoauth.spring;
 
 import com.evoauth.core.AuthClient;
 import com.evoauth.core.AuthConfig;
+import com.evoauth.session.SessionRegistry;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
@@ -20,12 +21,30 @@ public class EvoAuthAutoConfiguration {
                 .baseUrl(properties.getBaseUrl())
                 .apiKey(properties.getApiKey())
                 .connectionTimeoutMs(properties.getConnectionTimeoutMs())
+                .proactiveRefreshEnabled(properties.isProactiveRefreshEnabled())
+                .refreshAheadFraction(properties.getRefreshAheadFraction())
+                .refreshJitterFraction(properties.getRefreshJitterFraction())
+                .readTimeoutMs(properties.getReadTimeoutMs())
+                .writeTimeoutMs(properties.getWriteTimeoutMs())
+                .callTimeoutMs(properties.getCallTimeoutMs())
+                .maxIdleConnections(properties.getMaxIdleConnections())
+                .keepAliveMs(properties.getKeepAliveMs())
+                .maxRequests(properties.getMaxRequests())
+                .maxRequestsPerHost(properties.getMaxRequestsPerHost())
+                .http2Enabled(properties.isHttp2Enabled())
+                .http2PriorKnowledge(properties.isHttp2PriorKnowledge())
                 .build();
     }
 
     @Bean
     @ConditionalOnMissingBean
-    public AuthClient authClient(AuthConfig config) {
-        return new AuthClient(config);
+    public SessionRegistry sessionRegistry() {
+        return new SessionRegistry();
+    }
+
+    @Bean
+    @ConditionalOnMissingBean
+    public AuthClient authClient(AuthConfig config, SessionRegistry sessionRegistry) {
+        return new AuthClient(config, sessionRegistry);
     }
 }
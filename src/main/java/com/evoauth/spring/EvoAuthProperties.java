@@ -7,6 +7,18 @@ public class EvoAuthProperties {
     private String baseUrl;
     private String apiKey;
     private long connectionTimeoutMs = 10000;
+    private boolean proactiveRefreshEnabled = true;
+    private double refreshAheadFraction = 0.8;
+    private double refreshJitterFraction = 0.05;
+    private long readTimeoutMs = -1;
+    private long writeTimeoutMs = 10000;
+    private long callTimeoutMs = 0;
+    private int maxIdleConnections = 5;
+    private long keepAliveMs = 300000;
+    private int maxRequests = 64;
+    private int maxRequestsPerHost = 64;
+    private boolean http2Enabled = true;
+    private boolean http2PriorKnowledge = false;
 
     public String getBaseUrl() {
         return baseUrl;
@@ -31,4 +43,100 @@ public class EvoAuthProperties {
     public void setConnectionTimeoutMs(long connectionTimeoutMs) {
         this.connectionTimeoutMs = connectionTimeoutMs;
     }
+
+    public boolean isProactiveRefreshEnabled() {
+        return proactiveRefreshEnabled;
+    }
+
+    public void setProactiveRefreshEnabled(boolean proactiveRefreshEnabled) {
+        this.proactiveRefreshEnabled = proactiveRefreshEnabled;
+    }
+
+    public double getRefreshAheadFraction() {
+        return refreshAheadFraction;
+    }
+
+    public void setRefreshAheadFraction(double refreshAheadFraction) {
+        this.refreshAheadFraction = refreshAheadFraction;
+    }
+
+    public double getRefreshJitterFraction() {
+        return refreshJitterFraction;
+    }
+
+    public void setRefreshJitterFraction(double refreshJitterFraction) {
+        this.refreshJitterFraction = refreshJitterFraction;
+    }
+
+    public long getReadTimeoutMs() {
+        return readTimeoutMs;
+    }
+
+    public void setReadTimeoutMs(long readTimeoutMs) {
+        this.readTimeoutMs = readTimeoutMs;
+    }
+
+    public long getWriteTimeoutMs() {
+        return writeTimeoutMs;
+    }
+
+    public void setWriteTimeoutMs(long writeTimeoutMs) {
+        this.writeTimeoutMs = writeTimeoutMs;
+    }
+
+    public long getCallTimeoutMs() {
+        return callTimeoutMs;
+    }
+
+    public void setCallTimeoutMs(long callTimeoutMs) {
+        this.callTimeoutMs = callTimeoutMs;
+    }
+
+    public int getMaxIdleConnections() {
+        return maxIdleConnections;
+    }
+
+    public void setMaxIdleConnections(int maxIdleConnections) {
+        this.maxIdleConnections = maxIdleConnections;
+    }
+
+    public long getKeepAliveMs() {
+        return keepAliveMs;
+    }
+
+    public void setKeepAliveMs(long keepAliveMs) {
+        this.keepAliveMs = keepAliveMs;
+    }
+
+    public int getMaxRequests() {
+        return maxRequests;
+    }
+
+    public void setMaxRequests(int maxRequests) {
+        this.maxRequests = maxRequests;
+    }
+
+    public int getMaxRequestsPerHost() {
+        return maxRequestsPerHost;
+    }
+
+    public void setMaxRequestsPerHost(int maxRequestsPerHost) {
+        this.maxRequestsPerHost = maxRequestsPerHost;
+    }
+
+    public boolean isHttp2Enabled() {
+        return http2Enabled;
+    }
+
+    public void setHttp2Enabled(boolean http2Enabled) {
+        this.http2Enabled = http2Enabled;
+    }
+
+    public boolean isHttp2PriorKnowledge() {
+        return http2PriorKnowledge;
+    }
+
+    public void setHttp2PriorKnowledge(boolean http2PriorKnowledge) {
+        this.http2PriorKnowledge = http2PriorKnowledge;
+    }
 }
@@ -0,0 +1,47 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.models.User;
+import com.evoauth.security.AccessPolicy;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks one permission for 200,000 users spread over a growing number of distinct
+ * role combinations, to show the cost once the policy's combination cache is full.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class AccessPolicyBenchmark {
+    private static final int USERS = 200_000;
+    private static final int ROUNDS = 5;
+    private static final int[] COMBINATIONS = { 64, 4_096, 16_384, 65_536 };
+
+    public static void main(String[] args) {
+        AccessPolicy.Builder builder = new AccessPolicy.Builder();
+        for (int i = 0; i < 256; i++) {
+            builder.inherit("BENCH_" + i, "USER");
+        }
+        builder.grant("USER", "accounts:read");
+
+        for (int combinations : COMBINATIONS) {
+            AccessPolicy policy = builder.build();
+            List<User> users = new ArrayList<>(USERS);
+            for (int i = 0; i < USERS; i++) {
+                int combination = i % combinations;
+                users.add(new User("u" + i, "user" + i + "@example.com",
+                        List.of("BENCH_" + (combination & 0xFF), "BENCH_" + (combination >>> 8))));
+            }
+            for (int round = 0; round < ROUNDS; round++) {
+                long start = System.nanoTime();
+                long granted = 0;
+                for (User user : users) {
+                    granted += policy.hasPermission(user, "accounts:read") ? 1 : 0;
+                }
+                long nsPerCheck = (System.nanoTime() - start) / USERS;
+                System.out.printf("%6d combinations, round %d: %4d ns/check | granted %d%n",
+                        combinations, round, nsPerCheck, granted);
+            }
+        }
+    }
+}
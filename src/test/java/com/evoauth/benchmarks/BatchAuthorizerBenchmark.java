@@ -0,0 +1,79 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.models.User;
+import com.evoauth.security.AccessPolicy;
+import com.evoauth.security.AuthorizationMatrix;
+import com.evoauth.security.BatchAuthorizer;
+import com.evoauth.security.PermissionGuard;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Checks 200,000 users against eight role and permission requirements, once with
+ * nested {@link PermissionGuard} loops and once with {@link BatchAuthorizer}.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class BatchAuthorizerBenchmark {
+    private static final int USERS = 200_000;
+    private static final int ROUNDS = 10;
+    private static final String[] ROLES = { "USER", "TELLER", "MANAGER", "ADMIN", "AUDITOR", "SUPPORT" };
+
+    public static void main(String[] args) {
+        PermissionGuard.setPolicy(new AccessPolicy.Builder()
+                .inherit("ADMIN", "MANAGER")
+                .inherit("MANAGER", "TELLER")
+                .inherit("TELLER", "USER")
+                .inherit("AUDITOR", "USER")
+                .grant("USER", "accounts:read")
+                .grant("TELLER", "accounts:deposit")
+                .grant("MANAGER", "accounts:transfer")
+                .grant("AUDITOR", "ledger:export")
+                .build());
+
+        List<User> users = new ArrayList<>(USERS);
+        for (int i = 0; i < USERS; i++) {
+            users.add(new User("u" + i, "user" + i + "@example.com",
+                    List.of(ROLES[i % ROLES.length], ROLES[(i / ROLES.length) % ROLES.length])));
+        }
+
+        BatchAuthorizer authorizer = new BatchAuthorizer.Builder()
+                .requireRole("USER")
+                .requireRole("ADMIN")
+                .requireAnyRole("AUDITOR", "SUPPORT")
+                .requireAllRoles("TELLER", "AUDITOR")
+                .requirePermission("accounts:read")
+                .requirePermission("accounts:deposit")
+                .requirePermission("accounts:transfer")
+                .requirePermission("ledger:export")
+                .build();
+
+        for (int round = 0; round < ROUNDS; round++) {
+            long start = System.nanoTime();
+            long granted = 0;
+            for (User user : users) {
+                granted += PermissionGuard.hasRole(user, "USER") ? 1 : 0;
+                granted += PermissionGuard.hasRole(user, "ADMIN") ? 1 : 0;
+                granted += PermissionGuard.hasAnyRole(user, "AUDITOR", "SUPPORT") ? 1 : 0;
+                granted += PermissionGuard.hasAllRoles(user, "TELLER", "AUDITOR") ? 1 : 0;
+                granted += PermissionGuard.hasPermission(user, "accounts:read") ? 1 : 0;
+                granted += PermissionGuard.hasPermission(user, "accounts:deposit") ? 1 : 0;
+                granted += PermissionGuard.hasPermission(user, "accounts:transfer") ? 1 : 0;
+                granted += PermissionGuard.hasPermission(user, "ledger:export") ? 1 : 0;
+            }
+            long loopsMs = (System.nanoTime() - start) / 1_000_000;
+
+            start = System.nanoTime();
+            AuthorizationMatrix matrix = authorizer.evaluate(users);
+            long batchMs = (System.nanoTime() - start) / 1_000_000;
+            long batchGranted = 0;
+            for (int r = 0; r < matrix.getRequirementCount(); r++) {
+                batchGranted += matrix.usersGranted(r).cardinality();
+            }
+
+            System.out.printf("round %2d: nested loops %4d ms | batch %4d ms on %d cores | granted %d / %d%n",
+                    round, loopsMs, batchMs, Runtime.getRuntime().availableProcessors(), granted, batchGranted);
+        }
+    }
+}
@@ -0,0 +1,84 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.core.AuthClient;
+import com.evoauth.core.AuthConfig;
+import okhttp3.Protocol;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Burst-login throughput against a local MockWebServer with a fixed server-side
+ * latency, comparing OkHttp's stock dispatcher limits with tuned settings.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class ConnectionPoolBenchmark {
+    private static final int LOGINS = 2000;
+    private static final long SERVER_LATENCY_MS = 10;
+
+    public static void main(String[] args) throws Exception {
+        run("stock limits (5/host, 5 idle)", false, builder -> builder
+                .maxRequestsPerHost(5)
+                .maxIdleConnections(5));
+        run("tuned limits (64/host, 64 idle)", false, builder -> builder
+                .maxRequestsPerHost(64)
+                .maxIdleConnections(64));
+        run("h2c prior knowledge (64/host)", true, builder -> builder
+                .maxRequestsPerHost(64)
+                .http2PriorKnowledge(true));
+    }
+
+    private interface Tuning {
+        AuthConfig.Builder apply(AuthConfig.Builder builder);
+    }
+
+    private static void run(String label, boolean h2c, Tuning tuning) throws Exception {
+        try (MockWebServer server = new MockWebServer()) {
+            if (h2c) {
+                server.setProtocols(List.of(Protocol.H2_PRIOR_KNOWLEDGE));
+            }
+            server.setDispatcher(new Dispatcher() {
+                @Override
+                public MockResponse dispatch(RecordedRequest request) {
+                    return new MockResponse()
+                            .setResponseCode(200)
+                            .setHeadersDelay(SERVER_LATENCY_MS, TimeUnit.MILLISECONDS)
+                            .setBody("{\"access_token\": \"a\", \"refresh_token\": \"r\", " +
+                                    "\"user\": {\"id\": \"1\", \"roles\": [\"USER\"]}}");
+                }
+            });
+            server.start();
+
+            AuthConfig config = tuning.apply(new AuthConfig.Builder()
+                    .baseUrl(server.url("/").toString())
+                    .proactiveRefreshEnabled(false))
+                    .build();
+
+            try (AuthClient client = new AuthClient(config)) {
+                // Warm up connections and JIT
+                burst(client, 200);
+
+                long start = System.nanoTime();
+                burst(client, LOGINS);
+                long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+                System.out.printf("%-34s %6d ms  %8.0f logins/s%n", label, elapsedMs,
+                        LOGINS * 1000.0 / Math.max(1, elapsedMs));
+            }
+        }
+    }
+
+    private static void burst(AuthClient client, int count) {
+        CompletableFuture<?>[] futures = new CompletableFuture<?>[count];
+        for (int i = 0; i < count; i++) {
+            futures[i] = client.loginAsync("user" + i + "@bank.com", "secret");
+        }
+        CompletableFuture.allOf(futures).join();
+    }
+}
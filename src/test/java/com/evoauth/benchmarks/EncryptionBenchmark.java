@@ -0,0 +1,97 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.security.EncryptionKeyProvider;
+import com.evoauth.security.TokenCipher;
+import com.evoauth.session.EncryptingSessionStore;
+import com.evoauth.session.InMemorySessionStore;
+import com.evoauth.session.SessionSnapshot;
+import com.evoauth.session.SessionStore;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKey;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * Compares token reads from a plain session store, the encrypting decorator with
+ * per-thread cached ciphers, and naive AES-GCM that calls {@code Cipher.getInstance}
+ * and {@code SecureRandom} on every operation.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class EncryptionBenchmark {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 500_000;
+    private static final int SESSIONS = 1_024;
+
+    private static final String ACCESS_TOKEN = "eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9."
+            + "eyJzdWIiOiJ1c2VyXzEyMyIsInJvbGVzIjpbIlVTRVIiXX0.c2lnbmF0dXJl";
+
+    private interface Op {
+        Object run(int i) throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        SecretKey key = new SecretKeySpec(new byte[32], "AES");
+        SessionStore plain = fill(new InMemorySessionStore());
+        SessionStore encrypted = fill(new EncryptingSessionStore(new InMemorySessionStore(),
+                new TokenCipher(EncryptionKeyProvider.of("k1", key))));
+
+        SecureRandom random = new SecureRandom();
+        String[] naiveCiphertexts = new String[SESSIONS];
+        for (int i = 0; i < SESSIONS; i++) {
+            naiveCiphertexts[i] = naiveEncrypt(key, random, ACCESS_TOKEN);
+        }
+
+        measure("read: plain store", i -> plain.getAccessToken("session-" + (i % SESSIONS)));
+        measure("read: encrypting store", i -> encrypted.getAccessToken("session-" + (i % SESSIONS)));
+        measure("read: naive getInstance per call", i -> naiveDecrypt(key, naiveCiphertexts[i % SESSIONS]));
+        measure("write: encrypting store", i -> {
+            encrypted.put("session-" + (i % SESSIONS), new SessionSnapshot(ACCESS_TOKEN, "refresh", null));
+            return null;
+        });
+        measure("write: naive getInstance per call", i -> naiveEncrypt(key, random, ACCESS_TOKEN));
+    }
+
+    private static SessionStore fill(SessionStore store) {
+        for (int i = 0; i < SESSIONS; i++) {
+            store.put("session-" + i, new SessionSnapshot(ACCESS_TOKEN, "refresh-" + i, null));
+        }
+        return store;
+    }
+
+    private static String naiveEncrypt(SecretKey key, SecureRandom random, String plaintext) throws Exception {
+        byte[] iv = new byte[12];
+        random.nextBytes(iv);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.ENCRYPT_MODE, key, new GCMParameterSpec(128, iv));
+        byte[] body = cipher.doFinal(plaintext.getBytes(StandardCharsets.UTF_8));
+        byte[] out = new byte[12 + body.length];
+        System.arraycopy(iv, 0, out, 0, 12);
+        System.arraycopy(body, 0, out, 12, body.length);
+        return Base64.getUrlEncoder().encodeToString(out);
+    }
+
+    private static String naiveDecrypt(SecretKey key, String ciphertext) throws Exception {
+        byte[] in = Base64.getUrlDecoder().decode(ciphertext);
+        Cipher cipher = Cipher.getInstance("AES/GCM/NoPadding");
+        cipher.init(Cipher.DECRYPT_MODE, key, new GCMParameterSpec(128, in, 0, 12));
+        return new String(cipher.doFinal(in, 12, in.length - 12), StandardCharsets.UTF_8);
+    }
+
+    private static void measure(String label, Op op) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            op.run(i);
+        }
+        long start = System.nanoTime();
+        Object sink = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = op.run(i);
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-36s %7.0f ns/op%s%n", label, (double) elapsed / ITERATIONS, sink == null ? "" : "");
+    }
+}
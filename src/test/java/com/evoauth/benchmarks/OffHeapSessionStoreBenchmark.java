@@ -0,0 +1,86 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.models.User;
+import com.evoauth.session.InMemorySessionStore;
+import com.evoauth.session.OffHeapSessionStore;
+import com.evoauth.session.SessionSnapshot;
+import com.evoauth.session.SessionStore;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Fills the heap-backed and off-heap session stores with a million sessions and
+ * reports retained heap, direct memory and time spent in GC, including a full
+ * collection with the sessions live.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath
+ * with {@code -Xmx3g}.
+ */
+public class OffHeapSessionStoreBenchmark {
+    private static final int SESSIONS = 1_000_000;
+    private static final String PAYLOAD = "eyJzdWIiOiJ1c2VyXzEyMyIsImVtYWlsIjoidGVzdEBleGFtcGxlLmNvbSIsInJvbGVzIjpbIkFETUlOIiwiVVNFUiJdfQ";
+
+    public static void main(String[] args) {
+        run("InMemorySessionStore", InMemorySessionStore::new);
+        run("OffHeapSessionStore", () -> new OffHeapSessionStore.Builder().expectedSessions(SESSIONS).build());
+    }
+
+    private static void run(String name, Supplier<SessionStore> factory) {
+        fullGc();
+        long heapBefore = usedHeap();
+        long[] gcBefore = gcTotals();
+
+        SessionStore store = factory.get();
+        long start = System.nanoTime();
+        for (int i = 0; i < SESSIONS; i++) {
+            User user = new User("user_" + i, "user" + i + "@example.com", List.of("USER", "BILLING"));
+            user.setFirstName("First" + i);
+            user.setLastName("Last" + i);
+            store.put("session-" + i, new SessionSnapshot(
+                    "eyJhbGciOiJSUzI1NiJ9." + PAYLOAD + i + ".c2lnbmF0dXJlLXNpZ25hdHVyZS1zaWduYXR1cmU" + i,
+                    "rt_" + Long.toHexString(i * 0x9E3779B97F4A7C15L), user,
+                    System.currentTimeMillis() + 3_600_000, System.currentTimeMillis() + 86_400_000));
+        }
+        long fillMs = (System.nanoTime() - start) / 1_000_000;
+        long[] gcAfterFill = gcTotals();
+
+        long fullGcStart = System.nanoTime();
+        fullGc();
+        long fullGcMs = (System.nanoTime() - fullGcStart) / 1_000_000;
+        long retained = usedHeap() - heapBefore;
+
+        System.out.printf("%-22s fill %,6d ms | retained heap %,5d MB | direct %,5d MB | "
+                        + "GC during fill: %,d collections, %,d ms | full GC with sessions live: %,d ms%n",
+                name, fillMs, retained >> 20,
+                store instanceof OffHeapSessionStore ? ((OffHeapSessionStore) store).offHeapBytes() >> 20 : 0,
+                gcAfterFill[0] - gcBefore[0], gcAfterFill[1] - gcBefore[1], fullGcMs);
+
+        // Keep the store reachable until measured
+        if (store.size() != SESSIONS) {
+            throw new IllegalStateException("Lost sessions: " + store.size());
+        }
+    }
+
+    private static long[] gcTotals() {
+        long count = 0;
+        long time = 0;
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            count += Math.max(0, gc.getCollectionCount());
+            time += Math.max(0, gc.getCollectionTime());
+        }
+        return new long[] { count, time };
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void fullGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.models.User;
+import com.evoauth.security.PermissionGuard;
+import com.evoauth.security.PolicyExpression;
+
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Evaluates {@code hasRole('ADMIN') or (hasRole('TELLER') and mfaEnabled) or
+ * emailDomain('bank.example')} three ways: compiled {@link PolicyExpression}, an
+ * interpreter walking the same syntax tree with role names, and the equivalent
+ * hand-written {@link PermissionGuard} calls. Reports time and bytes allocated per check.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class PolicyExpressionBenchmark {
+    private static final int WARMUP = 2_000_000;
+    private static final int ITERATIONS = 10_000_000;
+    private static final String RULE = "hasRole('ADMIN') or (hasRole('TELLER') and mfaEnabled) "
+            + "or emailDomain('bank.example')";
+
+    private interface Check {
+        boolean test(User user);
+    }
+
+    public static void main(String[] args) {
+        User[] users = {
+                new User("u1", "root@corp.example", List.of("ADMIN", "USER")),
+                new User("u2", "teller@corp.example", List.of("TELLER", "USER")),
+                new User("u3", "guest@corp.example", List.of("USER")),
+                new User("u4", "ops@bank.example", List.of("USER")),
+        };
+        users[1].setMfaEnabled(true);
+
+        PolicyExpression compiled = PolicyExpression.compile(RULE);
+        Node tree = Node.or(Node.or(Node.call("hasRole", "ADMIN"),
+                        Node.and(Node.call("hasRole", "TELLER"), Node.attribute("mfaEnabled"))),
+                Node.call("emailDomain", "bank.example"));
+
+        measure("compiled lambda tree", users, compiled::evaluate);
+        measure("interpreted syntax tree", users, tree::evaluate);
+        measure("hand-written PermissionGuard chain", users, user -> PermissionGuard.hasRole(user, "ADMIN")
+                || (PermissionGuard.hasRole(user, "TELLER") && user.isMfaEnabled())
+                || user.getEmail().toLowerCase().endsWith("@bank.example"));
+    }
+
+    private static void measure(String label, User[] users, Check check) {
+        int granted = 0;
+        for (int i = 0; i < WARMUP; i++) {
+            granted += check.test(users[i & 3]) ? 1 : 0;
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        for (int i = 0; i < ITERATIONS; i++) {
+            granted += check.test(users[i & 3]) ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-36s %6.1f ns/check %6.1f B/check (granted %d)%n", label,
+                (double) elapsed / ITERATIONS, (double) allocated / ITERATIONS, granted);
+    }
+
+    /**
+     * Generic syntax tree node, evaluated by dispatching on its kind and looking terms up by name.
+     */
+    private static final class Node {
+        final String kind;
+        final String name;
+        final String[] args;
+        final Node[] children;
+
+        private Node(String kind, String name, String[] args, Node... children) {
+            this.kind = kind;
+            this.name = name;
+            this.args = args;
+            this.children = children;
+        }
+
+        static Node or(Node left, Node right) {
+            return new Node("or", null, null, left, right);
+        }
+
+        static Node and(Node left, Node right) {
+            return new Node("and", null, null, left, right);
+        }
+
+        static Node call(String name, String... args) {
+            return new Node("call", name, args);
+        }
+
+        static Node attribute(String name) {
+            return new Node("attribute", name, null);
+        }
+
+        boolean evaluate(User user) {
+            switch (kind) {
+                case "or":
+                    for (Node child : children) {
+                        if (child.evaluate(user)) {
+                            return true;
+                        }
+                    }
+                    return false;
+                case "and":
+                    for (Node child : children) {
+                        if (!child.evaluate(user)) {
+                            return false;
+                        }
+                    }
+                    return true;
+                case "attribute":
+                    if (name.equals("mfaEnabled")) {
+                        return user.isMfaEnabled();
+                    }
+                    throw new IllegalStateException(name);
+                case "call":
+                    switch (name) {
+                        case "hasRole":
+                            return PermissionGuard.hasRole(user, args[0]);
+                        case "emailDomain":
+                            return user.getEmail().toLowerCase().endsWith("@" + args[0].toLowerCase());
+                        default:
+                            throw new IllegalStateException(name);
+                    }
+                default:
+                    throw new IllegalStateException(kind);
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.models.RoleMask;
+import com.evoauth.security.ResourcePermissionIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Resolves request paths against 10,000 route rules, using the segment trie in
+ * {@link ResourcePermissionIndex} and using a linear scan over the rule list.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class ResourcePermissionIndexBenchmark {
+    private static final int RULES = 10_000;
+    private static final int PATHS = 4096;
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 1_000_000;
+    private static final int SCAN_ITERATIONS = 20_000;
+    private static final String[] METHODS = { "GET", "POST", "PUT", "DELETE" };
+
+    private interface Resolver {
+        RoleMask resolve(String method, String path);
+    }
+
+    public static void main(String[] args) {
+        ResourcePermissionIndex.Builder builder = new ResourcePermissionIndex.Builder();
+        List<ScannedRule> scanned = new ArrayList<>();
+        for (int i = 0; i < RULES; i++) {
+            String method = METHODS[i % METHODS.length];
+            String pattern = pattern(i);
+            String role = "ROLE_" + (i % 50);
+            builder.rule(method, pattern, role);
+            scanned.add(new ScannedRule(method, pattern, RoleMask.of(role)));
+        }
+        ResourcePermissionIndex index = builder.build();
+
+        Random random = new Random(42);
+        String[] methods = new String[PATHS];
+        String[] paths = new String[PATHS];
+        for (int i = 0; i < PATHS; i++) {
+            int rule = random.nextInt(RULES);
+            methods[i] = METHODS[rule % METHODS.length];
+            // Mostly matching paths, some that fall through every rule
+            paths[i] = i % 10 == 0 ? "/unknown/" + i : concrete(rule, random);
+        }
+
+        measure("segment trie", index::resolve, methods, paths, ITERATIONS);
+        measure("linear scan", (method, path) -> {
+            String[] segments = path.substring(1).split("/");
+            for (ScannedRule rule : scanned) {
+                if (rule.method.equals(method) && matches(rule.segments, 0, segments, 0)) {
+                    return rule.roles;
+                }
+            }
+            return null;
+        }, methods, paths, SCAN_ITERATIONS);
+    }
+
+    private static String pattern(int i) {
+        String service = "/svc" + (i % 40);
+        String resource = "/res" + (i / 40);
+        switch (i % 5) {
+            case 0:
+                return service + resource;
+            case 1:
+                return service + resource + "/*";
+            case 2:
+                return service + resource + "/*/items";
+            case 3:
+                return service + resource + "/*/items/*/history";
+            default:
+                return service + resource + "/files/**";
+        }
+    }
+
+    private static String concrete(int i, Random random) {
+        return pattern(i).replace("/**", "/docs/" + random.nextInt(100) + "/v2")
+                .replace("*", Integer.toString(random.nextInt(100_000)));
+    }
+
+    private static void measure(String label, Resolver resolver, String[] methods, String[] paths, int iterations) {
+        int matched = 0;
+        for (int i = 0; i < Math.min(WARMUP, iterations); i++) {
+            matched += resolver.resolve(methods[i % PATHS], paths[i % PATHS]) != null ? 1 : 0;
+        }
+        long start = System.nanoTime();
+        for (int i = 0; i < iterations; i++) {
+            matched += resolver.resolve(methods[i % PATHS], paths[i % PATHS]) != null ? 1 : 0;
+        }
+        long elapsed = System.nanoTime() - start;
+        System.out.printf("%-14s %,10.0f ns/lookup (matched %d)%n", label, (double) elapsed / iterations, matched);
+    }
+
+    private static boolean matches(String[] pattern, int p, String[] path, int s) {
+        if (p == pattern.length) {
+            return s == path.length;
+        }
+        if (pattern[p].equals("**")) {
+            for (int skip = s; skip <= path.length; skip++) {
+                if (matches(pattern, p + 1, path, skip)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return s < path.length && (pattern[p].equals("*") || pattern[p].equals(path[s]))
+                && matches(pattern, p + 1, path, s + 1);
+    }
+
+    private static final class ScannedRule {
+        final String method;
+        final String[] segments;
+        final RoleMask roles;
+
+        ScannedRule(String method, String pattern, RoleMask roles) {
+            this.method = method;
+            this.segments = pattern.substring(1).split("/");
+            this.roles = roles;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.models.User;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * Deserializes half a million users spread over a few role combinations and reports
+ * the heap retained per user, with interned role lists ({@link User}) and with the
+ * plain {@code ArrayList} Jackson builds by default.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath
+ * with {@code -Xmx2g}.
+ */
+public class RoleInterningBenchmark {
+    private static final int USERS = 500_000;
+    private static final String[] ROLES = {
+            "[\"USER\"]", "[\"ADMIN\", \"USER\"]", "[\"USER\", \"BILLING\"]", "[\"AUDITOR\", \"USER\"]"
+    };
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper().configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+        byte[][] payloads = new byte[USERS][];
+        for (int i = 0; i < USERS; i++) {
+            payloads[i] = ("{\"id\": \"user_" + i + "\", \"email\": \"user" + i + "@example.com\", "
+                    + "\"roles\": " + ROLES[i % ROLES.length] + "}").getBytes(StandardCharsets.UTF_8);
+        }
+
+        long plain = retainedPerUser(mapper.readerFor(PlainUser.class), payloads);
+        long interned = retainedPerUser(mapper.readerFor(User.class), payloads);
+        System.out.printf("plain roles    %4d bytes/user%n", plain);
+        System.out.printf("interned roles %4d bytes/user%n", interned);
+        System.out.printf("saved          %4d bytes/user (%,d KB per %,d sessions)%n",
+                plain - interned, (plain - interned) * USERS >> 10, USERS);
+    }
+
+    private static long retainedPerUser(ObjectReader reader, byte[][] payloads) throws Exception {
+        Object[] users = new Object[payloads.length];
+        fullGc();
+        long before = usedHeap();
+        for (int i = 0; i < payloads.length; i++) {
+            users[i] = reader.readValue(payloads[i]);
+        }
+        fullGc();
+        long retained = usedHeap() - before;
+        if (users[users.length - 1] == null) {
+            throw new IllegalStateException();
+        }
+        return retained / payloads.length;
+    }
+
+    private static long usedHeap() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    private static void fullGc() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+    }
+
+    /**
+     * Same shape as {@link User} before interning.
+     */
+    public static class PlainUser {
+        public String id;
+        public String email;
+        public String firstName;
+        public String lastName;
+        public List<String> roles;
+        public boolean mfaEnabled;
+    }
+}
@@ -0,0 +1,94 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.core.AuthConfig;
+import com.evoauth.http.AuthTransport;
+import com.evoauth.http.JsonRequestBody;
+import com.evoauth.models.AuthResponse;
+import com.evoauth.models.LoginRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import okhttp3.MediaType;
+import okhttp3.RequestBody;
+import okhttp3.ResponseBody;
+import okio.Buffer;
+
+import java.lang.management.ManagementFactory;
+
+/**
+ * Compares the previous String-based JSON path with cached readers and writers, which
+ * parse from the response stream and serialize straight to bytes, reporting time and
+ * bytes allocated per operation.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class SerializationBenchmark {
+    private static final int WARMUP = 200_000;
+    private static final int ITERATIONS = 500_000;
+
+    private static final byte[] LOGIN_RESPONSE = ("{\"access_token\": \"eyJhbGciOiJSUzI1NiIsInR5cCI6IkpXVCJ9." +
+            "eyJzdWIiOiJ1c2VyXzEyMyIsInJvbGVzIjpbIlVTRVIiXX0.c2lnbmF0dXJl\", " +
+            "\"refresh_token\": \"def4567890abcdef\", \"expires_in\": 3600, " +
+            "\"user\": {\"id\": \"user_123\", \"email\": \"test@example.com\", \"firstName\": \"Test\", " +
+            "\"lastName\": \"User\", \"roles\": [\"ADMIN\", \"USER\"], \"mfaEnabled\": true}}").getBytes();
+
+    private static final MediaType JSON_TYPE = MediaType.get("application/json; charset=utf-8");
+
+    private interface Op {
+        Object run() throws Exception;
+    }
+
+    public static void main(String[] args) throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        AuthTransport transport = new AuthTransport(new AuthConfig.Builder().baseUrl("http://localhost").build());
+        ObjectReader reader = transport.readerFor(AuthResponse.class);
+        ObjectWriter writer = transport.writerFor(LoginRequest.class);
+        LoginRequest login = new LoginRequest("test@example.com", "correct horse battery staple");
+
+        measure("deserialize: body.string() + readValue", () -> {
+            ResponseBody body = ResponseBody.create(LOGIN_RESPONSE, JSON_TYPE);
+            return mapper.readValue(body.string(), AuthResponse.class);
+        });
+        measure("deserialize: cached reader on byteStream", () -> {
+            ResponseBody body = ResponseBody.create(LOGIN_RESPONSE, JSON_TYPE);
+            return reader.readValue(body.byteStream());
+        });
+
+        measure("serialize: writeValueAsString + create", () -> {
+            RequestBody body = RequestBody.create(mapper.writeValueAsString(login),
+                    MediaType.get("application/json; charset=utf-8"));
+            Buffer sink = new Buffer();
+            body.writeTo(sink);
+            return sink;
+        });
+        measure("serialize: cached writer to bytes", () -> {
+            RequestBody body = new JsonRequestBody(writer, login);
+            Buffer sink = new Buffer();
+            body.writeTo(sink);
+            return sink;
+        });
+
+        transport.close();
+    }
+
+    private static void measure(String label, Op op) throws Exception {
+        for (int i = 0; i < WARMUP; i++) {
+            op.run();
+        }
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long threadId = Thread.currentThread().getId();
+        long allocatedBefore = threads.getThreadAllocatedBytes(threadId);
+        long start = System.nanoTime();
+        Object sink = null;
+        for (int i = 0; i < ITERATIONS; i++) {
+            sink = op.run();
+        }
+        long elapsed = System.nanoTime() - start;
+        long allocated = threads.getThreadAllocatedBytes(threadId) - allocatedBefore;
+
+        System.out.printf("%-44s %7.0f ns/op %7d B/op%s%n", label, (double) elapsed / ITERATIONS,
+                allocated / ITERATIONS, sink == null ? "" : "");
+    }
+}
@@ -0,0 +1,75 @@
+package com.evoauth.benchmarks;
+
+import com.evoauth.models.User;
+import com.evoauth.session.SessionSnapshot;
+import com.evoauth.session.SessionTimerWheel;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks a million sessions on the timing wheel and simulates a day of one second
+ * ticks, reporting the cost of scheduling and the CPU spent per tick.
+ * <p>
+ * Not part of the test suite; run {@code main} from the IDE or on the test classpath.
+ */
+public class SessionTimerWheelBenchmark {
+    private static final int SESSIONS = 1_000_000;
+    private static final long DAY_MS = 86_400_000L;
+
+    public static void main(String[] args) {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        AtomicLong now = new AtomicLong(System.currentTimeMillis());
+        AtomicLong refreshes = new AtomicLong();
+        AtomicLong expiries = new AtomicLong();
+
+        SessionTimerWheel wheel = new SessionTimerWheel.Builder()
+                .clock(now::get)
+                .manualTicks()
+                .listener(new SessionTimerWheel.Listener() {
+                    @Override
+                    public void onRefreshDue(String sessionId) {
+                        refreshes.incrementAndGet();
+                    }
+
+                    @Override
+                    public void onExpired(String sessionId) {
+                        expiries.incrementAndGet();
+                    }
+                })
+                .build();
+
+        // Access tokens live 15-60 minutes, refresh tokens one hour to 30 days
+        User user = new User("user_123", "test@example.com", List.of("USER"));
+        SessionSnapshot[] sessions = new SessionSnapshot[SESSIONS];
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < SESSIONS; i++) {
+            long t = now.get();
+            sessions[i] = new SessionSnapshot("access", "refresh", user,
+                    t + random.nextLong(900_000, 3_600_000), t + random.nextLong(3_600_000, 30 * DAY_MS));
+        }
+
+        long cpuStart = threads.getCurrentThreadCpuTime();
+        for (int i = 0; i < SESSIONS; i++) {
+            wheel.track("session-" + i, sessions[i]);
+        }
+        long trackNs = threads.getCurrentThreadCpuTime() - cpuStart;
+        System.out.printf("track:   %,d sessions, %.0f ns/op%n", SESSIONS, (double) trackNs / SESSIONS);
+
+        // Idle ticks: the wheel holds a million sessions but little falls due each second
+        long ticks = DAY_MS / 1000;
+        cpuStart = threads.getCurrentThreadCpuTime();
+        for (long i = 0; i < ticks; i++) {
+            now.addAndGet(1000);
+            wheel.advance();
+        }
+        long advanceNs = threads.getCurrentThreadCpuTime() - cpuStart;
+        System.out.printf("advance: %,d ticks, %.1f us/tick, %,d refreshes, %,d expiries, %,d still tracked%n",
+                ticks, advanceNs / 1000.0 / ticks, refreshes.get(), expiries.get(), wheel.size());
+
+        wheel.close();
+    }
+}
@@ -0,0 +1,86 @@
+package com.evoauth.cluster;
+
+import com.evoauth.session.SessionSnapshot;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DistributedSessionStoreTest {
+
+    private final InMemoryRemoteBackend backend = new InMemoryRemoteBackend();
+    private final InMemoryInvalidationBus bus = new InMemoryInvalidationBus();
+    private final DistributedSessionStore nodeA = node("a");
+    private final DistributedSessionStore nodeB = node("b");
+
+    @AfterEach
+    void tearDown() {
+        nodeA.close();
+        nodeB.close();
+    }
+
+    @Test
+    void sessionCreatedOnOneNodeIsServedFromL1OnAnother() {
+        nodeA.put("s1", new SessionSnapshot("access", "refresh", null));
+
+        assertEquals("access", nodeB.getAccessToken("s1"));
+        long readsAfterFirst = backend.getReadCount();
+        for (int i = 0; i < 100; i++) {
+            assertEquals("access", nodeB.getAccessToken("s1"));
+        }
+        assertEquals(readsAfterFirst, backend.getReadCount());
+        assertTrue(nodeB.getHitRate() > 0.9);
+    }
+
+    @Test
+    void refreshAndLogoutElsewhereInvalidateL1() {
+        nodeA.put("s1", new SessionSnapshot("access-1", "refresh", null));
+        assertEquals("access-1", nodeB.getAccessToken("s1"));
+
+        nodeA.compute("s1", current -> current.withAccessToken("access-2"));
+        assertEquals("access-2", nodeB.getAccessToken("s1"));
+
+        nodeA.remove("s1");
+        assertNull(nodeB.get("s1"));
+        assertNull(nodeA.get("s1"));
+    }
+
+    @Test
+    void concurrentWritesFromBothNodesAreNeverLost() throws Exception {
+        nodeA.put("counter", new SessionSnapshot("0", "refresh", null));
+        ExecutorService pool = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (DistributedSessionStore node : List.of(nodeA, nodeB, nodeA, nodeB)) {
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 500; i++) {
+                        node.compute("counter", current -> current.withAccessToken(
+                                String.valueOf(Integer.parseInt(current.getAccessToken()) + 1)));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        assertEquals("2000", nodeA.getAccessToken("counter"));
+        assertEquals("2000", nodeB.getAccessToken("counter"));
+    }
+
+    private DistributedSessionStore node(String id) {
+        return new DistributedSessionStore.Builder()
+                .nodeId(id)
+                .backend(backend)
+                .invalidationBus(bus)
+                .build();
+    }
+}
@@ -0,0 +1,173 @@
+package com.evoauth.cluster;
+
+import com.evoauth.session.SessionSnapshot;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.BiConsumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ShardedSessionStoreTest {
+
+    private final LocalClusterTransport transport = new LocalClusterTransport();
+    private final Map<String, InMemoryRemoteBackend> shards = new HashMap<>();
+    private final Map<String, ShardedSessionStore> nodes = new LinkedHashMap<>();
+
+    @Test
+    void ringSpreadsKeysEvenlyAndMovesOnlyTheNewNodesShare() {
+        ConsistentHashRing ring = ConsistentHashRing.of(List.of("a", "b", "c", "d"));
+        Map<String, Integer> load = new HashMap<>();
+        int keys = 100_000;
+        for (int i = 0; i < keys; i++) {
+            load.merge(ring.ownerOf("session-" + i), 1, Integer::sum);
+        }
+        for (int count : load.values()) {
+            assertEquals(keys / 4.0, count, keys * 0.05, "unbalanced: " + load);
+        }
+
+        ConsistentHashRing grown = ring.withNode("e");
+        int moved = 0;
+        for (int i = 0; i < keys; i++) {
+            String before = ring.ownerOf("session-" + i);
+            String after = grown.ownerOf("session-" + i);
+            if (!before.equals(after)) {
+                assertEquals("e", after, "keys may only move to the new node");
+                moved++;
+            }
+        }
+        assertEquals(keys / 5.0, moved, keys * 0.05);
+    }
+
+    @Test
+    void routesEverySessionToExactlyOneOwner() {
+        ConsistentHashRing ring = startNodes(ConsistentHashRing.of(List.of("a", "b", "c")));
+        for (int i = 0; i < 1_000; i++) {
+            nodes.get("a").put("s" + i, new SessionSnapshot("access-" + i, "refresh", null));
+        }
+
+        for (int i = 0; i < 1_000; i++) {
+            assertEquals("access-" + i, nodes.get("c").getAccessToken("s" + i));
+            String owner = ring.ownerOf("s" + i);
+            for (Map.Entry<String, InMemoryRemoteBackend> shard : shards.entrySet()) {
+                assertEquals(shard.getKey().equals(owner), shard.getValue().get("s" + i) != null);
+            }
+        }
+        assertEquals(1_000, nodes.get("b").size());
+    }
+
+    @Test
+    void handsOffOnlyMovedSessionsWhenMembershipChanges() {
+        ConsistentHashRing ring = startNodes(ConsistentHashRing.of(List.of("a", "b", "c")));
+        for (int i = 0; i < 3_000; i++) {
+            nodes.get("a").put("s" + i, new SessionSnapshot("access-" + i, "refresh", null));
+        }
+
+        ConsistentHashRing grown = ring.withNode("d");
+        addNode("d", grown);
+        // "a" has switched but "b" and "c" haven't handed off yet: sessions must stay reachable
+        int movedFromA = nodes.get("a").updateRing(grown);
+        assertEquals("access-7", nodes.get("d").getAccessToken("s7"));
+
+        int moved = movedFromA + nodes.get("b").updateRing(grown) + nodes.get("c").updateRing(grown);
+        assertEquals(3_000 / 4.0, moved, 3_000 * 0.08);
+        assertEquals(moved, shards.get("d").size());
+        for (int i = 0; i < 3_000; i++) {
+            assertEquals("access-" + i, nodes.get("b").getAccessToken("s" + i));
+        }
+        assertEquals(3_000, nodes.get("d").size());
+
+        // A node leaving hands everything to the survivors
+        ConsistentHashRing shrunk = grown.withoutNode("b");
+        long held = shards.get("b").size();
+        assertEquals(held, nodes.get("b").updateRing(shrunk));
+        for (String id : List.of("a", "c", "d")) {
+            nodes.get(id).updateRing(shrunk);
+        }
+        transport.unregister("b");
+        assertEquals(0, shards.get("b").size());
+        assertEquals(3_000, nodes.get("a").size());
+    }
+
+    @Test
+    void keepsWritesMadeThroughANodeStillOnTheOldRing() {
+        ConsistentHashRing ring = startNodes(ConsistentHashRing.of(List.of("a", "b", "c")));
+        ConsistentHashRing grown = ring.withNode("d");
+        List<String> moving = new ArrayList<>();
+        for (int i = 0; moving.size() < 2; i++) {
+            if (ring.ownerOf("s" + i).equals("a") && grown.ownerOf("s" + i).equals("d")) {
+                moving.add("s" + i);
+            }
+        }
+        String raced = moving.get(0);
+        String late = moving.get(1);
+        for (String id : moving) {
+            nodes.get("a").put(id, new SessionSnapshot("before", "refresh", null));
+        }
+
+        // "b" hasn't switched rings and writes to "a" while the batch to "d" is in flight
+        addNode("d", grown);
+        InMemoryRemoteBackend d = shards.get("d");
+        AtomicBoolean writeDuringHandOff = new AtomicBoolean(true);
+        transport.register("d", new SessionShard() {
+            @Override
+            public void receive(Map<String, VersionedSession> sessions) {
+                d.receive(sessions);
+                if (writeDuringHandOff.getAndSet(false)) {
+                    nodes.get("b").put(raced, new SessionSnapshot("during", "refresh", null));
+                }
+            }
+
+            @Override
+            public VersionedSession get(String sessionId) {
+                return d.get(sessionId);
+            }
+
+            @Override
+            public VersionedSession compareAndSet(String sessionId, long expectedVersion, SessionSnapshot session) {
+                return d.compareAndSet(sessionId, expectedVersion, session);
+            }
+
+            @Override
+            public long size() {
+                return d.size();
+            }
+
+            @Override
+            public void forEach(BiConsumer<String, SessionSnapshot> action) {
+                d.forEach(action);
+            }
+        });
+
+        nodes.get("a").updateRing(grown);
+        assertEquals("during", d.get(raced).getSession().getAccessToken());
+        assertNull(shards.get("a").get(raced));
+
+        // After the hand-off, "b" recreates a moved session on its old owner
+        nodes.get("b").put(late, new SessionSnapshot("after", "refresh", null));
+        assertEquals(2, nodes.get("a").size());
+        assertEquals("after", nodes.get("a").getAccessToken(late));
+        assertEquals("after", d.get(late).getSession().getAccessToken());
+        assertNull(shards.get("a").get(late));
+        assertEquals(2, nodes.get("a").size());
+    }
+
+    private ConsistentHashRing startNodes(ConsistentHashRing ring) {
+        for (String id : ring.getNodes()) {
+            addNode(id, ring);
+        }
+        return ring;
+    }
+
+    private void addNode(String id, ConsistentHashRing ring) {
+        InMemoryRemoteBackend shard = new InMemoryRemoteBackend();
+        shards.put(id, shard);
+        transport.register(id, shard);
+        nodes.put(id, new ShardedSessionStore(id, shard, transport, ring));
+    }
+}
@@ -1,13 +1,18 @@
 package com.evoauth.core;
 
+import com.evoauth.exceptions.AuthApiException;
+import com.evoauth.http.AuthTransport;
 import com.evoauth.models.User;
 import okhttp3.mockwebserver.MockResponse;
 import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import java.io.IOException;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 
@@ -30,6 +35,7 @@ class AuthClientTest {
 
     @AfterEach
     void tearDown() throws IOException {
+        authClient.close();
         mockWebServer.shutdown();
     }
 
@@ -74,4 +80,112 @@ class AuthClientTest {
         assertTrue(exception.getMessage().contains("Invalid credentials"));
         assertFalse(authClient.isAuthenticated());
     }
+
+    @Test
+    void testLoginAsyncSuccess() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"access_token\": \"async_token\", \"refresh_token\": \"r1\", " +
+                        "\"user\": {\"id\": \"user_123\", \"roles\": [\"USER\"]}}"));
+
+        User user = authClient.loginAsync("test@example.com", "password").get(5, TimeUnit.SECONDS);
+
+        assertEquals("user_123", user.getId());
+        assertTrue(authClient.isAuthenticated());
+        assertEquals("async_token", authClient.getAccessToken());
+    }
+
+    @Test
+    void testLoginAsyncFailure() {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(401)
+                .setBody("{\"code\": \"AUTH_FAILED\", \"message\": \"Invalid credentials\"}"));
+
+        CompletionException exception = assertThrows(CompletionException.class,
+                () -> authClient.loginAsync("test@example.com", "wrong_pass").join());
+
+        assertInstanceOf(AuthApiException.class, exception.getCause());
+        assertEquals(401, ((AuthApiException) exception.getCause()).getStatusCode());
+        assertFalse(authClient.isAuthenticated());
+    }
+
+    @Test
+    void testProactiveRefreshBeforeExpiry() throws Exception {
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"access_token\": \"short_lived\", \"refresh_token\": \"r1\", \"expires_in\": 1, " +
+                        "\"user\": {\"id\": \"user_123\"}}"));
+        mockWebServer.enqueue(new MockResponse()
+                .setResponseCode(200)
+                .setBody("{\"access_token\": \"refreshed\", \"refresh_token\": \"r2\", \"expires_in\": 3600, " +
+                        "\"user\": {\"id\": \"user_123\"}}"));
+
+        authClient.login("test@example.com", "password");
+        mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+
+        RecordedRequest refresh = mockWebServer.takeRequest(5, TimeUnit.SECONDS);
+        assertNotNull(refresh);
+        assertEquals("/api/v1/auth/refresh", refresh.getPath());
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!"refreshed".equals(authClient.getAccessToken()) && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals("refreshed", authClient.getAccessToken());
+    }
+
+    @Test
+    void testTenantsShareTransport() throws Exception {
+        String body = "{\"access_token\": \"t\", \"refresh_token\": \"r\", \"user\": {\"id\": \"u\"}}";
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(body));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(body));
+
+        AuthConfig base = new AuthConfig.Builder().baseUrl(mockWebServer.url("/").toString()).build();
+        try (AuthTransport transport = new AuthTransport(base);
+                AuthClient tenantA = new AuthClient(new AuthConfig.Builder()
+                        .baseUrl(mockWebServer.url("/").toString()).apiKey("tenant-a").build(), transport);
+                AuthClient tenantB = new AuthClient(new AuthConfig.Builder()
+                        .baseUrl(mockWebServer.url("/").toString()).apiKey("tenant-b").build(), transport)) {
+            tenantA.login("a@example.com", "password");
+            tenantB.login("b@example.com", "password");
+
+            assertEquals("tenant-a", mockWebServer.takeRequest().getHeader("x-api-key"));
+            assertEquals("tenant-b", mockWebServer.takeRequest().getHeader("x-api-key"));
+            // Both tenants reused the same pooled connection
+            assertEquals(1, transport.connectionCount());
+        }
+    }
+
+    @Test
+    void testSessionsAreIsolatedAndRefreshIndependently() throws Exception {
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(
+                "{\"access_token\": \"a_alice\", \"refresh_token\": \"r_alice\", \"user\": {\"id\": \"alice\"}}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(
+                "{\"access_token\": \"a_bob\", \"refresh_token\": \"r_bob\", \"user\": {\"id\": \"bob\"}}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(401));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(
+                "{\"access_token\": \"a_bob_2\", \"refresh_token\": \"r_bob_2\"}"));
+        mockWebServer.enqueue(new MockResponse().setResponseCode(200).setBody(
+                "{\"secret\": \"JBSWY3DPEHPK3PXP\"}"));
+
+        authClient.login("session-a", "alice@example.com", "password");
+        authClient.login("session-b", "bob@example.com", "password");
+
+        assertEquals("alice", authClient.getCurrentUser("session-a").getId());
+        assertEquals("bob", authClient.getCurrentUser("session-b").getId());
+        assertFalse(authClient.isAuthenticated());
+
+        assertEquals("JBSWY3DPEHPK3PXP", authClient.enableMfa("session-b").getSecret());
+
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        mockWebServer.takeRequest();
+        assertTrue(mockWebServer.takeRequest().getBody().readUtf8().contains("r_bob"));
+        assertEquals("Bearer a_bob_2", mockWebServer.takeRequest().getHeader("Authorization"));
+
+        // Only bob's session was refreshed; the user survives a refresh response without one
+        assertEquals("a_bob_2", authClient.getAccessToken("session-b"));
+        assertEquals("bob", authClient.getCurrentUser("session-b").getId());
+        assertEquals("a_alice", authClient.getAccessToken("session-a"));
+    }
 }
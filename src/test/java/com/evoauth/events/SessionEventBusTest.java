@@ -0,0 +1,117 @@
+package com.evoauth.events;
+
+import com.evoauth.models.AuthResponse;
+import com.evoauth.models.User;
+import com.evoauth.session.SessionRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionEventBusTest {
+
+    @Test
+    void deliversEveryEventInOrderWhenBlocking() throws Exception {
+        List<Long> sequences = Collections.synchronizedList(new ArrayList<>());
+        AtomicInteger batches = new AtomicInteger();
+        SessionEventBus bus = new SessionEventBus.Builder()
+                .bufferSize(64)
+                .backPressure(SessionEventBus.BackPressure.BLOCK)
+                .listener((event, endOfBatch) -> {
+                    sequences.add(event.getSequence());
+                    if (endOfBatch) {
+                        batches.incrementAndGet();
+                    }
+                })
+                .build();
+
+        int producers = 4;
+        int perProducer = 5_000;
+        Thread[] threads = new Thread[producers];
+        for (int p = 0; p < producers; p++) {
+            threads[p] = new Thread(() -> {
+                for (int i = 0; i < perProducer; i++) {
+                    assertTrue(bus.publish(SessionEventType.LOGIN, "s", "u"));
+                }
+            });
+            threads[p].start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+        bus.close();
+
+        assertEquals(producers * perProducer, sequences.size());
+        for (int i = 0; i < sequences.size(); i++) {
+            assertEquals(i, sequences.get(i));
+        }
+        assertTrue(batches.get() > 0);
+        assertEquals(0, bus.getDroppedCount());
+    }
+
+    @Test
+    void dropsWhenSlowListenerFallsBehind() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger delivered = new AtomicInteger();
+        SessionEventBus bus = new SessionEventBus.Builder()
+                .bufferSize(8)
+                .backPressure(SessionEventBus.BackPressure.DROP)
+                .listener((event, endOfBatch) -> {
+                    try {
+                        release.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    delivered.incrementAndGet();
+                })
+                .build();
+
+        int accepted = 0;
+        for (int i = 0; i < 100; i++) {
+            if (bus.publish(SessionEventType.REFRESH, "s" + i, null)) {
+                accepted++;
+            }
+        }
+        release.countDown();
+        bus.close();
+
+        assertTrue(accepted <= 9, "accepted " + accepted);
+        assertEquals(100 - accepted, bus.getDroppedCount());
+        assertEquals(accepted, delivered.get());
+    }
+
+    @Test
+    void registryPublishesLifecycleEvents() {
+        List<String> events = Collections.synchronizedList(new ArrayList<>());
+        SessionEventBus bus = new SessionEventBus.Builder()
+                .backPressure(SessionEventBus.BackPressure.BLOCK)
+                .listener((event, endOfBatch) ->
+                        events.add(event.getType() + ":" + event.getSessionId() + ":" + event.getUserId()))
+                .build();
+        SessionRegistry registry = new SessionRegistry();
+        registry.setEventBus(bus);
+
+        User user = new User();
+        user.setId("user-1");
+        AuthResponse response = new AuthResponse();
+        response.setAccessToken("access");
+        response.setRefreshToken("refresh");
+        response.setUser(user);
+
+        registry.startSession("a", response);
+        registry.applyRefresh("a", response);
+        registry.recordMfaEnrolled("a");
+        registry.endSession("a");
+        registry.endSession("a");
+        bus.close();
+
+        assertEquals(List.of("LOGIN:a:user-1", "REFRESH:a:user-1", "MFA_ENROLLED:a:user-1", "LOGOUT:a:user-1"),
+                events);
+    }
+}
@@ -0,0 +1,57 @@
+package com.evoauth.http;
+
+import com.evoauth.core.AuthConfig;
+import com.evoauth.exceptions.AuthSdkException;
+import com.evoauth.models.LoginRequest;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpClientProviderTest {
+    private MockWebServer authServer;
+    private HttpClientProvider httpClient;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        authServer = new MockWebServer();
+        authServer.start();
+        httpClient = new HttpClientProvider(new AuthConfig.Builder()
+                .baseUrl(authServer.url("/").toString())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        httpClient.close();
+        authServer.shutdown();
+    }
+
+    @Test
+    void postsJsonWithContentLength() throws Exception {
+        authServer.enqueue(new MockResponse().setResponseCode(200).setBody("{}"));
+
+        httpClient.post("/auth/login", new LoginRequest("test@example.com", "secret"), Map.class);
+
+        RecordedRequest request = authServer.takeRequest();
+        String body = request.getBody().readUtf8();
+        assertEquals(String.valueOf(body.getBytes().length), request.getHeader("Content-Length"));
+        assertNull(request.getHeader("Transfer-Encoding"));
+        assertTrue(body.contains("\"email\":\"test@example.com\""), body);
+        assertEquals("application/json; charset=utf-8", request.getHeader("Content-Type"));
+    }
+
+    @Test
+    void reportsUnserializablePayloads() {
+        AuthSdkException e = assertThrows(AuthSdkException.class,
+                () -> httpClient.post("/auth/login", new Object(), Map.class));
+        assertEquals("Failed to serialize request body", e.getMessage());
+        assertEquals(0, authServer.getRequestCount());
+    }
+}
@@ -0,0 +1,84 @@
+package com.evoauth.http;
+
+import com.evoauth.core.AuthConfig;
+import okhttp3.mockwebserver.Dispatcher;
+import okhttp3.mockwebserver.MockResponse;
+import okhttp3.mockwebserver.MockWebServer;
+import okhttp3.mockwebserver.RecordedRequest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Duration;
+import java.util.Base64;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JwksKeyProviderTest {
+    private MockWebServer authServer;
+    private HttpClientProvider httpClient;
+    private final AtomicInteger jwksRequests = new AtomicInteger();
+    private volatile String currentKid = "key-1";
+    private RSAPublicKey publicKey;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        publicKey = (RSAPublicKey) generator.generateKeyPair().getPublic();
+
+        authServer = new MockWebServer();
+        authServer.setDispatcher(new Dispatcher() {
+            @Override
+            public MockResponse dispatch(RecordedRequest request) {
+                jwksRequests.incrementAndGet();
+                return new MockResponse().setResponseCode(200).setBody(jwks(currentKid));
+            }
+        });
+        authServer.start();
+        httpClient = new HttpClientProvider(new AuthConfig.Builder()
+                .baseUrl(authServer.url("/").toString())
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        authServer.shutdown();
+    }
+
+    private String jwks(String kid) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return "{\"keys\": [{\"kty\": \"RSA\", \"kid\": \"" + kid + "\", " +
+                "\"n\": \"" + encoder.encodeToString(publicKey.getModulus().toByteArray()) + "\", " +
+                "\"e\": \"" + encoder.encodeToString(publicKey.getPublicExponent().toByteArray()) + "\"}]}";
+    }
+
+    @Test
+    void unknownKidFetchesAreRateLimited() {
+        try (JwksKeyProvider provider = new JwksKeyProvider(httpClient, "/.well-known/jwks.json",
+                Duration.ofHours(1), Duration.ofHours(1))) {
+            assertNotNull(provider.resolve("key-1"));
+            int afterWarmup = jwksRequests.get();
+
+            for (int i = 0; i < 50; i++) {
+                assertNull(provider.resolve("unknown"));
+            }
+            assertEquals(afterWarmup, jwksRequests.get());
+        }
+    }
+
+    @Test
+    void rotationIsPickedUpOnUnknownKid() {
+        try (JwksKeyProvider provider = new JwksKeyProvider(httpClient, "/.well-known/jwks.json",
+                Duration.ofHours(1), Duration.ZERO)) {
+            assertNotNull(provider.resolve("key-1"));
+
+            currentKid = "key-2";
+            assertNotNull(provider.resolve("key-2"));
+            assertFalse(provider.getKeys().containsKey("key-1"));
+        }
+    }
+}
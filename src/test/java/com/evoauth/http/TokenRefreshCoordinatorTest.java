@@ -0,0 +1,98 @@
+package com.evoauth.http;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenRefreshCoordinatorTest {
+
+    /**
+     * Fake session whose refresh blocks until released, so callers pile up behind it.
+     */
+    private static class SlowRefresher implements HttpClientProvider.TokenRefresher {
+        final AtomicInteger calls = new AtomicInteger();
+        final CountDownLatch release = new CountDownLatch(1);
+        volatile String accessToken = "old";
+        volatile String refreshToken = "r1";
+
+        @Override
+        public String refreshToken() {
+            calls.incrementAndGet();
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            accessToken = "new";
+            refreshToken = "r2";
+            return accessToken;
+        }
+
+        @Override
+        public String currentAccessToken() {
+            return accessToken;
+        }
+
+        @Override
+        public String currentRefreshToken() {
+            return refreshToken;
+        }
+    }
+
+    @Test
+    void concurrentRefreshesShareOneCall() throws Exception {
+        TokenRefreshCoordinator coordinator = new TokenRefreshCoordinator();
+        SlowRefresher refresher = new SlowRefresher();
+        ExecutorService pool = Executors.newFixedThreadPool(16);
+        try {
+            List<Future<String>> results = new ArrayList<>();
+            for (int i = 0; i < 16; i++) {
+                results.add(pool.submit(() -> coordinator.refresh("old", refresher)));
+            }
+            // Give every caller a chance to queue up behind the first refresh
+            while (refresher.calls.get() == 0) {
+                Thread.onSpinWait();
+            }
+            Thread.sleep(100);
+            refresher.release.countDown();
+
+            for (Future<String> result : results) {
+                assertEquals("new", result.get(5, TimeUnit.SECONDS));
+            }
+            assertEquals(1, refresher.calls.get());
+            assertEquals(0, coordinator.inFlightCount());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void staleRequestReusesCurrentToken() {
+        TokenRefreshCoordinator coordinator = new TokenRefreshCoordinator();
+        SlowRefresher refresher = new SlowRefresher();
+        refresher.accessToken = "already_refreshed";
+
+        assertEquals("already_refreshed", coordinator.refresh("old", refresher));
+        assertEquals(0, refresher.calls.get());
+    }
+
+    @Test
+    void failedRefreshReturnsNull() {
+        TokenRefreshCoordinator coordinator = new TokenRefreshCoordinator();
+        HttpClientProvider.TokenRefresher failing = () -> {
+            throw new IllegalStateException("refresh rejected");
+        };
+
+        assertNull(coordinator.refresh("old", failing));
+        assertEquals(0, coordinator.inFlightCount());
+    }
+}
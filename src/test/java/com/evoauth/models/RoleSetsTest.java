@@ -0,0 +1,48 @@
+package com.evoauth.models;
+
+import com.evoauth.session.SessionSnapshot;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoleSetsTest {
+
+    @Test
+    void equalCombinationsShareOneImmutableList() {
+        List<String> a = RoleSets.canonical(new ArrayList<>(Arrays.asList("USER", "ADMIN")));
+        List<String> b = RoleSets.canonical(new ArrayList<>(Arrays.asList("ADMIN", "USER", "ADMIN")));
+
+        assertSame(a, b);
+        assertEquals(List.of("ADMIN", "USER"), a);
+        assertThrows(UnsupportedOperationException.class, () -> a.add("OWNER"));
+        assertNull(RoleSets.canonical(null));
+    }
+
+    @Test
+    void deserializedUsersShareRoleLists() throws Exception {
+        ObjectMapper mapper = new ObjectMapper();
+        User first = mapper.readValue("{\"id\": \"u1\", \"roles\": [\"USER\", \"ADMIN\"]}", User.class);
+        User second = mapper.readValue("{\"id\": \"u2\", \"roles\": [\"ADMIN\", \"USER\"]}", User.class);
+
+        assertSame(first.getRoles(), second.getRoles());
+    }
+
+    @Test
+    void refreshKeepsUnchangedUserInstance() {
+        User user = new User("u1", "a@example.com", List.of("USER"));
+        SessionSnapshot session = new SessionSnapshot("access", "refresh", user);
+
+        AuthResponse refresh = new AuthResponse();
+        refresh.setAccessToken("access-2");
+        refresh.setUser(new User("u1", "a@example.com", new ArrayList<>(List.of("USER"))));
+        assertSame(user, session.refreshedWith(refresh, 0).getUser());
+
+        refresh.setUser(new User("u1", "a@example.com", List.of("ADMIN", "USER")));
+        assertNotSame(user, session.refreshedWith(refresh, 0).getUser());
+    }
+}
@@ -0,0 +1,83 @@
+package com.evoauth.security;
+
+import com.evoauth.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AccessPolicyTest {
+
+    private final AccessPolicy policy = new AccessPolicy.Builder()
+            .inherit("ADMIN", "MANAGER")
+            .inherit("MANAGER", "USER")
+            .inherit("AUDITOR", "USER")
+            .grant("USER", "accounts:read")
+            .grant("MANAGER", "accounts:transfer")
+            .grant("ADMIN", "users:delete")
+            .grant("AUDITOR", "ledger:export")
+            .build();
+
+    private final User admin = new User("u1", "admin@example.com", List.of("ADMIN"));
+    private final User auditor = new User("u2", "audit@example.com", List.of("AUDITOR"));
+
+    @AfterEach
+    void tearDown() {
+        PermissionGuard.setPolicy(null);
+    }
+
+    @Test
+    void permissionsFollowTheHierarchy() {
+        assertEquals(Set.of("accounts:read", "accounts:transfer", "users:delete"), policy.permissionsOf(admin));
+        assertTrue(policy.hasPermission(admin, "accounts:read"));
+        assertFalse(policy.hasPermission(admin, "ledger:export"));
+        assertTrue(policy.hasPermission(auditor, "accounts:read"));
+        assertFalse(policy.hasPermission(auditor, "accounts:transfer"));
+        assertFalse(policy.hasPermission(auditor, "unknown:permission"));
+        assertFalse(policy.hasPermission(null, "accounts:read"));
+    }
+
+    @Test
+    void guardUsesInstalledPolicy() {
+        assertFalse(PermissionGuard.hasRole(admin, "USER"));
+        assertFalse(PermissionGuard.hasPermission(admin, "accounts:read"));
+
+        PermissionGuard.setPolicy(policy);
+        assertTrue(PermissionGuard.hasRole(admin, "USER"));
+        assertTrue(PermissionGuard.hasAllRoles(admin, "MANAGER", "USER"));
+        assertFalse(PermissionGuard.hasAnyRole(admin, "AUDITOR"));
+        assertTrue(PermissionGuard.hasPermission(admin, "accounts:transfer"));
+
+        PermissionGuard.setPolicy(new AccessPolicy.Builder().grant("ADMIN", "users:delete").build());
+        assertFalse(PermissionGuard.hasRole(admin, "USER"));
+        assertFalse(PermissionGuard.hasPermission(admin, "accounts:transfer"));
+        assertTrue(PermissionGuard.hasPermission(admin, "users:delete"));
+    }
+
+    @Test
+    void staysCorrectPastTheCombinationCache() {
+        // 4950 distinct combinations, more than the policy caches
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 100; i++) {
+                for (int j = i + 1; j < 100; j++) {
+                    User user = new User("u", "u@example.com",
+                            List.of(i % 2 == 0 ? "AUDITOR" : "MANAGER", "EXTRA_" + i, "EXTRA_" + j));
+                    assertTrue(policy.hasPermission(user, "accounts:read"));
+                    assertEquals(i % 2 == 0, policy.hasPermission(user, "ledger:export"));
+                }
+            }
+        }
+    }
+
+    @Test
+    void rejectsCycles() {
+        AccessPolicy.Builder builder = new AccessPolicy.Builder()
+                .inherit("A", "B")
+                .inherit("B", "C")
+                .inherit("C", "A");
+        assertThrows(IllegalArgumentException.class, builder::build);
+    }
+}
@@ -0,0 +1,111 @@
+package com.evoauth.security;
+
+import com.evoauth.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BatchAuthorizerTest {
+
+    private static final List<List<String>> COMBINATIONS = List.of(
+            List.of("USER"), List.of("MANAGER"), List.of("ADMIN"), List.of("AUDITOR", "USER"), List.of());
+
+    @AfterEach
+    void tearDown() {
+        PermissionGuard.setPolicy(null);
+    }
+
+    @Test
+    void matchesIndividualChecks() {
+        PermissionGuard.setPolicy(new AccessPolicy.Builder()
+                .inherit("ADMIN", "MANAGER")
+                .inherit("MANAGER", "USER")
+                .grant("USER", "accounts:read")
+                .grant("MANAGER", "accounts:transfer")
+                .build());
+        List<User> users = new ArrayList<>();
+        for (int i = 0; i < 10_000; i++) {
+            User user = new User("u" + i, "user" + i + "@example.com", COMBINATIONS.get(i % COMBINATIONS.size()));
+            user.setMfaEnabled(i % 3 == 0);
+            users.add(i % 997 == 0 ? null : user);
+        }
+        PolicyExpression managerWithMfa = PolicyExpression.compile("hasRole('MANAGER') and mfaEnabled");
+
+        BatchAuthorizer authorizer = new BatchAuthorizer.Builder()
+                .requireRole("USER")
+                .requireAnyRole("AUDITOR", "ADMIN")
+                .requireAllRoles("AUDITOR", "USER")
+                .requirePermission("accounts:transfer")
+                .requirePermission("unknown:permission")
+                .require(managerWithMfa)
+                .parallelThreshold(512)
+                .build();
+        AuthorizationMatrix matrix = authorizer.evaluate(users);
+
+        assertEquals(10_000, matrix.getUserCount());
+        assertEquals(6, matrix.getRequirementCount());
+        for (int i = 0; i < users.size(); i++) {
+            User user = users.get(i);
+            assertEquals(PermissionGuard.hasRole(user, "USER"), matrix.isGranted(i, 0), "user " + i);
+            assertEquals(PermissionGuard.hasAnyRole(user, "AUDITOR", "ADMIN"), matrix.isGranted(i, 1));
+            assertEquals(PermissionGuard.hasAllRoles(user, "AUDITOR", "USER"), matrix.isGranted(i, 2));
+            assertEquals(PermissionGuard.hasPermission(user, "accounts:transfer"), matrix.isGranted(i, 3));
+            assertFalse(matrix.isGranted(i, 4));
+            assertEquals(user != null && managerWithMfa.evaluate(user), matrix.isGranted(i, 5));
+        }
+        assertEquals(matrix.usersGranted(3).cardinality(),
+                users.stream().filter(u -> PermissionGuard.hasPermission(u, "accounts:transfer")).count());
+    }
+
+    @Test
+    void expressionsUseThePolicyCapturedForTheBatch() {
+        PermissionGuard.setPolicy(new AccessPolicy.Builder()
+                .inherit("MANAGER", "USER")
+                .grant("USER", "accounts:read")
+                .build());
+        // Reading this user's MFA flag installs a policy that grants nothing, mid-row
+        User swapsPolicy = new User("u1", "a@example.com", List.of("MANAGER")) {
+            @Override
+            public boolean isMfaEnabled() {
+                PermissionGuard.setPolicy(null);
+                return true;
+            }
+        };
+        User next = new User("u2", "b@example.com", List.of("MANAGER"));
+
+        AuthorizationMatrix matrix = new BatchAuthorizer.Builder()
+                .require(PolicyExpression.compile("mfaEnabled and hasPermission('accounts:read')"))
+                .require(PolicyExpression.compile("hasRole('USER')"))
+                .build()
+                .evaluate(List.of(swapsPolicy, next));
+
+        assertTrue(matrix.isGranted(0, 0));
+        assertTrue(matrix.isGranted(0, 1));
+        assertTrue(matrix.isGranted(1, 1));
+        assertFalse(PermissionGuard.hasRole(next, "USER"));
+    }
+
+    @Test
+    void reportsRowsAndColumns() {
+        List<User> users = Arrays.asList(
+                new User("a", "a@example.com", List.of("ADMIN", "USER")),
+                new User("b", "b@example.com", List.of("USER")));
+        AuthorizationMatrix matrix = new BatchAuthorizer.Builder()
+                .requireRole("USER")
+                .requireRole("ADMIN")
+                .build()
+                .evaluate(users);
+
+        assertTrue(matrix.isGrantedAll(0));
+        assertFalse(matrix.isGrantedAll(1));
+        assertEquals(1, matrix.grantedTo(1).cardinality());
+        assertEquals(2, matrix.usersGranted(0).cardinality());
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.isGranted(2, 0));
+        assertThrows(IndexOutOfBoundsException.class, () -> matrix.isGranted(0, 2));
+    }
+}
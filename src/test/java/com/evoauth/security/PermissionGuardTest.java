@@ -0,0 +1,55 @@
+package com.evoauth.security;
+
+import com.evoauth.models.RoleMask;
+import com.evoauth.models.RoleRegistry;
+import com.evoauth.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PermissionGuardTest {
+
+    private final User user = new User("u1", "a@example.com", new ArrayList<>(List.of("USER", "BILLING")));
+
+    @Test
+    void checksRolesByName() {
+        assertTrue(PermissionGuard.hasRole(user, "USER"));
+        assertFalse(PermissionGuard.hasRole(user, "ADMIN"));
+        assertFalse(PermissionGuard.hasRole(user, "never-registered"));
+        assertTrue(PermissionGuard.hasAnyRole(user, "ADMIN", "BILLING"));
+        assertFalse(PermissionGuard.hasAnyRole(user, "ADMIN", "AUDITOR"));
+        assertTrue(PermissionGuard.hasAllRoles(user, "BILLING", "USER"));
+        assertFalse(PermissionGuard.hasAllRoles(user, "USER", "ADMIN"));
+        assertTrue(PermissionGuard.hasAllRoles(user));
+        assertFalse(PermissionGuard.hasRole(null, "USER"));
+        assertFalse(PermissionGuard.hasRole(new User(), "USER"));
+    }
+
+    @Test
+    void checksPrecompiledMasks() {
+        RoleMask admins = RoleMask.of("ADMIN");
+        RoleMask billingUsers = RoleMask.of("USER", "BILLING");
+
+        assertFalse(PermissionGuard.hasAnyRole(user, admins));
+        assertTrue(PermissionGuard.hasAllRoles(user, billingUsers));
+        assertTrue(PermissionGuard.hasAnyRole(user, RoleMask.of("ADMIN", "USER")));
+        assertEquals(billingUsers, user.getRoleMask());
+    }
+
+    @Test
+    void masksSpanMoreThanSixtyFourRoles() {
+        List<String> many = IntStream.range(0, 200).mapToObj(i -> "role-" + i).collect(Collectors.toList());
+        User powerUser = new User("u2", "b@example.com", many);
+
+        assertTrue(PermissionGuard.hasRole(powerUser, "role-199"));
+        assertTrue(PermissionGuard.hasAllRoles(powerUser, RoleMask.of("role-0", "role-150")));
+        assertFalse(PermissionGuard.hasRole(powerUser, "USER"));
+        assertTrue(RoleRegistry.idOf("role-199") >= 0);
+        assertEquals(200, powerUser.getRoleMask().size());
+    }
+}
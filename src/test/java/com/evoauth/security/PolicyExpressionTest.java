@@ -0,0 +1,81 @@
+package com.evoauth.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.evoauth.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolicyExpressionTest {
+
+    private static final String RULE = "hasRole('ADMIN') or (hasRole('TELLER') and mfaEnabled)";
+
+    @AfterEach
+    void tearDown() {
+        PermissionGuard.setPolicy(null);
+    }
+
+    @Test
+    void evaluatesBooleanCombinations() {
+        PolicyExpression rule = PolicyExpression.compile(RULE);
+        User teller = new User("u1", "teller@bank.example", List.of("TELLER"));
+
+        assertFalse(rule.evaluate(teller));
+        teller.setMfaEnabled(true);
+        assertTrue(rule.evaluate(teller));
+        assertTrue(rule.evaluate(new User("u2", "root@bank.example", List.of("ADMIN"))));
+        assertFalse(rule.evaluate((User) null));
+
+        assertTrue(PolicyExpression.compile("!hasAnyRole('ADMIN', 'AUDITOR') && emailDomain('BANK.example')")
+                .evaluate(teller));
+        assertFalse(PolicyExpression.compile("emailDomain('example')").evaluate(teller));
+        assertTrue(PolicyExpression.compile("not false and true").evaluate(teller));
+    }
+
+    @Test
+    void cachesCompiledForm() {
+        assertSame(PolicyExpression.compile(RULE), PolicyExpression.compile(RULE));
+    }
+
+    @Test
+    void followsInstalledPolicy() {
+        PolicyExpression rule = PolicyExpression.compile("hasPermission('accounts:transfer') and hasRole('USER')");
+        User manager = new User("u1", "m@example.com", List.of("MANAGER"));
+        assertFalse(rule.evaluate(manager));
+
+        PermissionGuard.setPolicy(new AccessPolicy.Builder()
+                .inherit("MANAGER", "USER")
+                .grant("MANAGER", "accounts:transfer")
+                .build());
+        assertTrue(rule.evaluate(manager));
+    }
+
+    @Test
+    void matchesTokenClaims() {
+        User user = new User("u1", "a@example.com", List.of("USER"));
+        VerifiedToken token = new VerifiedToken(JWT.decode(JWT.create()
+                .withClaim("department", "treasury")
+                .withClaim("groups", List.of("eu", "payments"))
+                .sign(Algorithm.none())), user);
+
+        assertTrue(PolicyExpression.compile("claim('department', 'treasury') and claim('groups', 'payments')")
+                .evaluate(token));
+        assertFalse(PolicyExpression.compile("hasClaim('tenant')").evaluate(token));
+        assertFalse(PolicyExpression.compile("hasClaim('department')").evaluate(user));
+    }
+
+    @Test
+    void reportsSyntaxErrors() {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> PolicyExpression.compile("hasRole('ADMIN') or"));
+        assertTrue(e.getMessage().contains("position"), e.getMessage());
+        assertThrows(IllegalArgumentException.class, () -> PolicyExpression.compile("isRoot"));
+        assertThrows(IllegalArgumentException.class, () -> PolicyExpression.compile("hasRole('A', 'B')"));
+        assertThrows(IllegalArgumentException.class, () -> PolicyExpression.compile("(true"));
+        assertThrows(IllegalArgumentException.class, () -> PolicyExpression.compile("hasRole('A"));
+    }
+}
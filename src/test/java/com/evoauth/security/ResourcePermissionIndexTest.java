@@ -0,0 +1,84 @@
+package com.evoauth.security;
+
+import com.evoauth.models.RoleMask;
+import com.evoauth.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ResourcePermissionIndexTest {
+
+    private final ResourcePermissionIndex index = new ResourcePermissionIndex.Builder()
+            .rule("GET", "/accounts/*/statements", "STATEMENT_READ")
+            .rule("GET", "/accounts/*", "ACCOUNT_READ")
+            .rule("GET", "/accounts/archived", "AUDITOR")
+            .rule("POST", "/accounts/*/transfers", "TELLER", "ADMIN")
+            .rule("*", "/admin/**", "ADMIN")
+            .rule("GET", "/admin/health", "OPS")
+            .rule("GET", "/public/**", "USER")
+            .build();
+
+    @Test
+    void resolvesMostSpecificRule() {
+        assertEquals(RoleMask.of("STATEMENT_READ"), index.resolve("GET", "/accounts/42/statements"));
+        assertEquals(RoleMask.of("ACCOUNT_READ"), index.resolve("get", "/accounts/42/"));
+        assertEquals(RoleMask.of("AUDITOR"), index.resolve("GET", "/accounts/archived"));
+        assertEquals(RoleMask.of("OPS"), index.resolve("GET", "/admin/health"));
+        assertEquals(RoleMask.of("ADMIN"), index.resolve("DELETE", "/admin/users/7"));
+        assertEquals(RoleMask.of("ADMIN"), index.resolve("GET", "/admin"));
+        assertEquals(RoleMask.of("USER"), index.resolve("GET", "//public/docs/a/b/c"));
+        assertNull(index.resolve("DELETE", "/accounts/42"));
+        assertNull(index.resolve("GET", "/accounts/42/statements/2024"));
+        assertNull(index.resolve("GET", "/unknown"));
+        assertEquals(7, index.size());
+    }
+
+    @Test
+    void doubleWildcardMatchesInTheMiddle() {
+        ResourcePermissionIndex docs = new ResourcePermissionIndex.Builder()
+                .rule("GET", "/files/**/download", "USER")
+                .build();
+
+        assertNotNull(docs.resolve("GET", "/files/download"));
+        assertNotNull(docs.resolve("GET", "/files/a/b/c/download"));
+        assertNull(docs.resolve("GET", "/files/a/b/c"));
+    }
+
+    @Test
+    void repeatedDoubleWildcardsStayFastOnLongPaths() {
+        ResourcePermissionIndex nested = new ResourcePermissionIndex.Builder()
+                .rule("GET", "/**/a/**/b/**/c/**/d", "USER")
+                .build();
+        StringBuilder path = new StringBuilder();
+        for (int i = 0; i < 500; i++) {
+            path.append(i % 2 == 0 ? "/a/b" : "/c");
+        }
+
+        // Without remembering failed branches this is billions of attempts
+        assertTimeoutPreemptively(Duration.ofSeconds(5), () -> {
+            assertNull(nested.resolve("GET", path.toString()));
+            assertNotNull(nested.resolve("GET", path + "/d"));
+        });
+    }
+
+    @Test
+    void checksUserRoles() {
+        User teller = new User("u1", "t@example.com", List.of("TELLER"));
+
+        assertTrue(index.check(teller, "POST", "/accounts/42/transfers"));
+        assertFalse(index.check(teller, "GET", "/accounts/42/statements"));
+        assertFalse(index.check(teller, "GET", "/nothing/here"));
+        assertFalse(index.check(null, "POST", "/accounts/42/transfers"));
+    }
+
+    @Test
+    void rejectsMalformedRules() {
+        ResourcePermissionIndex.Builder builder = new ResourcePermissionIndex.Builder();
+        assertThrows(IllegalArgumentException.class, () -> builder.rule("GET", "accounts", "USER"));
+        assertThrows(IllegalArgumentException.class, () -> builder.rule("GET", "/accounts/ab*", "USER"));
+        assertThrows(IllegalArgumentException.class, () -> builder.rule("GET", "/accounts"));
+    }
+}
@@ -0,0 +1,166 @@
+package com.evoauth.security;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.algorithms.Algorithm;
+import com.evoauth.exceptions.AuthSdkException;
+import com.evoauth.exceptions.TokenVerificationException;
+import com.evoauth.models.User;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TokenVerifierTest {
+    private static RSAPublicKey publicKey;
+    private static RSAPrivateKey privateKey;
+
+    @BeforeAll
+    static void generateKeys() throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair pair = generator.generateKeyPair();
+        publicKey = (RSAPublicKey) pair.getPublic();
+        privateKey = (RSAPrivateKey) pair.getPrivate();
+    }
+
+    private static String sign(String kid, Instant expiresAt, String issuer) {
+        return JWT.create()
+                .withKeyId(kid)
+                .withSubject("user_123")
+                .withIssuer(issuer)
+                .withAudience("bank-api")
+                .withExpiresAt(expiresAt)
+                .withClaim("email", "test@example.com")
+                .withClaim("roles", List.of("ADMIN", "USER"))
+                .withClaim("mfa_enabled", true)
+                .sign(Algorithm.RSA256(publicKey, privateKey));
+    }
+
+    private static String jwks(String kid) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return "{\"keys\": [{\"kty\": \"RSA\", \"use\": \"sig\", \"kid\": \"" + kid + "\", " +
+                "\"n\": \"" + encoder.encodeToString(publicKey.getModulus().toByteArray()) + "\", " +
+                "\"e\": \"" + encoder.encodeToString(publicKey.getPublicExponent().toByteArray()) + "\"}]}";
+    }
+
+    private static TokenVerifier.Builder verifier() {
+        return new TokenVerifier.Builder()
+                .jwks(jwks("key-1"))
+                .issuer("https://auth.example.com")
+                .audience("bank-api");
+    }
+
+    @Test
+    void verifiesTokenAgainstJwks() {
+        String token = sign("key-1", Instant.now().plusSeconds(300), "https://auth.example.com");
+
+        VerifiedToken verified = verifier().build().verify(token);
+        User user = verified.getUser();
+
+        assertEquals("user_123", user.getId());
+        assertEquals("test@example.com", user.getEmail());
+        assertEquals(List.of("ADMIN", "USER"), user.getRoles());
+        assertTrue(user.isMfaEnabled());
+        assertEquals("key-1", verified.getKeyId());
+        assertEquals("test@example.com", verified.getClaim("email"));
+    }
+
+    @Test
+    void rejectsExpiredTokenOutsideClockSkew() {
+        String token = sign("key-1", Instant.now().minusSeconds(120), "https://auth.example.com");
+
+        TokenVerificationException e = assertThrows(TokenVerificationException.class,
+                () -> verifier().clockSkewSeconds(30).build().verify(token));
+        assertEquals(TokenVerificationException.Reason.EXPIRED, e.getReason());
+
+        // Within the configured skew the same token is still accepted
+        assertTrue(verifier().clockSkewSeconds(300).build().isValid(token));
+    }
+
+    @Test
+    void rejectsWrongIssuerAndUnknownKey() {
+        TokenVerifier tokenVerifier = verifier().build();
+
+        TokenVerificationException wrongIssuer = assertThrows(TokenVerificationException.class,
+                () -> tokenVerifier.verify(sign("key-1", Instant.now().plusSeconds(300), "https://evil.example")));
+        assertEquals(TokenVerificationException.Reason.INVALID_CLAIMS, wrongIssuer.getReason());
+
+        TokenVerificationException unknownKey = assertThrows(TokenVerificationException.class,
+                () -> tokenVerifier.verify(sign("key-2", Instant.now().plusSeconds(300), "https://auth.example.com")));
+        assertEquals(TokenVerificationException.Reason.INVALID_SIGNATURE, unknownKey.getReason());
+    }
+
+    @Test
+    void rejectsMalformedAndUnsupportedTokens() {
+        TokenVerifier tokenVerifier = verifier().build();
+        String hmacToken = JWT.create().withExpiresAt(Instant.now().plusSeconds(60)).sign(Algorithm.HMAC256("secret"));
+
+        assertEquals(TokenVerificationException.Reason.MALFORMED,
+                assertThrows(TokenVerificationException.class, () -> tokenVerifier.verify("not-a-jwt")).getReason());
+        assertEquals(TokenVerificationException.Reason.UNSUPPORTED_ALGORITHM,
+                assertThrows(TokenVerificationException.class, () -> tokenVerifier.verify(hmacToken)).getReason());
+    }
+
+    @Test
+    void cachesVerificationsUntilInvalidated() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        TokenVerifier tokenVerifier = verifier().cache(cache).build();
+        String token = sign("key-1", Instant.now().plusSeconds(300), "https://auth.example.com");
+
+        VerifiedToken first = tokenVerifier.verify(token);
+        VerifiedToken second = tokenVerifier.verify(token);
+
+        assertSame(first, second);
+        assertEquals(1, cache.hitCount());
+        assertEquals(1, cache.missCount());
+
+        cache.invalidate(token);
+        assertNotSame(first, tokenVerifier.verify(token));
+        assertEquals(2, cache.missCount());
+    }
+
+    @Test
+    void sharedCacheDoesNotBypassAnotherVerifiersChecks() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(100);
+        TokenVerifier lenient = verifier().cache(cache).build();
+        TokenVerifier strict = verifier().issuer("https://other.example.com").cache(cache).build();
+        String token = sign("key-1", Instant.now().plusSeconds(300), "https://auth.example.com");
+
+        lenient.verify(token);
+        assertThrows(TokenVerificationException.class, () -> strict.verify(token));
+        assertNotNull(lenient.verify(token));
+    }
+
+    @Test
+    void skipsMalformedKeysInJwks() {
+        String broken = "{\"kty\": \"RSA\", \"kid\": \"broken\", \"n\": \"!!!\"}";
+        String document = jwks("key-1").replace("{\"keys\": [", "{\"keys\": [" + broken + ", ");
+
+        JsonWebKeySet keys = JsonWebKeySet.parse(document);
+        assertNotNull(keys.resolve("key-1"));
+        assertNull(keys.resolve("broken"));
+
+        assertThrows(AuthSdkException.class, () -> JsonWebKeySet.parse("{\"keys\": [" + broken + "]}"));
+    }
+
+    @Test
+    void cacheEvictsBeyondMaximumSize() {
+        VerifiedTokenCache cache = new VerifiedTokenCache(16);
+        TokenVerifier tokenVerifier = verifier().cache(cache).build();
+
+        for (int i = 0; i < 200; i++) {
+            tokenVerifier.verify(sign("key-1", Instant.now().plusSeconds(300 + i), "https://auth.example.com"));
+        }
+
+        assertTrue(cache.size() <= 16);
+        assertTrue(cache.evictionCount() > 0);
+    }
+}
@@ -0,0 +1,133 @@
+package com.evoauth.session;
+
+import com.evoauth.models.AuthResponse;
+import com.evoauth.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BoundedSessionStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void staysWithinMaximumSizeAndKeepsFrequentSessions() {
+        List<String> evicted = new ArrayList<>();
+        BoundedSessionStore store = new BoundedSessionStore.Builder()
+                .maximumSize(100)
+                .clock(now::get)
+                .evictionListener((id, session, cause) -> {
+                    assertEquals(SessionEvictionListener.Cause.SIZE, cause);
+                    evicted.add(id);
+                })
+                .build();
+
+        store.put("hot", session("hot", 0));
+        for (int i = 0; i < 20; i++) {
+            assertNotNull(store.get("hot"));
+        }
+        // A burst of one-off logins must not push out the session in active use
+        for (int i = 0; i < 1_000; i++) {
+            store.put("cold-" + i, session("cold-" + i, 0));
+        }
+
+        assertEquals(100, store.size());
+        assertEquals(901, evicted.size());
+        assertNotNull(store.get("hot"));
+    }
+
+    @Test
+    void expiresSessionsAtRefreshTokenExpiry() {
+        List<String> expired = new ArrayList<>();
+        BoundedSessionStore store = new BoundedSessionStore.Builder()
+                .maximumSize(1_000)
+                .clock(now::get)
+                .evictionListener((id, session, cause) -> {
+                    assertEquals(SessionEvictionListener.Cause.EXPIRED, cause);
+                    expired.add(id);
+                })
+                .build();
+
+        store.put("short", session("short", now.get() + 60_000));
+        store.put("long", session("long", now.get() + 3_600_000));
+
+        now.addAndGet(61_000);
+        assertNull(store.get("short"));
+        assertNotNull(store.get("long"));
+
+        store.cleanUp();
+        assertEquals(List.of("short"), expired);
+        assertEquals(1, store.size());
+
+        // Far beyond one wheel revolution
+        now.addAndGet(Duration.ofDays(1).toMillis());
+        store.cleanUp();
+        assertEquals(List.of("short", "long"), expired);
+        assertEquals(0, store.size());
+    }
+
+    @Test
+    void expiresMidTickDeadlinesWithinOneTick() {
+        List<String> expired = new ArrayList<>();
+        BoundedSessionStore store = new BoundedSessionStore.Builder()
+                .clock(now::get)
+                .expiryResolution(Duration.ofSeconds(1))
+                .evictionListener((id, session, cause) -> expired.add(id))
+                .build();
+
+        store.put("s", session("s", now.get() + 60_500));
+
+        now.addAndGet(60_000);
+        store.cleanUp();
+        assertTrue(expired.isEmpty());
+
+        now.addAndGet(1_500);
+        store.cleanUp();
+        assertEquals(List.of("s"), expired);
+    }
+
+    @Test
+    void fallsBackToConfiguredRefreshLifetime() {
+        BoundedSessionStore store = new BoundedSessionStore.Builder()
+                .clock(now::get)
+                .refreshTokenLifetime(Duration.ofMinutes(10))
+                .build();
+
+        store.put("s", session("s", 0));
+        now.addAndGet(Duration.ofMinutes(9).toMillis());
+        assertNotNull(store.get("s"));
+        now.addAndGet(Duration.ofMinutes(2).toMillis());
+        assertNull(store.get("s"));
+    }
+
+    @Test
+    void sessionManagerCarriesExpiriesThroughForSession() {
+        BoundedSessionStore store = new BoundedSessionStore.Builder()
+                .refreshTokenLifetime(Duration.ZERO)
+                .defaultTtl(Duration.ZERO)
+                .build();
+        SessionManager manager = new SessionManager(store.forSession("s"));
+
+        AuthResponse response = new AuthResponse();
+        response.setAccessToken("access");
+        response.setRefreshToken("refresh");
+        response.setExpiresIn(300);
+        response.setRefreshExpiresIn(3600);
+        long before = System.currentTimeMillis();
+        manager.startSession(response);
+
+        SessionSnapshot stored = store.get("s");
+        assertTrue(stored.getAccessTokenExpiresAt() >= before + 300_000);
+        assertTrue(stored.getRefreshTokenExpiresAt() >= before + 3_600_000);
+    }
+
+    private static SessionSnapshot session(String id, long refreshExpiresAt) {
+        return new SessionSnapshot("a-" + id, "r-" + id, new User(id, id + "@example.com", List.of("USER")),
+                0, refreshExpiresAt);
+    }
+}
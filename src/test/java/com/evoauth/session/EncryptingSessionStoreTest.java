@@ -0,0 +1,86 @@
+package com.evoauth.session;
+
+import com.evoauth.exceptions.AuthSdkException;
+import com.evoauth.models.User;
+import com.evoauth.security.EncryptionKeyProvider;
+import com.evoauth.security.TokenCipher;
+import org.junit.jupiter.api.Test;
+
+import javax.crypto.SecretKey;
+import javax.crypto.spec.SecretKeySpec;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EncryptingSessionStoreTest {
+
+    private static final SecretKey KEY_1 = new SecretKeySpec(new byte[32], "AES");
+    private static final SecretKey KEY_2 = new SecretKeySpec(new byte[] {
+            1, 2, 3, 4, 5, 6, 7, 8, 9, 10, 11, 12, 13, 14, 15, 16 }, "AES");
+
+    private final InMemorySessionStore plain = new InMemorySessionStore();
+
+    @Test
+    void storesOnlyCiphertextAndDecryptsOnRead() {
+        EncryptingSessionStore store = new EncryptingSessionStore(plain,
+                new TokenCipher(EncryptionKeyProvider.of("k1", KEY_1)));
+        User user = new User("user_1", "a@example.com", List.of("USER"));
+
+        store.put("s1", new SessionSnapshot("access-token", "refresh-token", user, 10, 20));
+        store.compute("s1", current -> current.withAccessToken("access-token-2"));
+
+        SessionSnapshot raw = plain.get("s1");
+        assertFalse(raw.getAccessToken().contains("access-token"));
+        assertFalse(raw.getRefreshToken().contains("refresh-token"));
+        assertEquals(20, raw.getRefreshTokenExpiresAt());
+
+        assertEquals("access-token-2", store.getAccessToken("s1"));
+        assertEquals("refresh-token", store.get("s1").getRefreshToken());
+        assertSame(user, store.get("s1").getUser());
+    }
+
+    @Test
+    void unchangedComputeKeepsTheStoredCiphertext() {
+        EncryptingSessionStore store = new EncryptingSessionStore(plain,
+                new TokenCipher(EncryptionKeyProvider.of("k1", KEY_1)));
+        store.put("s1", new SessionSnapshot("access-token", "refresh-token", null));
+        String stored = plain.get("s1").getAccessToken();
+
+        store.compute("s1", current -> current);
+        assertEquals(stored, plain.get("s1").getAccessToken());
+        assertEquals("access-token", store.getAccessToken("s1"));
+    }
+
+    @Test
+    void ciphertextIsBoundToItsSession() {
+        EncryptingSessionStore store = new EncryptingSessionStore(plain,
+                new TokenCipher(EncryptionKeyProvider.of("k1", KEY_1)));
+        store.put("victim", new SessionSnapshot("access", "refresh", null));
+
+        // Copying another session's ciphertext must not yield its tokens
+        plain.put("attacker", plain.get("victim"));
+        assertThrows(AuthSdkException.class, () -> store.getRefreshToken("attacker"));
+    }
+
+    @Test
+    void decryptsWithRetiredKeysAfterRotation() {
+        EncryptingSessionStore before = new EncryptingSessionStore(plain,
+                new TokenCipher(EncryptionKeyProvider.of("k1", KEY_1)));
+        before.put("old", new SessionSnapshot("old-access", "old-refresh", null));
+
+        EncryptingSessionStore after = new EncryptingSessionStore(plain,
+                new TokenCipher(EncryptionKeyProvider.of("k2", Map.of("k1", KEY_1, "k2", KEY_2))));
+        after.put("new", new SessionSnapshot("new-access", "new-refresh", null));
+
+        assertEquals("old-refresh", after.getRefreshToken("old"));
+        assertEquals("new-refresh", after.getRefreshToken("new"));
+        assertThrows(AuthSdkException.class, () -> before.getRefreshToken("new"));
+    }
+
+    @Test
+    void neverRepeatsAnIv() {
+        TokenCipher cipher = new TokenCipher(EncryptionKeyProvider.of("k1", KEY_1));
+        assertNotEquals(cipher.encrypt("same"), cipher.encrypt("same"));
+    }
+}
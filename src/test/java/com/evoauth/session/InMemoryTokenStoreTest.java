@@ -0,0 +1,108 @@
+package com.evoauth.session;
+
+import com.evoauth.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryTokenStoreTest {
+
+    @Test
+    void readersNeverObserveTornSessions() throws Exception {
+        InMemoryTokenStore store = new InMemoryTokenStore();
+        AtomicBoolean running = new AtomicBoolean(true);
+        AtomicLong torn = new AtomicLong();
+        AtomicLong reads = new AtomicLong();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+
+        try {
+            // Writers publish consistent triples: access, refresh and user all carry the same number
+            Runnable writer = () -> {
+                await(start);
+                for (int i = 0; running.get(); i++) {
+                    String n = Thread.currentThread().getId() + "-" + i;
+                    store.saveTokens("a" + n, "r" + n, new User(n, n + "@example.com", List.of("USER")));
+                    if (i % 7 == 0) {
+                        store.updateAccessToken(store.getSession().getAccessToken());
+                    }
+                    if (i % 13 == 0) {
+                        store.clear();
+                    }
+                }
+            };
+            Runnable reader = () -> {
+                await(start);
+                while (running.get()) {
+                    SessionSnapshot session = store.getSession();
+                    reads.incrementAndGet();
+                    if (session.isEmpty()) {
+                        continue;
+                    }
+                    String id = session.getUser().getId();
+                    if (!session.getRefreshToken().equals("r" + id)) {
+                        torn.incrementAndGet();
+                    }
+                }
+            };
+
+            List<Future<?>> tasks = List.of(
+                    pool.submit(writer), pool.submit(writer), pool.submit(writer),
+                    pool.submit(reader), pool.submit(reader), pool.submit(reader),
+                    pool.submit(reader), pool.submit(reader));
+            start.countDown();
+            Thread.sleep(500);
+            running.set(false);
+            for (Future<?> task : tasks) {
+                task.get(5, TimeUnit.SECONDS);
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+
+        assertTrue(reads.get() > 0);
+        assertEquals(0, torn.get());
+    }
+
+    @Test
+    void updateAccessTokenKeepsRefreshTokenAndUser() {
+        InMemoryTokenStore store = new InMemoryTokenStore();
+        User user = new User("1", "a@example.com", List.of("USER"));
+        store.saveTokens("a1", "r1", user);
+
+        store.updateAccessToken("a2");
+
+        SessionSnapshot session = store.getSession();
+        assertEquals("a2", session.getAccessToken());
+        assertEquals("r1", session.getRefreshToken());
+        assertSame(user, session.getUser());
+    }
+
+    @Test
+    void compareAndSetRejectsStaleExpectation() {
+        InMemoryTokenStore store = new InMemoryTokenStore();
+        store.saveTokens("a1", "r1", null);
+        SessionSnapshot stale = store.getSession();
+        store.saveTokens("a2", "r2", null);
+
+        assertFalse(store.compareAndSet(stale, SessionSnapshot.EMPTY));
+        assertEquals("a2", store.getAccessToken());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package com.evoauth.session;
+
+import com.evoauth.models.User;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapSessionStoreTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final OffHeapSessionStore store = new OffHeapSessionStore.Builder()
+            .segments(4)
+            .clock(now::get)
+            .build();
+
+    @Test
+    void roundTripsSessionsAndReadsTokensOnDemand() {
+        User user = new User("user_123", "jörg@example.com", List.of("ADMIN", "USER"));
+        user.setFirstName("Jörg");
+        user.setMfaEnabled(true);
+        store.put("s1", new SessionSnapshot("access", "refresh", user, 2_000_000, 9_000_000));
+        store.put("s2", new SessionSnapshot("only-access", null, null));
+
+        SessionSnapshot s1 = store.get("s1");
+        assertEquals("access", s1.getAccessToken());
+        assertEquals("refresh", s1.getRefreshToken());
+        assertEquals(2_000_000, s1.getAccessTokenExpiresAt());
+        assertEquals(9_000_000, s1.getRefreshTokenExpiresAt());
+        assertEquals("jörg@example.com", s1.getUser().getEmail());
+        assertEquals("Jörg", s1.getUser().getFirstName());
+        assertNull(s1.getUser().getLastName());
+        assertEquals(List.of("ADMIN", "USER"), s1.getUser().getRoles());
+        assertTrue(s1.getUser().isMfaEnabled());
+
+        assertEquals("only-access", store.getAccessToken("s2"));
+        assertNull(store.getRefreshToken("s2"));
+        assertNull(store.get("s2").getUser());
+        assertNull(store.get("missing"));
+    }
+
+    @Test
+    void matchesAHashMapUnderRandomChurn() {
+        Map<String, String> model = new HashMap<>();
+        Random random = new Random(42);
+        for (int i = 0; i < 200_000; i++) {
+            String id = "session-" + random.nextInt(20_000);
+            if (random.nextInt(4) == 0) {
+                assertEquals(model.remove(id) != null, store.remove(id) != null);
+            } else {
+                // Vary the token length so sessions move between size classes
+                String token = "t".repeat(random.nextInt(3_000)) + i;
+                model.put(id, token);
+                store.put(id, new SessionSnapshot(token, "r", null));
+            }
+        }
+
+        assertEquals(model.size(), store.size());
+        model.forEach((id, token) -> assertEquals(token, store.getAccessToken(id)));
+        int[] seen = new int[1];
+        store.forEach((id, session) -> {
+            assertEquals(model.get(id), session.getAccessToken());
+            seen[0]++;
+        });
+        assertEquals(model.size(), seen[0]);
+    }
+
+    @Test
+    void reusesBlocksAfterRemovalAndSlabsAfterClear() {
+        for (int round = 0; round < 5; round++) {
+            for (int i = 0; i < 10_000; i++) {
+                store.put("s" + i, new SessionSnapshot("access-" + i, "refresh-" + i, null));
+            }
+            for (int i = 0; i < 10_000; i++) {
+                store.remove("s" + i);
+            }
+        }
+        long afterChurn = store.offHeapBytes();
+
+        for (int i = 0; i < 10_000; i++) {
+            store.put("s" + i, new SessionSnapshot("access-" + i, "refresh-" + i, null));
+        }
+        store.clear();
+        for (int i = 0; i < 10_000; i++) {
+            store.put("s" + i, new SessionSnapshot("access-" + i, "refresh-" + i, null));
+        }
+
+        assertEquals(afterChurn, store.offHeapBytes());
+        assertEquals(10_000, store.size());
+    }
+
+    @Test
+    void expiredSessionsReadAsAbsentAndArePurged() {
+        store.put("short", new SessionSnapshot("a", "r", null, 0, now.get() + 1_000));
+        store.put("long", new SessionSnapshot("a", "r", null, 0, now.get() + 60_000));
+
+        now.addAndGet(5_000);
+        assertNull(store.get("short"));
+        assertNull(store.getAccessToken("short"));
+        assertNotNull(store.get("long"));
+
+        assertEquals(1, store.purgeExpired());
+        assertEquals(1, store.size());
+    }
+
+    @Test
+    void expiredSessionsAreNotCountedAndWritesSweepThem() {
+        OffHeapSessionStore single = new OffHeapSessionStore.Builder()
+                .segments(1)
+                .clock(now::get)
+                .build();
+        single.put("short", new SessionSnapshot("a", "r", null, 0, now.get() + 1_000));
+
+        now.addAndGet(5_000);
+        assertEquals(0, single.size());
+
+        // A write a minute after the segment's last sweep frees the expired block
+        now.addAndGet(60_000);
+        single.put("next", new SessionSnapshot("a", "r", null));
+        assertEquals(0, single.purgeExpired());
+        assertEquals(1, single.size());
+    }
+}
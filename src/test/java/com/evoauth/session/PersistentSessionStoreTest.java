@@ -0,0 +1,127 @@
+package com.evoauth.session;
+
+import com.evoauth.models.User;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistentSessionStoreTest {
+
+    @TempDir
+    Path directory;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+
+    @Test
+    void restoresSessionsAfterRestartSkippingExpiredOnes() {
+        try (PersistentSessionStore store = open(PersistentSessionStore.FsyncPolicy.NEVER)) {
+            User user = new User("user_1", "a@example.com", List.of("ADMIN"));
+            store.put("kept", new SessionSnapshot("a1", "r1", user, 0, now.get() + 60_000));
+            store.put("removed", new SessionSnapshot("a2", "r2", null));
+            store.put("expiring", new SessionSnapshot("a3", "r3", null, 0, now.get() + 1_000));
+            store.remove("removed");
+            store.compute("kept", current -> current.withAccessToken("a1-refreshed"));
+        }
+
+        now.addAndGet(5_000);
+        try (PersistentSessionStore store = open(PersistentSessionStore.FsyncPolicy.NEVER)) {
+            assertEquals(1, store.size());
+            SessionSnapshot kept = store.get("kept");
+            assertEquals("a1-refreshed", kept.getAccessToken());
+            assertEquals("r1", kept.getRefreshToken());
+            assertEquals(List.of("ADMIN"), kept.getUser().getRoles());
+            assertNull(store.get("removed"));
+            assertNull(store.get("expiring"));
+        }
+    }
+
+    @Test
+    void compactionKeepsOnlyLiveSessionsOnDisk() throws IOException {
+        try (PersistentSessionStore store = open(PersistentSessionStore.FsyncPolicy.NEVER)) {
+            for (int i = 0; i < 5_000; i++) {
+                store.put("s" + (i % 10), new SessionSnapshot("access-" + i, "refresh", null));
+            }
+            store.compact();
+            store.put("s0", new SessionSnapshot("after-compaction", "refresh", null));
+        }
+
+        try (Stream<Path> files = Files.list(directory)) {
+            assertEquals(2, files.count(), "expected one snapshot and one log");
+        }
+        try (PersistentSessionStore store = open(PersistentSessionStore.FsyncPolicy.NEVER)) {
+            assertEquals(10, store.size());
+            assertEquals("after-compaction", store.get("s0").getAccessToken());
+            assertEquals("access-4999", store.get("s9").getAccessToken());
+        }
+    }
+
+    @Test
+    void dropsExpiredSessionsFromMemory() {
+        try (PersistentSessionStore store = open(PersistentSessionStore.FsyncPolicy.NEVER)) {
+            store.put("live", new SessionSnapshot("a", "r", null, 0, now.get() + 60_000));
+            for (int i = 0; i < 3; i++) {
+                store.put("abandoned-" + i, new SessionSnapshot("a", "r", null, 0, now.get() + 1_000));
+            }
+            assertEquals(4, store.size());
+
+            now.addAndGet(5_000);
+            assertEquals(1, store.size());
+            // Compaction leaves expired sessions out of the snapshot and out of memory
+            store.compact();
+            assertEquals(0, store.purgeExpired());
+
+            store.put("later", new SessionSnapshot("a", "r", null, 0, now.get() + 1_000));
+            now.addAndGet(5_000);
+            assertEquals(1, store.purgeExpired());
+            assertEquals(1, store.size());
+        }
+    }
+
+    @Test
+    void groupCommitsConcurrentWritersAcrossRegions() throws Exception {
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        try (PersistentSessionStore store = open(PersistentSessionStore.FsyncPolicy.ALWAYS)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                int thread = t;
+                writers.add(pool.submit(() -> {
+                    for (int i = 0; i < 200; i++) {
+                        store.put("t" + thread + "-" + i, new SessionSnapshot("access-" + i, "refresh", null));
+                    }
+                }));
+            }
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            pool.shutdown();
+        }
+
+        try (PersistentSessionStore store = open(PersistentSessionStore.FsyncPolicy.ALWAYS)) {
+            assertEquals(1_600, store.size());
+            assertEquals("access-199", store.get("t7-199").getAccessToken());
+        }
+    }
+
+    private PersistentSessionStore open(PersistentSessionStore.FsyncPolicy policy) {
+        return new PersistentSessionStore.Builder()
+                .directory(directory)
+                .fsyncPolicy(policy)
+                // Small regions so the tests roll over between them
+                .regionSize(8192)
+                .clock(now::get)
+                .build();
+    }
+}
@@ -0,0 +1,102 @@
+package com.evoauth.session;
+
+import com.evoauth.models.User;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SessionTimerWheelTest {
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final List<String> refreshed = new ArrayList<>();
+    private final List<String> expired = new ArrayList<>();
+    private final SessionTimerWheel wheel = new SessionTimerWheel.Builder()
+            .clock(now::get)
+            .manualTicks()
+            .refreshAheadFraction(0.5)
+            .jitterFraction(0)
+            .listener(new SessionTimerWheel.Listener() {
+                @Override
+                public void onRefreshDue(String sessionId) {
+                    refreshed.add(sessionId);
+                }
+
+                @Override
+                public void onExpired(String sessionId) {
+                    expired.add(sessionId);
+                }
+            })
+            .build();
+
+    @AfterEach
+    void tearDown() {
+        wheel.close();
+    }
+
+    @Test
+    void firesRefreshAheadOfAccessExpiryThenSessionExpiry() {
+        wheel.track("s", session(Duration.ofMinutes(10), Duration.ofDays(2)));
+
+        advanceBy(Duration.ofMinutes(4));
+        assertTrue(refreshed.isEmpty());
+        advanceBy(Duration.ofMinutes(1).plusSeconds(1));
+        assertEquals(List.of("s"), refreshed);
+
+        advanceBy(Duration.ofDays(2).minusMinutes(6));
+        assertTrue(expired.isEmpty());
+        advanceBy(Duration.ofMinutes(2));
+        assertEquals(List.of("s"), expired);
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void firesDeadlinesAcrossEveryLevelInOrder() {
+        // Spread from seconds to well past the wheel's span, to exercise cascading and overflow
+        long[] days = { 0, 1, 3, 40, 300 };
+        for (int i = 0; i < days.length; i++) {
+            wheel.track("s" + i, session(null, Duration.ofDays(days[i]).plusSeconds(5)));
+        }
+
+        for (int i = 0; i < days.length; i++) {
+            long deadline = 1_000_000 + Duration.ofDays(days[i]).plusSeconds(5).toMillis();
+            advanceTo(deadline - 1_000);
+            assertEquals(i, expired.size(), "fired early: " + expired);
+            advanceTo(deadline + 1_000);
+            assertEquals(i + 1, expired.size(), "fired late: " + expired);
+        }
+    }
+
+    @Test
+    void rescheduleAndUntrackCancelPendingTimers() {
+        wheel.track("a", session(null, Duration.ofMinutes(1)));
+        wheel.track("b", session(null, Duration.ofMinutes(1)));
+        wheel.track("a", session(null, Duration.ofHours(1)));
+        wheel.untrack("b");
+
+        advanceBy(Duration.ofMinutes(2));
+        assertTrue(expired.isEmpty());
+        advanceBy(Duration.ofHours(1));
+        assertEquals(List.of("a"), expired);
+    }
+
+    private void advanceBy(Duration duration) {
+        advanceTo(now.get() + duration.toMillis());
+    }
+
+    private void advanceTo(long millis) {
+        now.set(millis);
+        wheel.advance();
+    }
+
+    private SessionSnapshot session(Duration accessLifetime, Duration refreshLifetime) {
+        long t = now.get();
+        return new SessionSnapshot("access", "refresh", new User("1", "a@example.com", List.of("USER")),
+                accessLifetime == null ? 0 : t + accessLifetime.toMillis(), t + refreshLifetime.toMillis());
+    }
+}